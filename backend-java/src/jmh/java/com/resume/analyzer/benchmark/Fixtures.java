@@ -0,0 +1,250 @@
+package com.resume.analyzer.benchmark;
+
+import com.resume.analyzer.service.ATSService;
+import com.resume.analyzer.service.AnalysisMetrics;
+import com.resume.analyzer.service.DocumentAnalyzer;
+import com.resume.analyzer.service.PromptBudgeter;
+import com.resume.analyzer.service.SkillTaxonomyService;
+import com.resume.analyzer.service.SkillsService;
+import com.theokanning.openai.client.OpenAiApi;
+import com.theokanning.openai.completion.chat.ChatCompletionChoice;
+import com.theokanning.openai.completion.chat.ChatCompletionResult;
+import com.theokanning.openai.completion.chat.ChatMessage;
+import com.theokanning.openai.completion.chat.ChatMessageRole;
+import com.theokanning.openai.embedding.Embedding;
+import com.theokanning.openai.embedding.EmbeddingRequest;
+import com.theokanning.openai.embedding.EmbeddingResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.reactivex.Single;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared inputs for the benchmarks. Everything is derived from the files under
+ * {@code src/jmh/resources/samples} (copies of the repository's sample resume and job
+ * description) or from fixed seeds, so numbers stay comparable across commits.
+ */
+public final class Fixtures {
+
+    public static final int EMBEDDING_DIMENSIONS = 1536;
+
+    private static final int LINES_PER_PAGE = 48;
+
+    private Fixtures() {
+    }
+
+    public static String resume() {
+        return sample("sample-resume.txt");
+    }
+
+    public static String jobDescription() {
+        return sample("sample-job-description.txt");
+    }
+
+    public static String llmResponse() {
+        return sample("sample-llm-response.txt");
+    }
+
+    /**
+     * The sample resume repeated until it is roughly {@code multiplier} times its size.
+     */
+    public static String resume(int multiplier) {
+        String resume = resume();
+        StringBuilder text = new StringBuilder(resume.length() * multiplier);
+        for (int i = 0; i < multiplier; i++) {
+            text.append(resume).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * A PDF with {@code pages} letter-size pages filled with the sample resume's lines.
+     */
+    public static byte[] resumePdf(int pages) {
+        String[] lines = resume().split("\n");
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            int line = 0;
+            for (int p = 0; p < pages; p++) {
+                PDPage page = new PDPage(PDRectangle.LETTER);
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 10);
+                    content.setLeading(14);
+                    content.newLineAtOffset(50, 740);
+                    for (int i = 0; i < LINES_PER_PAGE; i++) {
+                        content.showText(lines[line++ % lines.length]);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A taxonomy service over the bundled taxonomy plus {@code syntheticSkills} generated
+     * skills (each with one alias), so dictionary size can be varied independently of text.
+     */
+    public static SkillTaxonomyService taxonomyService(int syntheticSkills) {
+        try {
+            Path file = Files.createTempFile("bench-taxonomy", ".txt");
+            file.toFile().deleteOnExit();
+
+            StringBuilder taxonomy = new StringBuilder(resource("/skills-taxonomy.txt"));
+            Random random = new Random(42);
+            for (int i = 0; i < syntheticSkills; i++) {
+                String word = word(random);
+                taxonomy.append('\n').append(word).append(i)
+                    .append(" | Synthetic | ").append(word).append('-').append(word(random));
+            }
+            Files.writeString(file, taxonomy, StandardCharsets.UTF_8);
+
+            SkillTaxonomyService service = new SkillTaxonomyService();
+            ReflectionTestUtils.setField(service, "resourceLoader", new DefaultResourceLoader());
+            ReflectionTestUtils.setField(service, "location", file.toUri().toString());
+            service.init();
+            return service;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A document analyzer over the given skills service and a plain ATS service.
+     */
+    public static DocumentAnalyzer documentAnalyzer(SkillsService skillsService) {
+        DocumentAnalyzer analyzer = new DocumentAnalyzer();
+        ReflectionTestUtils.setField(analyzer, "skillsService", skillsService);
+        ReflectionTestUtils.setField(analyzer, "atsService", new ATSService());
+        return analyzer;
+    }
+
+    /**
+     * A document analyzer over the bundled taxonomy.
+     */
+    public static DocumentAnalyzer documentAnalyzer() {
+        SkillsService skillsService = new SkillsService();
+        ReflectionTestUtils.setField(skillsService, "taxonomyService", taxonomyService(0));
+        return documentAnalyzer(skillsService);
+    }
+
+    /**
+     * A prompt budgeter with the default budget from application.properties.
+     */
+    public static PromptBudgeter promptBudgeter() {
+        PromptBudgeter budgeter = new PromptBudgeter();
+        ReflectionTestUtils.setField(budgeter, "model", "gpt-4o-mini");
+        ReflectionTestUtils.setField(budgeter, "inputTokens", 1500);
+        ReflectionTestUtils.setField(budgeter, "resumeShare", 0.6);
+        budgeter.init();
+        return budgeter;
+    }
+
+    /**
+     * Metrics recorded into an in-memory registry; cache meters are not bound.
+     */
+    public static AnalysisMetrics metrics() {
+        AnalysisMetrics metrics = new AnalysisMetrics();
+        ReflectionTestUtils.setField(metrics, "registry", new SimpleMeterRegistry());
+        return metrics;
+    }
+
+    /**
+     * An {@link OpenAiApi} that answers locally: embeddings are seeded from the input text
+     * and chat completions return the sample LLM response. Other endpoints are unsupported.
+     */
+    public static OpenAiApi stubOpenAiApi() {
+        String completion = llmResponse();
+        return (OpenAiApi) Proxy.newProxyInstance(OpenAiApi.class.getClassLoader(), new Class<?>[] {OpenAiApi.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "createEmbeddings" -> Single.just(embeddings((EmbeddingRequest) args[0]));
+                case "createChatCompletion" -> Single.just(chatCompletion(completion));
+                case "toString" -> "stubOpenAiApi";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    private static EmbeddingResult embeddings(EmbeddingRequest request) {
+        List<Embedding> data = new ArrayList<>();
+        for (int i = 0; i < request.getInput().size(); i++) {
+            Random random = new Random(request.getInput().get(i).hashCode());
+            List<Double> values = new ArrayList<>(EMBEDDING_DIMENSIONS);
+            for (int d = 0; d < EMBEDDING_DIMENSIONS; d++) {
+                values.add(random.nextGaussian());
+            }
+            Embedding embedding = new Embedding();
+            embedding.setIndex(i);
+            embedding.setEmbedding(values);
+            data.add(embedding);
+        }
+        EmbeddingResult result = new EmbeddingResult();
+        result.setData(data);
+        return result;
+    }
+
+    private static ChatCompletionResult chatCompletion(String completion) {
+        ChatCompletionChoice choice = new ChatCompletionChoice();
+        choice.setMessage(new ChatMessage(ChatMessageRole.ASSISTANT.value(), completion));
+        ChatCompletionResult result = new ChatCompletionResult();
+        result.setChoices(List.of(choice));
+        return result;
+    }
+
+    public static float[] randomVector(Random random) {
+        float[] values = new float[EMBEDDING_DIMENSIONS];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (float) random.nextGaussian();
+        }
+        return values;
+    }
+
+    private static String word(Random random) {
+        char[] letters = new char[5 + random.nextInt(6)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+
+    private static String sample(String name) {
+        return resource("/samples/" + name);
+    }
+
+    private static String resource(String path) {
+        try (InputStream in = Fixtures.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing benchmark resource " + path);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.resume.analyzer.controller;
+
+import com.resume.analyzer.ResumeAnalyzerApplication;
+import com.resume.analyzer.benchmark.Fixtures;
+import com.resume.analyzer.model.AnalysisResponse;
+import com.theokanning.openai.client.OpenAiApi;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A full {@code POST /analyze} through {@link AnalyzeController} in a real application
+ * context, with OpenAI replaced by {@link Fixtures#stubOpenAiApi()}. Measures everything
+ * the service does itself: extraction, skills, embeddings plumbing, ATS, prompt building
+ * and response parsing. {@code mode} compares the tiers: {@code fast} makes no upstream
+ * calls at all.
+ *
+ * Every invocation posts the same resume, so the extraction, embedding and completion
+ * caches are turned off (a cache that never stores anything), as is the resume store,
+ * which skips resumes it already holds. Otherwise the numbers after warmup would be
+ * cache hits.
+ */
+@State(Scope.Benchmark)
+public class AnalyzeEndToEndBenchmark {
+
+    @Param({"txt", "pdf"})
+    public String format;
+
+    @Param({"fast", "semantic", "full"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private AnalyzeController controller;
+    private MockMultipartFile resume;
+    private String jobDescription;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ResumeAnalyzerApplication.class, StubOpenAiConfig.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "openai.api.key=",
+                "pdf.extraction.cache.max-entries=0",
+                "pdf.extraction.cache.disk-path=",
+                "openai.embedding.cache.max-entries=0",
+                "openai.embedding.cache.disk-path=",
+                "openai.chat.cache.max-entries=0",
+                "openai.chat.cache.disk-path=",
+                "resumes.store.enabled=false",
+                "logging.level.com.resume.analyzer=WARN"
+            )
+            .run();
+        controller = context.getBean(AnalyzeController.class);
+
+        resume = "pdf".equals(format)
+            ? new MockMultipartFile("resume", "resume.pdf", "application/pdf", Fixtures.resumePdf(1))
+            : new MockMultipartFile("resume", "resume.txt", "text/plain",
+                Fixtures.resume().getBytes(StandardCharsets.UTF_8));
+        jobDescription = Fixtures.jobDescription();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<AnalysisResponse> analyze() {
+        return controller.analyze(resume, jobDescription, null, mode).join();
+    }
+
+    @Configuration
+    static class StubOpenAiConfig {
+
+        @Bean
+        @Primary
+        OpenAiApi stubOpenAiApi() {
+            return Fixtures.stubOpenAiApi();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.resume.analyzer.index;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * {@link Bm25Index#search} over a synthetic corpus of resume-sized documents whose words
+ * follow a Zipf distribution over a 50,000-word vocabulary, in four fields. The 100 most
+ * common words stand in for stopwords and are left out of documents and queries alike, as
+ * {@code ResumeTerms} does. The index is built, flushed and merged in setup; its size on
+ * disk and segment count are reported as secondary results.
+ */
+@State(Scope.Benchmark)
+public class Bm25IndexBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int STOPWORDS = 100;
+    private static final int FIELDS = 4;
+    private static final int WORDS_PER_DOCUMENT = 400;
+    private static final int QUERY_TERMS = 40;
+
+    @Param({"100000", "1000000"})
+    public int documents;
+
+    private final float[] fieldWeights = {2.0f, 1.5f, 1.2f, 1.0f};
+
+    private Path directory;
+    private Bm25Index index;
+    private Map<String, Float> query;
+    private long diskBytes;
+    private int segments;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(11);
+        double[] cdf = zipf(VOCABULARY, 1.0);
+
+        directory = Files.createTempDirectory("bm25-benchmark");
+        index = new Bm25Index(directory, FIELDS, 1.2f, 0.75f);
+        for (long id = 0; id < documents; id++) {
+            Map<String, int[]> frequencies = new HashMap<>();
+            int[] lengths = new int[FIELDS];
+            for (int i = 0; i < WORDS_PER_DOCUMENT; i++) {
+                int rank = sample(cdf, random);
+                if (rank < STOPWORDS) {
+                    continue;
+                }
+                int field = random.nextInt(FIELDS);
+                frequencies.computeIfAbsent(word(rank), w -> new int[FIELDS])[field]++;
+                lengths[field]++;
+            }
+            index.add(String.format("%016x", id), "resume-" + id + ".pdf", frequencies, lengths);
+            if (index.bufferedDocuments() >= 50_000) {
+                flush();
+            }
+        }
+        flush();
+
+        segments = index.segmentCount();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                diskBytes += Files.size(file);
+            }
+        }
+
+        // A job description: distinct words drawn like a document's, weighted 1-3
+        query = new HashMap<>();
+        while (query.size() < QUERY_TERMS) {
+            int rank = sample(cdf, random);
+            if (rank >= STOPWORDS) {
+                query.put(word(rank), 1f + random.nextInt(3));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        index.close();
+        try (var paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Bm25Index.SearchResult search(Size size) {
+        size.diskMegabytes = diskBytes / 1e6;
+        size.segments = segments;
+        return index.search(query, fieldWeights, 50, 64);
+    }
+
+    /**
+     * Size of the index searched, constant for a given {@code documents}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public double diskMegabytes;
+        public int segments;
+    }
+
+    private void flush() throws IOException {
+        index.flush();
+        while (index.merge()) {
+            // Merge down as the service does
+        }
+    }
+
+    private static String word(int rank) {
+        return "w" + rank;
+    }
+
+    private static double[] zipf(int size, double exponent) {
+        double[] cdf = new double[size];
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cdf[rank] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, Random random) {
+        int rank = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(rank >= 0 ? rank : -rank - 1, cdf.length - 1);
+    }
+}
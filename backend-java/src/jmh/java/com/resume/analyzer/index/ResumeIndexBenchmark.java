@@ -0,0 +1,154 @@
+package com.resume.analyzer.index;
+
+import com.resume.analyzer.vector.DenseVector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * {@link ResumeIndex#search} for a job on synthetic clustered resumes: {@code exact}
+ * scores every resume, {@code approximate} reranks candidates from the skill postings and
+ * the {@code nprobe} closest IVF lists, as {@code GET /jobs/{id}/matches} does by default.
+ * The approximate search also reports {@code recall}, the share of the exact top k it
+ * returned, as a secondary result. {@code nprobe} does not affect the exact search.
+ */
+@State(Scope.Benchmark)
+public class ResumeIndexBenchmark {
+
+    private static final int CLUSTERS = 200;
+    private static final int SKILLS = 400;
+    private static final int CLUSTER_SKILLS = 30;
+    private static final int QUERIES = 32;
+    private static final int K = 50;
+    // ResumeStore's default: k x resumes.index.candidates-per-match
+    private static final int CANDIDATES = K * 10;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"384"})
+    public int dimensions;
+
+    @Param({"4", "16", "64"})
+    public int nprobe;
+
+    private ResumeIndex index;
+    private final List<Set<String>> jobSkills = new ArrayList<>();
+    private final List<DenseVector> jobVectors = new ArrayList<>();
+    private final List<Set<String>> exactTop = new ArrayList<>();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(5);
+        float[][] centers = new float[CLUSTERS][];
+        int[][] clusterSkills = new int[CLUSTERS][CLUSTER_SKILLS];
+        for (int c = 0; c < CLUSTERS; c++) {
+            centers[c] = DenseVector.of(gaussian(random, 1f)).values();
+            for (int s = 0; s < CLUSTER_SKILLS; s++) {
+                clusterSkills[c][s] = random.nextInt(SKILLS);
+            }
+        }
+
+        index = new ResumeIndex(size);
+        for (int i = 0; i < size; i++) {
+            int cluster = random.nextInt(CLUSTERS);
+            Set<String> skills = skills(random, clusterSkills[cluster], 8, 4);
+            index.add("resume-" + i, "resume-" + i + ".pdf", skills, around(random, centers[cluster]));
+        }
+        // As ResumeStore trains it
+        int nlist = Math.min(1024, Math.max(16, (int) Math.sqrt(size)));
+        index.train(nlist, nlist * 32, 8, size);
+
+        for (int q = 0; q < QUERIES; q++) {
+            int cluster = random.nextInt(CLUSTERS);
+            jobSkills.add(skills(random, clusterSkills[cluster], 10, 0));
+            jobVectors.add(around(random, centers[cluster]));
+            Set<String> top = new HashSet<>();
+            for (ResumeIndex.Match match : index.search(jobSkills.get(q), jobVectors.get(q), K, true, nprobe, CANDIDATES).getMatches()) {
+                top.add(match.getId());
+            }
+            exactTop.add(top);
+        }
+    }
+
+    @Benchmark
+    public ResumeIndex.SearchResult exact() {
+        int query = nextQuery();
+        return index.search(jobSkills.get(query), jobVectors.get(query), K, true, nprobe, CANDIDATES);
+    }
+
+    @Benchmark
+    public ResumeIndex.SearchResult approximate(Recall recall) {
+        int query = nextQuery();
+        ResumeIndex.SearchResult result = index.search(jobSkills.get(query), jobVectors.get(query), K, false, nprobe, CANDIDATES);
+        int found = 0;
+        for (ResumeIndex.Match match : result.getMatches()) {
+            if (exactTop.get(query).contains(match.getId())) {
+                found++;
+            }
+        }
+        recall.record((double) found / exactTop.get(query).size());
+        return result;
+    }
+
+    /**
+     * Mean recall@k over the iteration's approximate searches.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Recall {
+        public double recall;
+        private double total;
+        private int searches;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            recall = 0;
+            total = 0;
+            searches = 0;
+        }
+
+        void record(double value) {
+            total += value;
+            recall = total / ++searches;
+        }
+    }
+
+    private int nextQuery() {
+        next = (next + 1) % QUERIES;
+        return next;
+    }
+
+    // A unit vector near the center: cosine about 0.7 in 384 dimensions
+    private DenseVector around(Random random, float[] center) {
+        float[] values = gaussian(random, 1f / (float) Math.sqrt(dimensions));
+        for (int d = 0; d < dimensions; d++) {
+            values[d] += center[d];
+        }
+        return DenseVector.of(values);
+    }
+
+    private float[] gaussian(Random random, float scale) {
+        float[] values = new float[dimensions];
+        for (int d = 0; d < dimensions; d++) {
+            values[d] = (float) random.nextGaussian() * scale;
+        }
+        return values;
+    }
+
+    private static Set<String> skills(Random random, int[] clusterSkills, int fromCluster, int others) {
+        Set<String> skills = new HashSet<>();
+        for (int i = 0; i < fromCluster; i++) {
+            skills.add("skill-" + clusterSkills[random.nextInt(clusterSkills.length)]);
+        }
+        for (int i = 0; i < others; i++) {
+            skills.add("skill-" + random.nextInt(SKILLS));
+        }
+        return skills;
+    }
+}
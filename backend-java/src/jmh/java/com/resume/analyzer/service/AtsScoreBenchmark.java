@@ -0,0 +1,47 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link ATSService#calculateAtsScore} on the sample resume and job description.
+ */
+@State(Scope.Benchmark)
+public class AtsScoreBenchmark {
+
+    private ATSService atsService;
+    private String resume;
+    private String jobDescription;
+    private List<String> matched;
+    private List<String> missing;
+
+    @Setup
+    public void setUp() {
+        atsService = new ATSService();
+        resume = Fixtures.resume();
+        jobDescription = Fixtures.jobDescription();
+
+        SkillsService skillsService = new SkillsService();
+        ReflectionTestUtils.setField(skillsService, "taxonomyService", Fixtures.taxonomyService(0));
+        Set<String> resumeSkills = skillsService.extractSkills(resume);
+        Set<String> jobSkills = skillsService.extractSkills(jobDescription);
+        Set<String> matchedSet = new HashSet<>(resumeSkills);
+        matchedSet.retainAll(jobSkills);
+        Set<String> missingSet = new HashSet<>(jobSkills);
+        missingSet.removeAll(resumeSkills);
+        matched = new ArrayList<>(matchedSet);
+        missing = new ArrayList<>(missingSet);
+    }
+
+    @Benchmark
+    public Map<String, Double> calculateAtsScore() {
+        return atsService.calculateAtsScore(resume, jobDescription, matched, missing);
+    }
+}
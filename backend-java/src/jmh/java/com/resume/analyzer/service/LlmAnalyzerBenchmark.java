@@ -0,0 +1,51 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.benchmark.Fixtures;
+import com.resume.analyzer.model.LLMAnalysis;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The local halves of an LLM analysis: building the few-shot prompt and parsing a
+ * completion back into an {@link LLMAnalysis}. The upstream call itself is not measured.
+ */
+@State(Scope.Benchmark)
+public class LlmAnalyzerBenchmark {
+
+    // Above 1 the resume exceeds the prompt budget and excerpts are selected
+    @Param({"1", "10"})
+    public int resumeMultiplier;
+
+    private final List<String> matched = List.of("react", "node.js", "python", "postgresql", "docker", "aws");
+    private final List<String> missing = List.of("graphql", "terraform", "kafka");
+    private final Map<String, Double> atsScore = Map.of("overall_score", 78.5);
+
+    private LLMAnalyzerService llmAnalyzerService;
+    private AnalyzedDocument resume;
+    private AnalyzedDocument jobDescription;
+    private String completion;
+
+    @Setup
+    public void setUp() {
+        llmAnalyzerService = new LLMAnalyzerService();
+        ReflectionTestUtils.setField(llmAnalyzerService, "promptBudgeter", Fixtures.promptBudgeter());
+        ReflectionTestUtils.setField(llmAnalyzerService, "metrics", Fixtures.metrics());
+        DocumentAnalyzer documentAnalyzer = Fixtures.documentAnalyzer();
+        resume = documentAnalyzer.analyze(Fixtures.resume(resumeMultiplier));
+        jobDescription = documentAnalyzer.analyze(Fixtures.jobDescription());
+        completion = Fixtures.llmResponse();
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return llmAnalyzerService.buildFewShotPrompt(resume, jobDescription, 72.4, matched, missing, atsScore);
+    }
+
+    @Benchmark
+    public LLMAnalysis parseResponse() {
+        return llmAnalyzerService.parseAnalysisResponse(completion, 72.4, matched, missing);
+    }
+}
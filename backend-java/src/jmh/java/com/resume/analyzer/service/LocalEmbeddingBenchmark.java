@@ -0,0 +1,47 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.benchmark.Fixtures;
+import com.resume.analyzer.vector.DenseVector;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * {@link LocalEmbedder#embed(String)} per document, by resume size (multiples of the
+ * sample resume) and vector size. The {@code gc} profiler's allocation rate per operation
+ * is the memory cost of one document; the vector itself is {@code 4 * dimensions} bytes.
+ */
+@State(Scope.Benchmark)
+public class LocalEmbeddingBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int size;
+
+    @Param({"256", "512", "1024"})
+    public int dimensions;
+
+    private LocalEmbedder embedder;
+    private String resume;
+    private DenseVector job;
+
+    @Setup
+    public void setUp() throws Exception {
+        embedder = new LocalEmbedder();
+        ReflectionTestUtils.setField(embedder, "taxonomyService", Fixtures.taxonomyService(0));
+        ReflectionTestUtils.setField(embedder, "dimensions", dimensions);
+        ReflectionTestUtils.setField(embedder, "skillWeight", 2.0f);
+        ReflectionTestUtils.setField(embedder, "idfPath", "");
+        embedder.init();
+        resume = Fixtures.resume(size);
+        job = embedder.embed(Fixtures.jobDescription());
+    }
+
+    @Benchmark
+    public DenseVector embed() {
+        return embedder.embed(resume);
+    }
+
+    @Benchmark
+    public double embedAndScore() {
+        return embedder.embed(resume).cosine(job);
+    }
+}
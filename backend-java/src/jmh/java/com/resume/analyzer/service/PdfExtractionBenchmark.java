@@ -0,0 +1,55 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link PDFService#extractText(String, Path, java.io.Writer)} on generated PDFs: a single
+ * page (small), 10 pages (large) and 100 pages (many-page), with page-range parallelism
+ * switched off and on.
+ */
+@State(Scope.Benchmark)
+public class PdfExtractionBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int pages;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private PDFService pdfService;
+    private ExecutorService executor;
+    private Path pdf;
+
+    @Setup
+    public void setUp() throws IOException {
+        pdfService = new PDFService();
+        ReflectionTestUtils.setField(pdfService, "maxMainMemoryBytes", 4L * 1024 * 1024);
+        ReflectionTestUtils.setField(pdfService, "maxChars", 2_000_000);
+        ReflectionTestUtils.setField(pdfService, "parallelMinPages", parallel ? 16 : Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(pdfService, "pagesPerTask", 8);
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        ReflectionTestUtils.setField(pdfService, "pdfExtractionExecutor", executor);
+        ReflectionTestUtils.setField(pdfService, "metrics", Fixtures.metrics());
+        pdf = Files.createTempFile("bench-resume", ".pdf");
+        Files.write(pdf, Fixtures.resumePdf(pages));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(pdf);
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public String extractText() {
+        return pdfService.extractText("resume.pdf", pdf, null);
+    }
+}
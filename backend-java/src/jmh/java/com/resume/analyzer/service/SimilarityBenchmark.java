@@ -0,0 +1,31 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.benchmark.Fixtures;
+import com.resume.analyzer.vector.DenseVector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+
+/**
+ * {@link SkillsService#cosineSimilarity} on two embedding-sized vectors.
+ */
+@State(Scope.Benchmark)
+public class SimilarityBenchmark {
+
+    private SkillsService skillsService;
+    private DenseVector resume;
+    private DenseVector job;
+
+    @Setup
+    public void setUp() {
+        skillsService = new SkillsService();
+        Random random = new Random(7);
+        resume = DenseVector.of(Fixtures.randomVector(random));
+        job = DenseVector.of(Fixtures.randomVector(random));
+    }
+
+    @Benchmark
+    public double cosineSimilarity() {
+        return skillsService.cosineSimilarity(resume, job);
+    }
+}
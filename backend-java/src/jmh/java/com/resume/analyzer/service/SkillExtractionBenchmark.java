@@ -0,0 +1,47 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.benchmark.Fixtures;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+/**
+ * {@link SkillsService#extractSkills} across text sizes (the sample resume repeated) and
+ * dictionary sizes (the bundled taxonomy plus generated skills).
+ */
+@State(Scope.Benchmark)
+public class SkillExtractionBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int textMultiplier;
+
+    @Param({"0", "5000", "50000"})
+    public int extraSkills;
+
+    private SkillsService skillsService;
+    private DocumentAnalyzer documentAnalyzer;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        skillsService = new SkillsService();
+        ReflectionTestUtils.setField(skillsService, "taxonomyService", Fixtures.taxonomyService(extraSkills));
+        documentAnalyzer = Fixtures.documentAnalyzer(skillsService);
+        text = Fixtures.resume(textMultiplier);
+    }
+
+    @Benchmark
+    public Set<String> extractSkills() {
+        return skillsService.extractSkills(text);
+    }
+
+    /**
+     * The full shared pass (normalization, tokens, lines, sections, skill mentions and ATS
+     * checks) that the pipeline runs once per resume.
+     */
+    @Benchmark
+    public AnalyzedDocument analyzeDocument() {
+        return documentAnalyzer.analyze(text);
+    }
+}
@@ -2,10 +2,12 @@ package com.resume.analyzer;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @SpringBootApplication
+@EnableScheduling
 public class ResumeAnalyzerApplication {
     
     private static final Logger logger = LoggerFactory.getLogger(ResumeAnalyzerApplication.class);
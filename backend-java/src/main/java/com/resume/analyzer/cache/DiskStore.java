@@ -0,0 +1,253 @@
+package com.resume.analyzer.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only key/value log on local disk, used as the persistent tier behind the
+ * in-memory caches. Keys are SHA-256 hex strings from {@link ContentHash}.
+ *
+ * Each record is {@code [32-byte key][int length][payload]}. The file is scanned once on
+ * open to rebuild the offset index; a partially written tail record (e.g. after a crash)
+ * is truncated away.
+ *
+ * The store keeps two generations of at most half of {@code maxBytes} each: the file at
+ * {@code path}, which takes all writes, and the one before it at {@code path.old}. When the
+ * current file is full it becomes the old one and the previous old file, with every entry
+ * not read since, is deleted. An entry read from the old file is copied into the current
+ * one, so entries in use survive rotation.
+ */
+public class DiskStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskStore.class);
+    private static final int KEY_BYTES = 32;
+    private static final int HEADER_BYTES = KEY_BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final Path oldPath;
+    private final long generationBytes;
+    // Readers hold the read lock; appends and rotation, which swap the files, the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Generation current;
+    private Generation old;
+    private long rotations;
+
+    public DiskStore(Path path, long maxBytes) throws IOException {
+        this.path = path;
+        this.oldPath = path.resolveSibling(path.getFileName() + ".old");
+        this.generationBytes = maxBytes / 2;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.current = new Generation(path);
+        this.old = Files.exists(oldPath) ? new Generation(oldPath) : null;
+        if (old != null) {
+            // An entry copied forward just before a crash may be in both
+            old.index.keySet().removeAll(current.index.keySet());
+        }
+        logger.info("💾 Opened cache store {}: {} entries, {} KB", path, size(), bytes() / 1024);
+    }
+
+    public byte[] get(String key) {
+        byte[] value;
+        lock.readLock().lock();
+        try {
+            Long offset = current.index.get(key);
+            if (offset != null) {
+                return current.read(offset);
+            }
+            offset = old != null ? old.index.get(key) : null;
+            if (offset == null) {
+                return null;
+            }
+            value = old.read(offset);
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to read cache entry from {}", path, e);
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Still in use, so keep it past the next rotation
+        if (value != null) {
+            put(key, value, false);
+        }
+        return value;
+    }
+
+    public boolean containsKey(String key) {
+        lock.readLock().lock();
+        try {
+            return current.index.containsKey(key) || (old != null && old.index.containsKey(key));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(String key, byte[] value) {
+        put(key, value, false);
+    }
+
+    /**
+     * With {@code overwrite}, an existing entry is superseded by appending the new value;
+     * the old record stays in the file but is no longer indexed (on reopen, the last record
+     * for a key wins). Entries larger than a generation are not stored.
+     */
+    public void put(String key, byte[] value, boolean overwrite) {
+        long recordBytes = HEADER_BYTES + (long) value.length;
+        lock.writeLock().lock();
+        try {
+            if ((current.index.containsKey(key) && !overwrite) || recordBytes > generationBytes) {
+                return;
+            }
+            if (current.size + recordBytes > generationBytes) {
+                rotate();
+            }
+
+            ByteBuffer record = ByteBuffer.allocate((int) recordBytes);
+            record.put(HexFormat.of().parseHex(key)).putInt(value.length).put(value).flip();
+            long offset = current.size;
+            while (record.hasRemaining()) {
+                current.channel.write(record, offset + record.position());
+            }
+            current.size += record.limit();
+            current.index.put(key, offset);
+            if (old != null) {
+                old.index.remove(key);
+            }
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to persist cache entry to {}", path, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.index.size() + (old != null ? old.index.size() : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long bytes() {
+        lock.readLock().lock();
+        try {
+            return current.size + (old != null ? old.size : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * How often the current file filled up and replaced the old one since the store opened.
+     */
+    public long rotations() {
+        lock.readLock().lock();
+        try {
+            return rotations;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            current.channel.close();
+            if (old != null) {
+                old.channel.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Called with the write lock held
+    private void rotate() throws IOException {
+        int dropped = old != null ? old.index.size() : 0;
+        if (old != null) {
+            old.channel.close();
+        }
+        current.channel.close();
+        Files.move(path, oldPath, StandardCopyOption.REPLACE_EXISTING);
+        old = new Generation(oldPath);
+        current = new Generation(path);
+        rotations++;
+        logger.info("💾 Rotated cache store {}: dropped {} entries not read since the last rotation", path, dropped);
+    }
+
+    private static final class Generation {
+        final Path path;
+        final FileChannel channel;
+        final Map<String, Long> index = new ConcurrentHashMap<>();
+        long size;
+
+        Generation(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = rebuildIndex();
+        }
+
+        byte[] read(long offset) throws IOException {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            readFully(length, offset + KEY_BYTES);
+            ByteBuffer payload = ByteBuffer.allocate(length.flip().getInt());
+            readFully(payload, offset + HEADER_BYTES);
+            return payload.array();
+        }
+
+        private long rebuildIndex() throws IOException {
+            long fileSize = channel.size();
+            long offset = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            byte[] key = new byte[KEY_BYTES];
+
+            while (offset + HEADER_BYTES <= fileSize) {
+                header.clear();
+                readFully(header, offset);
+                header.flip();
+                header.get(key);
+                int length = header.getInt();
+                if (length < 0 || offset + HEADER_BYTES + length > fileSize) {
+                    break;
+                }
+                index.put(HexFormat.of().formatHex(key), offset);
+                offset += HEADER_BYTES + length;
+            }
+
+            if (offset < fileSize) {
+                logger.warn("⚠️ Truncating {} bytes of incomplete records from {}", fileSize - offset, path);
+                channel.truncate(offset);
+            }
+            return offset;
+        }
+
+        private void readFully(ByteBuffer buffer, long position) throws IOException {
+            long start = position - buffer.position();
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of " + path);
+                }
+            }
+        }
+    }
+}
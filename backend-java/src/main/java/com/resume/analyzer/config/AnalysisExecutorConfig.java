@@ -0,0 +1,90 @@
+package com.resume.analyzer.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class AnalysisExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisExecutorConfig.class);
+
+    @Value("${analysis.executor.virtual-threads}")
+    private boolean virtualThreads;
+
+    @Value("${analysis.executor.pool-size}")
+    private int poolSize;
+
+    @Value("${analysis.executor.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${pdf.extraction.parallel.threads}")
+    private int pdfThreads;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService analysisExecutor() {
+        if (virtualThreads) {
+            try {
+                // Looked up reflectively so the build still targets Java 17
+                ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+                logger.info("✅ Analysis executor: virtual threads");
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                logger.info("Virtual threads not available on this JVM, using a bounded pool");
+            }
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "analysis-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        logger.info("✅ Analysis executor: {} threads, queue capacity {}", poolSize, queueCapacity);
+        return new ThreadPoolExecutor(
+            poolSize, poolSize,
+            60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity),
+            threadFactory,
+            // Under saturation the request thread does the work itself instead of failing
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    /**
+     * CPU-bound pool for page-range PDF extraction, shared by all requests so large documents
+     * can't oversubscribe the machine.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService pdfExtractionExecutor() {
+        int threads = pdfThreads > 0 ? pdfThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "pdf-extract-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        logger.info("✅ PDF extraction executor: {} threads", threads);
+        return new ThreadPoolExecutor(
+            threads, threads,
+            60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueCapacity),
+            threadFactory,
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+}
@@ -0,0 +1,43 @@
+package com.resume.analyzer.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resume.analyzer.service.AnalysisMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+@Configuration
+public class MetricsConfig {
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private AnalysisMetrics metrics;
+    
+    /**
+     * Replaces Boot's JSON converter with one that times each response body it writes,
+     * including SSE event payloads, as {@code http.response.serialization}.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter() {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                long start = System.nanoTime();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    metrics.recordSerialization(object.getClass().getSimpleName(), System.nanoTime() - start);
+                }
+            }
+        };
+    }
+}
@@ -1,13 +1,25 @@
 package com.resume.analyzer.config;
 
+import com.resume.analyzer.service.UpstreamScheduler;
+import com.theokanning.openai.client.OpenAiApi;
 import com.theokanning.openai.service.OpenAiService;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
+import retrofit2.converter.jackson.JacksonConverterFactory;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class OpenAIConfig {
@@ -17,15 +29,64 @@ public class OpenAIConfig {
     @Value("${openai.api.key}")
     private String apiKey;
     
+    @Value("${openai.base-url}")
+    private String baseUrl;
+    
+    @Value("${openai.http.max-requests}")
+    private int maxRequests;
+    
+    @Value("${openai.http.max-idle-connections}")
+    private int maxIdleConnections;
+    
+    @Value("${openai.http.keep-alive-seconds}")
+    private long keepAliveSeconds;
+    
+    @Value("${openai.http.connect-timeout-ms}")
+    private long connectTimeoutMs;
+    
+    @Autowired
+    private UpstreamScheduler upstreamScheduler;
+    
+    /**
+     * The OpenAI API on a shared, non-blocking HTTP client. Calls are enqueued on OkHttp's
+     * dispatcher rather than executed on the calling thread, so a request thread is never
+     * parked on an upstream round trip. Over TLS the client negotiates HTTP/2, multiplexing
+     * concurrent calls over a few kept-alive connections; per-call timeouts are applied by
+     * {@link com.resume.analyzer.service.OpenAiClient}, which also cancels timed-out calls.
+     * Every response's rate-limit headers are fed back to the {@link UpstreamScheduler}.
+     */
     @Bean
-    public OpenAiService openAiService() {
+    public OpenAiApi openAiApi() {
         if (apiKey == null || apiKey.trim().isEmpty() || apiKey.contains("your-key-here")) {
             logger.warn("⚠️  OpenAI API key not configured - AI features will be limited");
             return null;
         }
         
-        logger.info("✅ OpenAI service configured");
-        return new OpenAiService(apiKey, Duration.ofSeconds(60));
+        // All upstream calls go to one host; OkHttp's default of 5 per host would queue the rest
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequests);
+        
+        OkHttpClient client = OpenAiService.defaultClient(apiKey, Duration.ZERO).newBuilder()
+            .dispatcher(dispatcher)
+            .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+            .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+            // Read timeouts are per call (see OpenAiClient); 0 leaves them to the caller
+            .readTimeout(0, TimeUnit.MILLISECONDS)
+            .addInterceptor(upstreamScheduler.rateLimitInterceptor())
+            .build();
+        
+        Retrofit retrofit = new Retrofit.Builder()
+            .baseUrl(baseUrl)
+            .client(client)
+            .addConverterFactory(JacksonConverterFactory.create(OpenAiService.defaultObjectMapper()))
+            .addCallAdapterFactory(RxJava2CallAdapterFactory.createAsync())
+            .build();
+        
+        logger.info("✅ OpenAI client configured: up to {} concurrent calls, {} idle connections kept {}s",
+            maxRequests, maxIdleConnections, keepAliveSeconds);
+        return retrofit.create(OpenAiApi.class);
     }
     
     @Bean
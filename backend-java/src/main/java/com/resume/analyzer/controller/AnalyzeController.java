@@ -1,18 +1,28 @@
 package com.resume.analyzer.controller;
 
+import com.resume.analyzer.exception.GlobalExceptionHandler;
 import com.resume.analyzer.model.AnalysisResponse;
+import com.resume.analyzer.model.AnalysisSection;
+import com.resume.analyzer.model.AnalysisTask;
+import com.resume.analyzer.model.ErrorResponse;
 import com.resume.analyzer.model.HealthResponse;
-import com.resume.analyzer.model.LLMAnalysis;
+import com.resume.analyzer.model.JobProfile;
 import com.resume.analyzer.service.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -25,16 +35,28 @@ public class AnalyzeController {
     private PDFService pdfService;
     
     @Autowired
-    private SkillsService skillsService;
+    private OpenAIService openAIService;
     
     @Autowired
-    private ATSService atsService;
+    private AnalysisPipeline analysisPipeline;
     
     @Autowired
-    private OpenAIService openAIService;
+    private JobRegistry jobRegistry;
+    
+    @Autowired
+    private BatchAnalysisService batchAnalysisService;
+    
+    @Autowired
+    private AnalysisMetrics metrics;
+    
+    @Autowired
+    private AnalysisQueue analysisQueue;
     
     @Autowired
-    private LLMAnalyzerService llmAnalyzerService;
+    private EmbeddingBatcher embeddingBatcher;
+    
+    @Value("${analysis.stream.timeout-ms}")
+    private long streamTimeoutMs;
     
     @GetMapping("/health")
     public ResponseEntity<HealthResponse> health() {
@@ -42,121 +64,175 @@ public class AnalyzeController {
             .status("healthy")
             .service("Resume Analyzer API (Java Spring Boot)")
             .openaiConfigured(openAIService.isAvailable())
+            .embeddingProvider(embeddingBatcher.provider())
             .build();
         
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * The request thread is released once the analysis has started; the response is
+     * written when the last stage (usually the LLM call) completes. {@code mode} is
+     * {@code fast}, {@code semantic} or {@code full} (see {@link AnalysisMode}).
+     */
     @PostMapping("/analyze")
-    public ResponseEntity<AnalysisResponse> analyze(
+    public CompletableFuture<ResponseEntity<AnalysisResponse>> analyze(
             @RequestParam("resume") MultipartFile resume,
-            @RequestParam("job_description") String jobDescription
+            @RequestParam(value = "job_description", required = false) String jobDescription,
+            @RequestParam(value = "job_id", required = false) String jobId,
+            @RequestParam(value = "mode", defaultValue = "full") String mode
     ) {
-        logger.info("📥 Received analysis request - Resume: {}, Job Description length: {}", 
-                   resume.getOriginalFilename(), jobDescription.length());
+        if ((jobDescription == null) == (jobId == null)) {
+            throw new IllegalArgumentException("Provide exactly one of job_description or job_id");
+        }
+        AnalysisMode analysisMode = AnalysisMode.parse(mode);
         
-        try {
-            // Step 1: Validate file
-            pdfService.validateFile(resume);
-            
-            // Step 2: Extract text from PDF
-            String resumeText = pdfService.extractText(resume);
-            logger.info("✅ Extracted {} characters from resume", resumeText.length());
-            
-            // Step 3: Extract skills
-            Set<String> resumeSkills = skillsService.extractSkills(resumeText);
-            Set<String> jobSkills = skillsService.extractSkills(jobDescription);
-            
-            // Step 4: Calculate matched and missing skills
-            Set<String> matchedSkills = new HashSet<>(resumeSkills);
-            matchedSkills.retainAll(jobSkills);
-            
-            Set<String> missingSkills = new HashSet<>(jobSkills);
-            missingSkills.removeAll(resumeSkills);
-            
-            List<String> matchedList = new ArrayList<>(matchedSkills);
-            List<String> missingList = new ArrayList<>(missingSkills);
-            
-            logger.info("📊 Skills - Matched: {}, Missing: {}", matchedList.size(), missingList.size());
-            
-            // Step 5: Calculate keyword score
-            double keywordScore = skillsService.calculateKeywordScore(matchedSkills, jobSkills);
-            
-            // Step 6: Calculate semantic score (if OpenAI available)
-            double semanticScore = 0.0;
-            if (openAIService.isAvailable()) {
-                List<Double> resumeEmbedding = openAIService.getEmbedding(resumeText);
-                List<Double> jobEmbedding = openAIService.getEmbedding(jobDescription);
+        logger.info("📥 Received {} analysis request - Resume: {}, Job: {}", mode, resume.getOriginalFilename(),
+                   jobId != null ? jobId : jobDescription.length() + " characters");
+        
+        // Step 1: Validate file
+        pdfService.validateFile(resume);
+        
+        // Step 2: Run extraction, skills, ATS and (depending on the mode) embeddings and LLM stages concurrently
+        TextSource source = sink -> pdfService.extractText(resume, sink);
+        CompletableFuture<AnalysisResponse> analysis = jobId != null
+            ? analysisPipeline.analyzeAsync(resume.getOriginalFilename(), source, jobRegistry.get(jobId), analysisMode,
+                UpstreamScheduler.Priority.INTERACTIVE)
+            : analysisPipeline.analyzeAsync(resume.getOriginalFilename(), source, jobDescription, analysisMode,
+                UpstreamScheduler.Priority.INTERACTIVE);
+        
+        return metrics.track(resume.getSize(), analysis)
+            .thenApply(response -> {
+                response.setResumeFilename(resume.getOriginalFilename());
+                
+                logger.info("⏱️ Stage timings: {}", response.getStageTimings());
+                logger.info("✅ Analysis complete - Match Score: {}/100", response.getMatchScore());
                 
-                if (resumeEmbedding != null && jobEmbedding != null) {
-                    semanticScore = skillsService.cosineSimilarity(resumeEmbedding, jobEmbedding) * 100;
-                    logger.info("🔍 Semantic similarity: {}", semanticScore);
+                return ResponseEntity.ok(response);
+            })
+            .whenComplete((response, error) -> {
+                if (error != null) {
+                    logger.error("❌ Analysis failed", error);
                 }
-            }
-            
-            // Step 7: Calculate base match score
-            double baseMatchScore = (keywordScore * 0.6 + semanticScore * 0.4);
-            
-            // Step 8: Get LLM analysis and adjusted score
-            LLMAnalysis llmAnalysis = llmAnalyzerService.analyzeWithContext(
-                resumeText, jobDescription, baseMatchScore,
-                matchedList, missingList, null
-            );
-            
-            // Step 9: Calculate ATS score
-            Map<String, Double> atsScore = atsService.calculateAtsScore(
-                resumeText, jobDescription, matchedList, missingList
-            );
-            
-            // Step 10: Final match score (blend base + LLM insights)
-            double finalMatchScore = Math.round(baseMatchScore * 10.0) / 10.0;
-            
-            // Step 11: Build response
-            AnalysisResponse response = AnalysisResponse.builder()
-                .matchScore(finalMatchScore)
-                .keywordScore(Math.round(keywordScore * 10.0) / 10.0)
-                .semanticScore(Math.round(semanticScore * 10.0) / 10.0)
-                .matchedSkills(matchedList)
-                .missingSkills(missingList)
-                .totalResumeSkills(resumeSkills.size())
-                .totalJobSkills(jobSkills.size())
-                .improvementAdvice(generateImprovementAdvice(matchedList, missingList))
-                .resumeFilename(resume.getOriginalFilename())
-                .atsScore(atsScore)
-                .llmAnalysis(llmAnalysis)
-                .scoreReasoning(llmAnalysis.getMatchScoreReasoning())
-                .build();
-            
-            logger.info("✅ Analysis complete - Match Score: {}/100", finalMatchScore);
-            
-            return ResponseEntity.ok(response);
-            
-        } catch (Exception e) {
-            logger.error("❌ Analysis failed", e);
-            throw e;
+            });
+    }
+    
+    /**
+     * Queues the analysis and answers 202 with its id right away; poll
+     * {@code GET /analyze/{id}} or pass {@code callback_url} to have the finished task
+     * posted there. Answers 503 when the queue is full.
+     */
+    @PostMapping(value = "/analyze", params = "async=true")
+    public ResponseEntity<AnalysisTask> analyzeQueued(
+            @RequestParam("resume") MultipartFile resume,
+            @RequestParam(value = "job_description", required = false) String jobDescription,
+            @RequestParam(value = "job_id", required = false) String jobId,
+            @RequestParam(value = "mode", defaultValue = "full") String mode,
+            @RequestParam(value = "callback_url", required = false) String callbackUrl
+    ) {
+        if ((jobDescription == null) == (jobId == null)) {
+            throw new IllegalArgumentException("Provide exactly one of job_description or job_id");
         }
+        AnalysisMode analysisMode = AnalysisMode.parse(mode);
+        
+        pdfService.validateFile(resume);
+        AnalysisTask task = analysisQueue.submit(resume, jobDescription, jobId, analysisMode, callbackUrl);
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .header("Location", "/analyze/" + task.getId())
+            .body(task);
     }
     
-    private String generateImprovementAdvice(List<String> matched, List<String> missing) {
-        StringBuilder advice = new StringBuilder();
+    @GetMapping("/analyze/{id}")
+    public ResponseEntity<AnalysisTask> analysisStatus(@PathVariable("id") String id) {
+        return ResponseEntity.ok(analysisQueue.get(id));
+    }
+    
+    /**
+     * Same analysis as /analyze as Server-Sent Events: {@code scores} as soon as the
+     * deterministic stages finish, a {@code section} event per LLM analysis section as the
+     * model completes it, then {@code result} with the full response (or {@code error}).
+     */
+    @PostMapping(value = "/analyze/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter analyzeStream(
+            @RequestParam("resume") MultipartFile resume,
+            @RequestParam(value = "job_description", required = false) String jobDescription,
+            @RequestParam(value = "job_id", required = false) String jobId,
+            @RequestParam(value = "mode", defaultValue = "full") String mode
+    ) {
+        if ((jobDescription == null) == (jobId == null)) {
+            throw new IllegalArgumentException("Provide exactly one of job_description or job_id");
+        }
+        AnalysisMode analysisMode = AnalysisMode.parse(mode);
+        
+        logger.info("📥 Received streaming analysis request - Resume: {}", resume.getOriginalFilename());
+        
+        pdfService.validateFile(resume);
+        JobProfile job = jobId != null ? jobRegistry.get(jobId) : null;
         
-        if (missing.isEmpty()) {
-            advice.append("✅ Excellent! Your resume covers all key skills from the job description.\n\n");
-            advice.append("Focus on:\n");
-            advice.append("- Adding quantifiable achievements\n");
-            advice.append("- Highlighting relevant projects\n");
-            advice.append("- Ensuring ATS-friendly formatting\n");
-        } else {
-            advice.append("To improve your match score:\n\n");
-            advice.append("1. Add these missing skills if you have them:\n   ");
-            advice.append(String.join(", ", missing.subList(0, Math.min(5, missing.size()))));
-            advice.append("\n\n");
-            advice.append("2. Strengthen your matched skills:\n   ");
-            advice.append(String.join(", ", matched.subList(0, Math.min(5, matched.size()))));
-            advice.append("\n\n");
-            advice.append("3. Consider taking courses or building projects in missing areas\n");
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        AnalysisListener listener = new AnalysisListener() {
+            @Override
+            public void onScores(AnalysisResponse scores) {
+                scores.setResumeFilename(resume.getOriginalFilename());
+                send(emitter, "scores", scores);
+            }
+            
+            @Override
+            public void onSection(AnalysisSection section) {
+                send(emitter, "section", section);
+            }
+        };
+        
+        metrics.track(resume.getSize(), analysisPipeline.analyzeStreaming(resume.getOriginalFilename(),
+                sink -> pdfService.extractText(resume, sink), jobDescription, job, analysisMode, listener))
+            .whenComplete((response, error) -> {
+                if (error != null) {
+                    logger.error("❌ Streaming analysis failed", error);
+                    send(emitter, "error", GlobalExceptionHandler.toErrorResponse(error));
+                } else {
+                    response.setResumeFilename(resume.getOriginalFilename());
+                    send(emitter, "result", response);
+                    logger.info("✅ Streaming analysis complete - Match Score: {}/100", response.getMatchScore());
+                }
+                emitter.complete();
+            });
+        
+        return emitter;
+    }
+    
+    @PostMapping(value = "/analyze/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> analyzeBatch(
+            @RequestParam("resumes") List<MultipartFile> resumes,
+            @RequestParam(value = "job_description", required = false) String jobDescription,
+            @RequestParam(value = "job_id", required = false) String jobId,
+            @RequestParam(value = "top_k", defaultValue = "0") int topK
+    ) {
+        if ((jobDescription == null) == (jobId == null)) {
+            throw new IllegalArgumentException("Provide exactly one of job_description or job_id");
         }
         
-        return advice.toString();
+        logger.info("📥 Received batch analysis request - {} uploads", resumes.size());
+        
+        // Job-side skills and embedding are computed once for the whole batch. An inline
+        // description is used for this batch only, so it doesn't evict registered jobs, and
+        // its embedding is awaited on the streaming thread rather than this one.
+        CompletableFuture<JobProfile> job = jobId != null
+            ? CompletableFuture.completedFuture(jobRegistry.get(jobId))
+            : jobRegistry.profile(jobDescription);
+        
+        StreamingResponseBody body = out -> batchAnalysisService.analyze(resumes, job.join(), topK, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+    
+    // The client may have gone away; the analysis still runs to completion
+    private static void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            logger.warn("⚠️ Failed to send {} event: {}", event, e.getMessage());
+        }
     }
 }
@@ -0,0 +1,69 @@
+package com.resume.analyzer.controller;
+
+import com.resume.analyzer.model.JobProfile;
+import com.resume.analyzer.model.JobResponse;
+import com.resume.analyzer.model.MatchesResponse;
+import com.resume.analyzer.service.JobRegistry;
+import com.resume.analyzer.service.ResumeStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/jobs")
+public class JobController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JobController.class);
+    
+    @Autowired
+    private JobRegistry jobRegistry;
+    
+    @Autowired
+    private ResumeStore resumeStore;
+    
+    @PostMapping
+    public CompletableFuture<ResponseEntity<JobResponse>> register(@RequestParam("job_description") String jobDescription) {
+        logger.info("📥 Registering job description ({} characters)", jobDescription.length());
+        return jobRegistry.register(jobDescription).thenApply(job -> ResponseEntity.ok(toResponse(job)));
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<JobResponse> get(@PathVariable("id") String id) {
+        return ResponseEntity.ok(toResponse(jobRegistry.get(id)));
+    }
+    
+    /**
+     * {@code scorer=blend} (the default) ranks by the /analyze match score; {@code bm25}
+     * ranks every stored resume by BM25F keyword relevance to the job description.
+     */
+    @GetMapping("/{id}/matches")
+    public ResponseEntity<MatchesResponse> matches(
+            @PathVariable("id") String id,
+            @RequestParam(value = "k", defaultValue = "50") int k,
+            @RequestParam(value = "exact", defaultValue = "false") boolean exact,
+            @RequestParam(value = "scorer", defaultValue = "blend") String scorer
+    ) {
+        JobProfile job = jobRegistry.get(id);
+        return switch (scorer) {
+            case "blend" -> ResponseEntity.ok(resumeStore.matches(job, k, exact));
+            case "bm25" -> ResponseEntity.ok(resumeStore.rank(job, k));
+            default -> throw new IllegalArgumentException("scorer must be blend or bm25");
+        };
+    }
+    
+    private JobResponse toResponse(JobProfile job) {
+        return JobResponse.builder()
+            .jobId(job.getId())
+            .jobSkills(new ArrayList<>(job.getSkills()))
+            .totalJobSkills(job.getSkills().size())
+            .embedded(job.getEmbedding() != null)
+            .descriptionLength(job.getDescription().length())
+            .createdAt(job.getCreatedAt())
+            .build();
+    }
+}
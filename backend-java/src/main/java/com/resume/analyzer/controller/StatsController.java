@@ -0,0 +1,51 @@
+package com.resume.analyzer.controller;
+
+import com.resume.analyzer.model.CacheStats;
+import com.resume.analyzer.model.UpstreamStats;
+import com.resume.analyzer.service.CompletionCache;
+import com.resume.analyzer.service.EmbeddingCache;
+import com.resume.analyzer.service.ExtractionCache;
+import com.resume.analyzer.service.UpstreamScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+    
+    @Autowired
+    private EmbeddingCache embeddingCache;
+    
+    @Autowired
+    private ExtractionCache extractionCache;
+    
+    @Autowired
+    private CompletionCache completionCache;
+    
+    @Autowired
+    private UpstreamScheduler upstreamScheduler;
+    
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, CacheStats>> caches() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("embeddings", embeddingCache.stats());
+        stats.put("extractions", extractionCache.stats());
+        stats.put("completions", completionCache.stats());
+        return ResponseEntity.ok(stats);
+    }
+    
+    /**
+     * Per endpoint: current concurrency limit, queue depth by priority, remaining rate-limit
+     * budget and how many calls were rate limited, retried or shed.
+     */
+    @GetMapping("/upstream")
+    public ResponseEntity<Map<String, UpstreamStats>> upstream() {
+        return ResponseEntity.ok(upstreamScheduler.stats());
+    }
+}
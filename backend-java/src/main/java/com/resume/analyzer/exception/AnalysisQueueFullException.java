@@ -0,0 +1,7 @@
+package com.resume.analyzer.exception;
+
+public class AnalysisQueueFullException extends RuntimeException {
+    public AnalysisQueueFullException(int queued) {
+        super("Analysis queue is full (" + queued + " waiting), retry later");
+    }
+}
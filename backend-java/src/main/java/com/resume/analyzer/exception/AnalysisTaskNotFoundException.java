@@ -0,0 +1,7 @@
+package com.resume.analyzer.exception;
+
+public class AnalysisTaskNotFoundException extends RuntimeException {
+    public AnalysisTaskNotFoundException(String id) {
+        super("No analysis with id " + id);
+    }
+}
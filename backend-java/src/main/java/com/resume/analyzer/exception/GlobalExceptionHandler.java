@@ -9,6 +9,8 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
+import java.util.concurrent.CompletionException;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     
@@ -40,13 +42,26 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
     
+    @ExceptionHandler(JobNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleJobNotFound(JobNotFoundException e) {
+        logger.error("Job not found: {}", e.getMessage());
+        
+        ErrorResponse error = ErrorResponse.builder()
+            .error("Job Not Found")
+            .message(e.getMessage())
+            .status(404)
+            .build();
+        
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+    
     @ExceptionHandler(MaxUploadSizeExceededException.class)
     public ResponseEntity<ErrorResponse> handleMaxUploadSize(MaxUploadSizeExceededException e) {
         logger.error("File size exceeded: {}", e.getMessage());
         
         ErrorResponse error = ErrorResponse.builder()
             .error("File Too Large")
-            .message("Maximum file size is 10MB")
+            .message("Upload exceeds the maximum archive or request size")
             .status(413)
             .build();
         
@@ -66,6 +81,34 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
     
+    @ExceptionHandler(AnalysisTaskNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleAnalysisTaskNotFound(AnalysisTaskNotFoundException e) {
+        logger.error("Analysis not found: {}", e.getMessage());
+        
+        ErrorResponse error = ErrorResponse.builder()
+            .error("Analysis Not Found")
+            .message(e.getMessage())
+            .status(404)
+            .build();
+        
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+    
+    @ExceptionHandler(AnalysisQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleAnalysisQueueFull(AnalysisQueueFullException e) {
+        logger.warn("Analysis rejected: {}", e.getMessage());
+        
+        ErrorResponse error = ErrorResponse.builder()
+            .error("Service Unavailable")
+            .message(e.getMessage())
+            .status(503)
+            .build();
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header("Retry-After", "30")
+            .body(error);
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneral(Exception e) {
         logger.error("Unexpected error", e);
@@ -78,4 +121,25 @@ public class GlobalExceptionHandler {
         
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
+    
+    /**
+     * The error for an analysis that failed after the request was accepted (streamed or
+     * queued analyses), where no exception reaches the handlers above.
+     */
+    public static ErrorResponse toErrorResponse(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof FileValidationException) {
+            return ErrorResponse.builder().error("File Validation Error").message(cause.getMessage()).status(400).build();
+        }
+        if (cause instanceof PDFExtractionException) {
+            return ErrorResponse.builder().error("PDF Extraction Error").message(cause.getMessage()).status(500).build();
+        }
+        if (cause instanceof JobNotFoundException) {
+            return ErrorResponse.builder().error("Job Not Found").message(cause.getMessage()).status(404).build();
+        }
+        return ErrorResponse.builder().error("Internal Server Error").message("An unexpected error occurred: " + cause.getMessage()).status(500).build();
+    }
 }
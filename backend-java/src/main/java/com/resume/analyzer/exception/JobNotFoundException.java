@@ -0,0 +1,7 @@
+package com.resume.analyzer.exception;
+
+public class JobNotFoundException extends RuntimeException {
+    public JobNotFoundException(String jobId) {
+        super("No job registered with id " + jobId);
+    }
+}
@@ -0,0 +1,7 @@
+package com.resume.analyzer.exception;
+
+public class UpstreamOverloadedException extends RuntimeException {
+    public UpstreamOverloadedException(String message) {
+        super("OpenAI capacity exhausted: " + message);
+    }
+}
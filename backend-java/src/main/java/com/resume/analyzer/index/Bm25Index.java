@@ -0,0 +1,513 @@
+package com.resume.analyzer.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persistent inverted index over resumes for BM25F keyword ranking.
+ *
+ * Documents are split into fields (e.g. resume sections) and indexed as per-field term
+ * counts. A query is a set of weighted terms; each document scores
+ *
+ * <pre>
+ * sum over terms: weight x idf x tf (k1 + 1) / (k1 + tf),   tf = sum over fields: w_f x tf_f / (1 - b + b x len_f / avglen_f)
+ * </pre>
+ *
+ * so repeated mentions count, with diminishing returns, more in heavily weighted fields
+ * and less in long ones. Field weights are given per query.
+ *
+ * The index is a log of immutable segments, like a small LSM tree. New documents go into
+ * an in-memory {@link SegmentBuffer}; {@link #flush()} writes it to a new segment file and
+ * {@link #merge()} combines the two newest segments once they are of similar size, which
+ * keeps the number of segments logarithmic in the number of documents. Segment files are
+ * memory-mapped, and postings are delta- and varint-encoded, about 2-3 bytes each. The
+ * {@code segments} manifest lists the live files in order and is replaced atomically, so
+ * a crash loses at most the documents not yet flushed.
+ *
+ * Adds and queries may run concurrently; queries take the lock only to snapshot the
+ * segments. Flushes and merges write their files without holding the lock and only take
+ * it to swap segments in.
+ */
+public class Bm25Index implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(Bm25Index.class);
+
+    static final int MAX_TERM_LENGTH = 255;
+
+    // Merged segments must stay mappable as a single buffer
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+    private static final String MANIFEST = "segments";
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int fieldCount;
+    private final float k1;
+    private final float b;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongHashSet ids = new LongHashSet();
+    private List<MappedSegment> segments = new ArrayList<>();
+    private SegmentBuffer buffer;
+    // Buffer being written out; still searched until its segment replaces it
+    private SegmentBuffer flushing;
+    private int nextSegment;
+
+    public Bm25Index(Path directory, int fieldCount, float k1, float b) throws IOException {
+        if (fieldCount < 1 || fieldCount > 8) {
+            throw new IllegalArgumentException("fieldCount must be between 1 and 8");
+        }
+        this.directory = directory;
+        this.fieldCount = fieldCount;
+        this.k1 = k1;
+        this.b = b;
+        this.buffer = new SegmentBuffer(fieldCount);
+        Files.createDirectories(directory);
+        open();
+    }
+
+    /**
+     * Adds a document. {@code id} is a hex string of up to 16 digits (the resume content
+     * hash prefix); a document whose id is already indexed is ignored and false returned.
+     * {@code frequencies} maps each term to its count per field, {@code fieldLengths} are
+     * the document's length per field.
+     */
+    public boolean add(String id, String name, Map<String, int[]> frequencies, int[] fieldLengths) {
+        long key = Long.parseUnsignedLong(id, 16);
+        lock.writeLock().lock();
+        try {
+            if (!ids.add(key)) {
+                return false;
+            }
+            buffer.add(key, name, frequencies, fieldLengths);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(String id) {
+        lock.readLock().lock();
+        try {
+            return ids.contains(Long.parseUnsignedLong(id, 16));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks all documents against {@code query} (term to weight) and returns the best
+     * {@code k}. Only the {@code maxTerms} query terms with the highest weight x idf are
+     * used, which bounds the postings read for long job descriptions without changing the
+     * ranking much: the dropped terms are the most common ones.
+     */
+    public SearchResult search(Map<String, Float> query, float[] fieldWeights, int k, int maxTerms) {
+        // Scoring runs on a snapshot so that adds, flushes and merges need not wait for it:
+        // segments and the buffer being flushed no longer change, and the live buffer is
+        // frozen at its current size for the query's terms
+        List<Segment> all;
+        lock.readLock().lock();
+        try {
+            all = new ArrayList<>(segments);
+            if (flushing != null) {
+                all.add(flushing);
+            }
+            if (buffer.documentCount() > 0) {
+                all.add(buffer.snapshot(query.keySet()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long total = 0;
+        long[] lengths = new long[fieldCount];
+        for (Segment segment : all) {
+            total += segment.documentCount();
+            for (int f = 0; f < fieldCount; f++) {
+                lengths[f] += segment.totalLength(f);
+            }
+        }
+        if (total == 0) {
+            return new SearchResult(List.of(), 0, 0, 0);
+        }
+        float[] inverseAverage = new float[fieldCount];
+        for (int f = 0; f < fieldCount; f++) {
+            inverseAverage[f] = lengths[f] == 0 ? 0f : (float) ((double) total / lengths[f]);
+        }
+
+        List<QueryTerm> terms = new ArrayList<>();
+        for (Map.Entry<String, Float> entry : query.entrySet()) {
+            long df = 0;
+            for (Segment segment : all) {
+                df += segment.documentFrequency(entry.getKey());
+            }
+            if (df > 0) {
+                double idf = Math.log(1 + (total - df + 0.5) / (df + 0.5));
+                terms.add(new QueryTerm(entry.getKey(), (float) (entry.getValue() * idf)));
+            }
+        }
+        terms.sort(Comparator.comparingDouble((QueryTerm term) -> term.weight).reversed());
+        if (terms.size() > maxTerms) {
+            terms = terms.subList(0, maxTerms);
+        }
+        // Score of a document with unbounded tf for every term, to scale scores to 0-100
+        double maxScore = 0;
+        for (QueryTerm term : terms) {
+            maxScore += term.weight * (k1 + 1);
+        }
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble((Hit hit) -> hit.score));
+        int matched = 0;
+        int fieldMask = (1 << fieldCount) - 1;
+        for (Segment segment : all) {
+            float[] scores = new float[segment.documentCount()];
+            for (QueryTerm term : terms) {
+                ByteBuffer postings = segment.postings(term.term);
+                if (postings == null) {
+                    continue;
+                }
+                int document = 0;
+                while (postings.hasRemaining()) {
+                    long head = Segment.readVarint(postings);
+                    document += (int) (head >>> fieldCount);
+                    int mask = (int) head & fieldMask;
+                    float tf = 0f;
+                    for (int f = 0; f < fieldCount; f++) {
+                        if ((mask & (1 << f)) != 0) {
+                            long count = Segment.readVarint(postings);
+                            float norm = 1f - b + b * segment.fieldLength(document, f) * inverseAverage[f];
+                            tf += fieldWeights[f] * count / norm;
+                        }
+                    }
+                    scores[document] += term.weight * tf * (k1 + 1) / (k1 + tf);
+                }
+            }
+
+            for (int document = 0; document < scores.length; document++) {
+                float score = scores[document];
+                if (score <= 0f) {
+                    continue;
+                }
+                matched++;
+                if (best.size() < k) {
+                    best.add(new Hit(segment, document, score));
+                } else if (score > best.peek().score) {
+                    best.poll();
+                    best.add(new Hit(segment, document, score));
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble((Hit hit) -> hit.score).reversed());
+        List<Match> matches = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            matches.add(new Match(
+                String.format("%016x", hit.segment.id(hit.document)),
+                hit.segment.name(hit.document),
+                hit.score,
+                maxScore > 0 ? hit.score * 100.0 / maxScore : 0.0
+            ));
+        }
+        return new SearchResult(matches, matched, total, terms.size());
+    }
+
+    /**
+     * Documents added since the last flush.
+     */
+    public int bufferedDocuments() {
+        lock.readLock().lock();
+        try {
+            return buffer.documentCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered documents to a new segment. Calls are serialized with each other
+     * and with {@link #merge()}; adds and queries continue meanwhile. If writing fails the
+     * documents stay searchable and the next flush retries them.
+     */
+    public synchronized void flush() throws IOException {
+        SegmentBuffer frozen;
+        lock.writeLock().lock();
+        try {
+            if (flushing == null) {
+                if (buffer.documentCount() == 0) {
+                    return;
+                }
+                flushing = buffer;
+                buffer = new SegmentBuffer(fieldCount);
+            }
+            frozen = flushing;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Path file = directory.resolve(segmentName(nextSegment++));
+        SegmentWriter.write(file, fieldCount, frozen.sortedTerms(), List.of(frozen));
+        MappedSegment segment = MappedSegment.open(file, fieldCount);
+
+        lock.writeLock().lock();
+        try {
+            List<MappedSegment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            writeManifest(updated);
+            segments = updated;
+            flushing = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("Flushed {} documents to {}", segment.documentCount(), file.getFileName());
+    }
+
+    /**
+     * Merges the two newest segments if the newer one holds at least half as many
+     * documents as the older one, so each document is rewritten O(log n) times in total.
+     * Returns whether a merge happened; call until it returns false.
+     */
+    public synchronized boolean merge() throws IOException {
+        MappedSegment older;
+        MappedSegment newer;
+        lock.readLock().lock();
+        try {
+            int count = segments.size();
+            if (count < 2) {
+                return false;
+            }
+            older = segments.get(count - 2);
+            newer = segments.get(count - 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (newer.documentCount() * 2L < older.documentCount() || older.bytes() + newer.bytes() > MAX_SEGMENT_BYTES) {
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        Path file = directory.resolve(segmentName(nextSegment++));
+        SegmentWriter.write(file, fieldCount, SegmentWriter.merge(older, newer), List.of(older, newer));
+        MappedSegment merged = MappedSegment.open(file, fieldCount);
+
+        // Only flush and merge change the segment list, and both hold this object's monitor
+        lock.writeLock().lock();
+        try {
+            List<MappedSegment> updated = new ArrayList<>(segments);
+            updated.subList(updated.size() - 2, updated.size()).clear();
+            updated.add(merged);
+            writeManifest(updated);
+            segments = updated;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        deleteQuietly(older.path());
+        deleteQuietly(newer.path());
+        logger.info("🗜️ Merged keyword index segments into {} ({} documents, {} KB) in {} ms",
+                   file.getFileName(), merged.documentCount(), merged.bytes() / 1024, System.currentTimeMillis() - start);
+        return true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes in segment files plus the approximate heap held by unflushed documents.
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = buffer.estimatedBytes() + (flushing != null ? flushing.estimatedBytes() : 0);
+            for (MappedSegment segment : segments) {
+                bytes += segment.bytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes buffered documents. The mapped segments are released by the garbage collector.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    private void open() throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        Set<String> live = new LinkedHashSet<>();
+        if (Files.exists(manifest)) {
+            for (String line : Files.readAllLines(manifest)) {
+                if (!line.isBlank()) {
+                    live.add(line.trim());
+                }
+            }
+        }
+
+        // Files not in the manifest are leftovers of an interrupted flush or merge
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SUFFIX)) {
+                    nextSegment = Math.max(nextSegment, Integer.parseInt(name.substring(0, name.length() - SUFFIX.length())) + 1);
+                }
+                if (name.endsWith(".tmp") || name.endsWith(SUFFIX) && !live.contains(name)) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+
+        for (String name : live) {
+            MappedSegment segment = MappedSegment.open(directory.resolve(name), fieldCount);
+            for (int d = 0; d < segment.documentCount(); d++) {
+                ids.add(segment.id(d));
+            }
+            segments.add(segment);
+        }
+        if (!segments.isEmpty()) {
+            logger.info("💾 Opened keyword index {}: {} documents in {} segments", directory, ids.size(), segments.size());
+        }
+    }
+
+    private void writeManifest(List<MappedSegment> live) throws IOException {
+        StringBuilder manifest = new StringBuilder();
+        for (MappedSegment segment : live) {
+            manifest.append(segment.path().getFileName()).append('\n');
+        }
+        Path temp = Files.createTempFile(directory, MANIFEST, ".tmp");
+        try {
+            Files.writeString(temp, manifest);
+            Files.move(temp, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Fails on some platforms while the file is still mapped; it is removed on the next open instead
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String segmentName(int number) {
+        return String.format("%08d%s", number, SUFFIX);
+    }
+
+    private static final class QueryTerm {
+        final String term;
+        final float weight;
+
+        QueryTerm(String term, float weight) {
+            this.term = term;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Hit {
+        final Segment segment;
+        final int document;
+        final float score;
+
+        Hit(Segment segment, int document, float score) {
+            this.segment = segment;
+            this.document = document;
+            this.score = score;
+        }
+    }
+
+    public static final class Match {
+        private final String id;
+        private final String name;
+        private final double score;
+        private final double relevance;
+
+        Match(String id, String name, double score, double relevance) {
+            this.id = id;
+            this.name = name;
+            this.score = score;
+            this.relevance = relevance;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Raw BM25F score; only comparable within one query.
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Score as a percentage of the highest score the query could reach.
+         */
+        public double getRelevance() {
+            return relevance;
+        }
+    }
+
+    public static final class SearchResult {
+        private final List<Match> matches;
+        private final int documentsMatched;
+        private final long totalDocuments;
+        private final int termsUsed;
+
+        SearchResult(List<Match> matches, int documentsMatched, long totalDocuments, int termsUsed) {
+            this.matches = matches;
+            this.documentsMatched = documentsMatched;
+            this.totalDocuments = totalDocuments;
+            this.termsUsed = termsUsed;
+        }
+
+        public List<Match> getMatches() {
+            return matches;
+        }
+
+        public int getDocumentsMatched() {
+            return documentsMatched;
+        }
+
+        public long getTotalDocuments() {
+            return totalDocuments;
+        }
+
+        public int getTermsUsed() {
+            return termsUsed;
+        }
+    }
+}
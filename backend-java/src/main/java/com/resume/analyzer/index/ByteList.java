@@ -0,0 +1,52 @@
+package com.resume.analyzer.index;
+
+import java.util.Arrays;
+
+/**
+ * Growable byte array holding the varint-encoded postings of one term while a segment
+ * is being built in memory.
+ */
+final class ByteList {
+
+    private byte[] values;
+    private int size;
+
+    ByteList() {
+        this(8);
+    }
+
+    ByteList(int capacity) {
+        this.values = new byte[Math.max(1, capacity)];
+    }
+
+    void add(byte value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Appends {@code value} as an unsigned LEB128 varint: seven bits per byte, low bits
+     * first, with the high bit set on every byte but the last.
+     */
+    void addVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            add((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        add((byte) value);
+    }
+
+    byte[] array() {
+        return values;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long estimatedBytes() {
+        return 16L + values.length;
+    }
+}
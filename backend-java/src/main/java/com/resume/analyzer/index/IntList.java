@@ -0,0 +1,53 @@
+package com.resume.analyzer.index;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used for posting and inverted-file lists.
+ */
+final class IntList {
+
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        this.values = new int[Math.max(1, capacity)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes values below {@code bound} and lowers the rest by {@code bound}, for when the
+     * first {@code bound} ordinals have been dropped.
+     */
+    void dropBelow(int bound) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (values[i] >= bound) {
+                values[kept++] = values[i] - bound;
+            }
+        }
+        size = kept;
+    }
+
+    long estimatedBytes() {
+        return 16L + 4L * values.length;
+    }
+}
@@ -0,0 +1,71 @@
+package com.resume.analyzer.index;
+
+/**
+ * Open-addressing set of longs, used to recognize document ids already in an index
+ * without boxing a {@code Long} per document.
+ */
+final class LongHashSet {
+
+    private long[] keys;
+    private boolean[] used;
+    private int size;
+
+    LongHashSet() {
+        this(1024);
+    }
+
+    LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+        keys = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    /**
+     * Adds {@code key}; false if it was already present.
+     */
+    boolean add(long key) {
+        int slot = slot(key);
+        if (used[slot]) {
+            return false;
+        }
+        keys[slot] = key;
+        used[slot] = true;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    boolean contains(long key) {
+        return used[slot(key)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Slot holding key, or the empty slot where it belongs
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        keys = new long[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                used[slot] = true;
+            }
+        }
+    }
+}
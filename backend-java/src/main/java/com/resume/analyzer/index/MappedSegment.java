@@ -0,0 +1,202 @@
+package com.resume.analyzer.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An immutable segment file, memory-mapped so postings are read straight from the page
+ * cache and only the pages a query touches are loaded. Layout, all integers big-endian:
+ *
+ * <pre>
+ * term table   termCount x [int termBytesOffset][int df][int lastDoc][long postingsOffset][int postingsLength]
+ * term bytes   per term: [short length][UTF-8], in unsigned byte order
+ * postings     per term: varint-encoded entries (see {@link Segment})
+ * documents    documentCount x [long id][int length per field][int nameOffset]
+ * names        per document: [int length][UTF-8]
+ * footer       [int fieldCount][int documentCount][int termCount][long totalLength per field]
+ *              [int termTable][int termBytes][int postings][int documents][int names]
+ *              [int footerLength][int magic]
+ * </pre>
+ *
+ * Reads use absolute positions or per-call slices, so one instance serves concurrent queries.
+ */
+final class MappedSegment implements Segment {
+
+    static final int MAGIC = 0x424D3235;
+
+    private static final int TERM_ENTRY_BYTES = 24;
+
+    private final Path path;
+    private final ByteBuffer data;
+    private final int fieldCount;
+    private final int documentCount;
+    private final int termCount;
+    private final long[] totals;
+    private final int termTable;
+    private final int termBytes;
+    private final int postings;
+    private final int documents;
+    private final int names;
+    private final int documentBytes;
+
+    private MappedSegment(Path path, ByteBuffer data) throws IOException {
+        this.path = path;
+        this.data = data;
+        int size = data.capacity();
+        if (size < 8 || data.getInt(size - 4) != MAGIC) {
+            throw new IOException("Not a segment file: " + path);
+        }
+        int footer = size - data.getInt(size - 8);
+        fieldCount = data.getInt(footer);
+        documentCount = data.getInt(footer + 4);
+        termCount = data.getInt(footer + 8);
+        totals = new long[fieldCount];
+        for (int f = 0; f < fieldCount; f++) {
+            totals[f] = data.getLong(footer + 12 + 8 * f);
+        }
+        int offsets = footer + 12 + 8 * fieldCount;
+        termTable = data.getInt(offsets);
+        termBytes = data.getInt(offsets + 4);
+        postings = data.getInt(offsets + 8);
+        documents = data.getInt(offsets + 12);
+        names = data.getInt(offsets + 16);
+        documentBytes = 8 + 4 * fieldCount + 4;
+    }
+
+    static MappedSegment open(Path path, int fieldCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segment " + path + " exceeds the 2 GB mapping limit");
+            }
+            // The mapping stays valid after the channel is closed
+            MappedSegment segment = new MappedSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            if (segment.fieldCount != fieldCount) {
+                throw new IOException("Segment " + path + " has " + segment.fieldCount + " fields, expected " + fieldCount);
+            }
+            return segment;
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long bytes() {
+        return data.capacity();
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    byte[] term(int entry) {
+        int offset = termOffset(entry);
+        byte[] term = new byte[data.getShort(offset) & 0xFFFF];
+        data.get(offset + 2, term);
+        return term;
+    }
+
+    int documentFrequency(int entry) {
+        return data.getInt(termTable + entry * TERM_ENTRY_BYTES + 4);
+    }
+
+    int lastDocument(int entry) {
+        return data.getInt(termTable + entry * TERM_ENTRY_BYTES + 8);
+    }
+
+    long postingsLength(int entry) {
+        return data.getInt(termTable + entry * TERM_ENTRY_BYTES + 20);
+    }
+
+    ByteBuffer postings(int entry) {
+        int start = postings + (int) data.getLong(termTable + entry * TERM_ENTRY_BYTES + 12);
+        return data.slice(start, (int) postingsLength(entry));
+    }
+
+    /**
+     * Entry of {@code term} in the term table, or -1 if the segment doesn't contain it.
+     */
+    int find(byte[] term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int order = compare(mid, term);
+            if (order < 0) {
+                low = mid + 1;
+            } else if (order > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int documentCount() {
+        return documentCount;
+    }
+
+    @Override
+    public long totalLength(int field) {
+        return totals[field];
+    }
+
+    @Override
+    public int documentFrequency(String term) {
+        int entry = find(term.getBytes(StandardCharsets.UTF_8));
+        return entry < 0 ? 0 : documentFrequency(entry);
+    }
+
+    @Override
+    public ByteBuffer postings(String term) {
+        int entry = find(term.getBytes(StandardCharsets.UTF_8));
+        return entry < 0 ? null : postings(entry);
+    }
+
+    @Override
+    public long id(int document) {
+        return data.getLong(documents + document * documentBytes);
+    }
+
+    @Override
+    public String name(int document) {
+        int offset = names + data.getInt(documents + document * documentBytes + documentBytes - 4);
+        byte[] name = new byte[data.getInt(offset)];
+        data.get(offset + 4, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int fieldLength(int document, int field) {
+        return data.getInt(documents + document * documentBytes + 8 + 4 * field);
+    }
+
+    private int termOffset(int entry) {
+        return termBytes + data.getInt(termTable + entry * TERM_ENTRY_BYTES);
+    }
+
+    // Unsigned byte order, as the writer sorts terms
+    private int compare(int entry, byte[] term) {
+        int offset = termOffset(entry);
+        int length = data.getShort(offset) & 0xFFFF;
+        int common = Math.min(length, term.length);
+        for (int i = 0; i < common; i++) {
+            int order = (data.get(offset + 2 + i) & 0xFF) - (term[i] & 0xFF);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return length - term.length;
+    }
+}
@@ -0,0 +1,577 @@
+package com.resume.analyzer.index;
+
+import com.resume.analyzer.vector.DenseVector;
+import com.resume.analyzer.vector.VectorMath;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory store of analyzed resumes for job-to-resume matching.
+ *
+ * Each resume keeps its skill ids and its embedding quantized to int8 with a per-vector
+ * scale (about 1.5 KB for a 1536-dim embedding instead of 6 KB as floats). Matches are
+ * ranked by the same blend as /analyze: 0.6 x keyword overlap + 0.4 x cosine similarity.
+ *
+ * Two candidate channels feed an exact rerank of that blended score:
+ * <ul>
+ *   <li>keyword: skill posting lists accumulate the overlap count for every resume</li>
+ *   <li>semantic: an inverted-file (IVF) index over spherical k-means centroids; only
+ *       the {@code nprobe} closest lists are scanned</li>
+ * </ul>
+ * Exact mode skips both channels and scores every resume, which is what approximate
+ * results are checked against. Until {@link #train} has run, the semantic channel is a
+ * brute-force scan.
+ *
+ * At most {@code maxEntries} resumes are kept. When an add finds the index full, the
+ * oldest tenth of that capacity is dropped, so shifting the rest down is paid once per
+ * many adds.
+ */
+public class ResumeIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int maxEntries;
+
+    private String[] ids = new String[1024];
+    private String[] names = new String[1024];
+    private byte[][] codes = new byte[1024][];
+    private float[] scales = new float[1024];
+    private int[][] skills = new int[1024][];
+    private int size;
+    private int dimensions = -1;
+    // Resumes dropped so far; training uses it to rebase ordinals from its snapshot
+    private long evicted;
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final Map<String, Integer> skillIds = new HashMap<>();
+    private final List<IntList> postings = new ArrayList<>();
+
+    private volatile Ivf ivf;
+
+    public ResumeIndex(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean add(String id, String name, Set<String> resumeSkills, DenseVector vector) {
+        byte[] code = null;
+        float scale = 0f;
+        if (vector != null) {
+            float[] values = vector.values();
+            float maxAbs = 0f;
+            for (float value : values) {
+                maxAbs = Math.max(maxAbs, Math.abs(value));
+            }
+            scale = maxAbs == 0f ? 0f : maxAbs / 127f;
+            code = new byte[values.length];
+            for (int i = 0; i < values.length && scale > 0f; i++) {
+                code[i] = (byte) Math.round(values[i] / scale);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (code != null) {
+                if (dimensions < 0) {
+                    dimensions = code.length;
+                } else if (code.length != dimensions) {
+                    code = null;
+                }
+            }
+            // Ids are content hashes, so a known id means the same resume text. It may have
+            // been stored without a vector (e.g. from a fast analysis); fill that in.
+            Integer existing = ordinals.get(id);
+            if (existing != null) {
+                if (code == null || codes[existing] != null) {
+                    return false;
+                }
+                codes[existing] = code;
+                scales[existing] = scale;
+                Ivf current = ivf;
+                if (current != null) {
+                    current.lists[current.nearest(dequantize(code, scale))].add(existing);
+                }
+                return true;
+            }
+
+            if (size >= maxEntries) {
+                evictOldest(Math.min(size, Math.max(1, maxEntries / 10)));
+            }
+
+            int ordinal = size++;
+            ensureCapacity(size);
+            ids[ordinal] = id;
+            names[ordinal] = name;
+            codes[ordinal] = code;
+            scales[ordinal] = scale;
+            skills[ordinal] = toSkillIds(resumeSkills, true);
+            ordinals.put(id, ordinal);
+            for (int skill : skills[ordinal]) {
+                postings.get(skill).add(ordinal);
+            }
+
+            Ivf current = ivf;
+            if (current != null && code != null) {
+                current.lists[current.nearest(dequantize(code, scale))].add(ordinal);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public SearchResult search(Set<String> jobSkills, DenseVector query, int k, boolean exact, int nprobe, int candidates) {
+        lock.readLock().lock();
+        try {
+            int[] jobSkillIds = toSkillIds(jobSkills, false);
+            int jobSkillCount = jobSkills.size();
+            float[] q = query != null && query.dimensions() == dimensions ? query.values() : null;
+
+            int[] pool;
+            if (exact) {
+                pool = null;
+            } else {
+                BitSet selected = new BitSet(size);
+                short[] overlap = keywordOverlap(jobSkillIds);
+                topByOverlap(overlap, candidates, selected);
+                if (q != null) {
+                    topBySemantic(q, nprobe, candidates, selected);
+                }
+                pool = selected.stream().toArray();
+            }
+
+            PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingDouble(Match::getMatchScore));
+            int scored = pool == null ? size : pool.length;
+            for (int i = 0; i < scored; i++) {
+                int ordinal = pool == null ? i : pool[i];
+                Match match = score(ordinal, jobSkillIds, jobSkillCount, q);
+                if (best.size() < k) {
+                    best.add(match);
+                } else if (match.matchScore > best.peek().matchScore) {
+                    best.poll();
+                    best.add(match);
+                }
+            }
+
+            List<Match> matches = new ArrayList<>(best);
+            matches.sort(Comparator.comparingDouble(Match::getMatchScore).reversed());
+            return new SearchResult(matches, scored, size, !exact && ivf != null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds IVF lists with spherical k-means over (a sample of) the stored vectors and
+     * installs them. Runs without blocking readers or writers except for a short final
+     * step that assigns resumes added while training was in progress.
+     */
+    public void train(int nlist, int sampleSize, int iterations, long seed) {
+        int snapshotSize;
+        long snapshotEvicted;
+        byte[][] snapshotCodes;
+        float[] snapshotScales;
+        lock.readLock().lock();
+        try {
+            snapshotSize = size;
+            snapshotEvicted = evicted;
+            snapshotCodes = Arrays.copyOf(codes, size);
+            snapshotScales = Arrays.copyOf(scales, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Integer> withVectors = new ArrayList<>();
+        for (int i = 0; i < snapshotSize; i++) {
+            if (snapshotCodes[i] != null) {
+                withVectors.add(i);
+            }
+        }
+        if (withVectors.size() < nlist) {
+            return;
+        }
+
+        Random random = new Random(seed);
+        Collections.shuffle(withVectors, random);
+        List<float[]> sample = new ArrayList<>();
+        for (int i = 0; i < Math.min(sampleSize, withVectors.size()); i++) {
+            int ordinal = withVectors.get(i);
+            sample.add(dequantize(snapshotCodes[ordinal], snapshotScales[ordinal]));
+        }
+
+        float[][] centroids = new float[nlist][];
+        for (int c = 0; c < nlist; c++) {
+            centroids[c] = sample.get(c).clone();
+        }
+        Ivf trained = new Ivf(centroids);
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            float[][] sums = new float[nlist][dimensions];
+            int[] counts = new int[nlist];
+            for (float[] vector : sample) {
+                int c = trained.nearest(vector);
+                counts[c]++;
+                float[] sum = sums[c];
+                for (int d = 0; d < vector.length; d++) {
+                    sum[d] += vector[d];
+                }
+            }
+            for (int c = 0; c < nlist; c++) {
+                if (counts[c] > 0) {
+                    centroids[c] = DenseVector.of(sums[c]).values();
+                } else {
+                    // Re-seed empty clusters from a random sample point
+                    centroids[c] = sample.get(random.nextInt(sample.size())).clone();
+                }
+            }
+        }
+
+        for (int ordinal = 0; ordinal < snapshotSize; ordinal++) {
+            if (snapshotCodes[ordinal] != null) {
+                trained.lists[trained.nearest(dequantize(snapshotCodes[ordinal], snapshotScales[ordinal]))].add(ordinal);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Resumes dropped since the snapshot shifted everyone else down
+            int shift = (int) (evicted - snapshotEvicted);
+            if (shift > 0) {
+                for (IntList list : trained.lists) {
+                    list.dropBelow(shift);
+                }
+            }
+            // Then assign vectors filled in since the snapshot and resumes added since
+            int kept = Math.max(0, snapshotSize - shift);
+            for (int ordinal = 0; ordinal < kept; ordinal++) {
+                if (codes[ordinal] != null && snapshotCodes[ordinal + shift] == null) {
+                    trained.lists[trained.nearest(dequantize(codes[ordinal], scales[ordinal]))].add(ordinal);
+                }
+            }
+            for (int ordinal = kept; ordinal < size; ordinal++) {
+                if (codes[ordinal] != null) {
+                    trained.lists[trained.nearest(dequantize(codes[ordinal], scales[ordinal]))].add(ordinal);
+                }
+            }
+            ivf = trained;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isTrained() {
+        return ivf != null;
+    }
+
+    /**
+     * Approximate heap used by stored codes, skill ids, postings and IVF lists.
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (int i = 0; i < size; i++) {
+                bytes += 16 + (codes[i] == null ? 0 : codes[i].length) + 16 + 4L * skills[i].length + 4 + 8 + 8;
+            }
+            for (IntList posting : postings) {
+                bytes += posting.estimatedBytes();
+            }
+            Ivf current = ivf;
+            if (current != null) {
+                for (int c = 0; c < current.centroids.length; c++) {
+                    bytes += 16 + 4L * current.centroids[c].length + current.lists[c].estimatedBytes();
+                }
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Match score(int ordinal, int[] jobSkillIds, int jobSkillCount, float[] q) {
+        int overlap = intersectionSize(skills[ordinal], jobSkillIds);
+        double keyword = jobSkillCount == 0 ? 0.0 : overlap * 100.0 / jobSkillCount;
+        double semantic = q != null && codes[ordinal] != null
+            ? VectorMath.dot(q, codes[ordinal]) * scales[ordinal] * 100.0
+            : 0.0;
+        return new Match(ids[ordinal], names[ordinal], keyword * 0.6 + semantic * 0.4, keyword, semantic);
+    }
+
+    private short[] keywordOverlap(int[] jobSkillIds) {
+        short[] overlap = new short[size];
+        for (int skill : jobSkillIds) {
+            IntList posting = postings.get(skill);
+            for (int i = 0; i < posting.size(); i++) {
+                overlap[posting.get(i)]++;
+            }
+        }
+        return overlap;
+    }
+
+    private void topByOverlap(short[] overlap, int limit, BitSet selected) {
+        // Overlaps are bounded by the job's skill count, so a histogram finds the cut-off
+        int max = 0;
+        for (short count : overlap) {
+            max = Math.max(max, count);
+        }
+        int[] histogram = new int[max + 1];
+        for (short count : overlap) {
+            histogram[count]++;
+        }
+        int threshold = max;
+        int above = histogram[max];
+        while (threshold > 1 && above < limit) {
+            above += histogram[--threshold];
+        }
+
+        int taken = 0;
+        for (int ordinal = 0; ordinal < overlap.length; ordinal++) {
+            if (overlap[ordinal] > threshold) {
+                selected.set(ordinal);
+                taken++;
+            }
+        }
+        for (int ordinal = 0; ordinal < overlap.length && taken < limit; ordinal++) {
+            if (overlap[ordinal] == threshold && threshold > 0) {
+                selected.set(ordinal);
+                taken++;
+            }
+        }
+    }
+
+    private void topBySemantic(float[] q, int nprobe, int limit, BitSet selected) {
+        PriorityQueue<long[]> best = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+        Ivf current = ivf;
+        if (current == null) {
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                offer(best, limit, q, ordinal);
+            }
+        } else {
+            for (int list : current.closest(q, nprobe)) {
+                IntList members = current.lists[list];
+                for (int i = 0; i < members.size(); i++) {
+                    offer(best, limit, q, members.get(i));
+                }
+            }
+        }
+        for (long[] entry : best) {
+            selected.set((int) entry[1]);
+        }
+    }
+
+    private void offer(PriorityQueue<long[]> best, int limit, float[] q, int ordinal) {
+        if (codes[ordinal] == null) {
+            return;
+        }
+        // Scores are kept as sortable fixed-point longs to avoid boxing
+        long score = (long) (VectorMath.dot(q, codes[ordinal]) * scales[ordinal] * 1_000_000_000L);
+        if (best.size() < limit) {
+            best.add(new long[] {score, ordinal});
+        } else if (score > best.peek()[0]) {
+            best.poll();
+            best.add(new long[] {score, ordinal});
+        }
+    }
+
+    private int[] toSkillIds(Set<String> names, boolean create) {
+        int[] result = new int[names.size()];
+        int count = 0;
+        for (String name : names) {
+            Integer id = skillIds.get(name);
+            if (id == null && create) {
+                id = postings.size();
+                skillIds.put(name, id);
+                postings.add(new IntList());
+            }
+            if (id != null) {
+                result[count++] = id;
+            }
+        }
+        int[] ids = Arrays.copyOf(result, count);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static int intersectionSize(int[] a, int[] b) {
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private static float[] dequantize(byte[] code, float scale) {
+        float[] values = new float[code.length];
+        for (int i = 0; i < code.length; i++) {
+            values[i] = code[i] * scale;
+        }
+        return values;
+    }
+
+    // Drops the first count ordinals (the oldest resumes) and renumbers the rest
+    private void evictOldest(int count) {
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            ordinals.remove(ids[ordinal]);
+        }
+        int remaining = size - count;
+        System.arraycopy(ids, count, ids, 0, remaining);
+        System.arraycopy(names, count, names, 0, remaining);
+        System.arraycopy(codes, count, codes, 0, remaining);
+        System.arraycopy(scales, count, scales, 0, remaining);
+        System.arraycopy(skills, count, skills, 0, remaining);
+        Arrays.fill(ids, remaining, size, null);
+        Arrays.fill(names, remaining, size, null);
+        Arrays.fill(codes, remaining, size, null);
+        Arrays.fill(skills, remaining, size, null);
+        size = remaining;
+        evicted += count;
+
+        ordinals.replaceAll((id, ordinal) -> ordinal - count);
+        for (IntList posting : postings) {
+            posting.dropBelow(count);
+        }
+        Ivf current = ivf;
+        if (current != null) {
+            for (IntList list : current.lists) {
+                list.dropBelow(count);
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, grown);
+        names = Arrays.copyOf(names, grown);
+        codes = Arrays.copyOf(codes, grown);
+        scales = Arrays.copyOf(scales, grown);
+        skills = Arrays.copyOf(skills, grown);
+    }
+
+    private static final class Ivf {
+        final float[][] centroids;
+        final IntList[] lists;
+
+        Ivf(float[][] centroids) {
+            this.centroids = centroids;
+            this.lists = new IntList[centroids.length];
+            for (int c = 0; c < centroids.length; c++) {
+                lists[c] = new IntList();
+            }
+        }
+
+        int nearest(float[] vector) {
+            int best = 0;
+            float bestScore = Float.NEGATIVE_INFINITY;
+            for (int c = 0; c < centroids.length; c++) {
+                float score = VectorMath.dot(vector, centroids[c]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        int[] closest(float[] query, int nprobe) {
+            Integer[] order = new Integer[centroids.length];
+            float[] scores = new float[centroids.length];
+            for (int c = 0; c < centroids.length; c++) {
+                order[c] = c;
+                scores[c] = VectorMath.dot(query, centroids[c]);
+            }
+            Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+            int[] result = new int[Math.min(nprobe, order.length)];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = order[i];
+            }
+            return result;
+        }
+    }
+
+    public static final class Match {
+        private final String id;
+        private final String name;
+        private final double matchScore;
+        private final double keywordScore;
+        private final double semanticScore;
+
+        Match(String id, String name, double matchScore, double keywordScore, double semanticScore) {
+            this.id = id;
+            this.name = name;
+            this.matchScore = matchScore;
+            this.keywordScore = keywordScore;
+            this.semanticScore = semanticScore;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getMatchScore() {
+            return matchScore;
+        }
+
+        public double getKeywordScore() {
+            return keywordScore;
+        }
+
+        public double getSemanticScore() {
+            return semanticScore;
+        }
+    }
+
+    public static final class SearchResult {
+        private final List<Match> matches;
+        private final int candidatesScored;
+        private final int totalResumes;
+        private final boolean approximate;
+
+        SearchResult(List<Match> matches, int candidatesScored, int totalResumes, boolean approximate) {
+            this.matches = matches;
+            this.candidatesScored = candidatesScored;
+            this.totalResumes = totalResumes;
+            this.approximate = approximate;
+        }
+
+        public List<Match> getMatches() {
+            return matches;
+        }
+
+        public int getCandidatesScored() {
+            return candidatesScored;
+        }
+
+        public int getTotalResumes() {
+            return totalResumes;
+        }
+
+        public boolean isApproximate() {
+            return approximate;
+        }
+    }
+}
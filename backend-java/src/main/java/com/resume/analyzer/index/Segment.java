@@ -0,0 +1,60 @@
+package com.resume.analyzer.index;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One segment of a {@link Bm25Index}: a run of documents numbered from 0 in the order
+ * they were added, and for each term the postings of the documents containing it.
+ *
+ * A term's postings are a sequence of varints, one entry per document in increasing
+ * document order: {@code (docDelta << fieldCount) | fieldMask}, where the delta is taken
+ * from the previous entry (from 0 for the first), followed by one term frequency for each
+ * field whose bit is set in the mask.
+ */
+interface Segment {
+
+    int documentCount();
+
+    /**
+     * Sum of the lengths of {@code field} over all documents, for the average length.
+     */
+    long totalLength(int field);
+
+    /**
+     * Number of documents containing {@code term}; 0 if none do.
+     */
+    int documentFrequency(String term);
+
+    /**
+     * The postings of {@code term}, positioned at the first entry, or null if no document
+     * contains it. Each call returns an independent buffer.
+     */
+    ByteBuffer postings(String term);
+
+    long id(int document);
+
+    String name(int document);
+
+    int fieldLength(int document, int field);
+
+    static long readVarint(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
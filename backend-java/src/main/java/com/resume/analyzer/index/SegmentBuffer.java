@@ -0,0 +1,256 @@
+package com.resume.analyzer.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The segment documents are added to, held in memory until it is written out as a
+ * {@link MappedSegment}. Postings are encoded as documents arrive, so flushing is a copy.
+ * Not thread-safe; {@link Bm25Index} guards it with its lock.
+ */
+final class SegmentBuffer implements Segment {
+
+    private final int fieldCount;
+    private final Map<String, Postings> terms = new HashMap<>();
+    private final long[] totals;
+    private long[] ids = new long[256];
+    private String[] names = new String[256];
+    private int[] lengths;
+    private int documentCount;
+    private long postingBytes;
+
+    SegmentBuffer(int fieldCount) {
+        this.fieldCount = fieldCount;
+        this.totals = new long[fieldCount];
+        this.lengths = new int[256 * fieldCount];
+    }
+
+    /**
+     * Adds a document. {@code frequencies} maps each term to its count per field;
+     * {@code fieldLengths} are the document's length per field.
+     */
+    void add(long id, String name, Map<String, int[]> frequencies, int[] fieldLengths) {
+        int document = documentCount++;
+        if (document == ids.length) {
+            int grown = ids.length * 2;
+            ids = Arrays.copyOf(ids, grown);
+            names = Arrays.copyOf(names, grown);
+            lengths = Arrays.copyOf(lengths, grown * fieldCount);
+        }
+        ids[document] = id;
+        names[document] = name;
+        for (int f = 0; f < fieldCount; f++) {
+            lengths[document * fieldCount + f] = fieldLengths[f];
+            totals[f] += fieldLengths[f];
+        }
+
+        for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+            String term = entry.getKey();
+            int[] counts = entry.getValue();
+            int mask = 0;
+            for (int f = 0; f < fieldCount; f++) {
+                if (counts[f] > 0) {
+                    mask |= 1 << f;
+                }
+            }
+            if (mask == 0 || term.isEmpty() || term.length() > Bm25Index.MAX_TERM_LENGTH) {
+                continue;
+            }
+
+            Postings postings = terms.computeIfAbsent(term, t -> new Postings());
+            int before = postings.bytes.size();
+            postings.bytes.addVarint(((long) (document - postings.lastDocument) << fieldCount) | mask);
+            for (int f = 0; f < fieldCount; f++) {
+                if (counts[f] > 0) {
+                    postings.bytes.addVarint(counts[f]);
+                }
+            }
+            postings.lastDocument = document;
+            postings.documentFrequency++;
+            postingBytes += postings.bytes.size() - before;
+        }
+    }
+
+    @Override
+    public int documentCount() {
+        return documentCount;
+    }
+
+    @Override
+    public long totalLength(int field) {
+        return totals[field];
+    }
+
+    @Override
+    public int documentFrequency(String term) {
+        Postings postings = terms.get(term);
+        return postings == null ? 0 : postings.documentFrequency;
+    }
+
+    @Override
+    public ByteBuffer postings(String term) {
+        Postings postings = terms.get(term);
+        return postings == null ? null : ByteBuffer.wrap(postings.bytes.array(), 0, postings.bytes.size());
+    }
+
+    @Override
+    public long id(int document) {
+        return ids[document];
+    }
+
+    @Override
+    public String name(int document) {
+        return names[document];
+    }
+
+    @Override
+    public int fieldLength(int document, int field) {
+        return lengths[document * fieldCount + field];
+    }
+
+    /**
+     * A read-only view of the documents added so far, limited to {@code queryTerms}, that
+     * stays valid while more documents are added. Documents and postings are append-only
+     * and arrays only grow by copying, so the view keeps the current arrays and lengths
+     * instead of copying their contents. Must be taken under the lock that guards adds.
+     */
+    Segment snapshot(Collection<String> queryTerms) {
+        Map<String, ByteBuffer> postings = new HashMap<>();
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : queryTerms) {
+            Postings entry = terms.get(term);
+            if (entry != null) {
+                postings.put(term, ByteBuffer.wrap(entry.bytes.array(), 0, entry.bytes.size()).asReadOnlyBuffer());
+                frequencies.put(term, entry.documentFrequency);
+            }
+        }
+        return new Snapshot(fieldCount, documentCount, totals.clone(), ids, names, lengths, postings, frequencies);
+    }
+
+    /**
+     * The terms sorted by their UTF-8 bytes, as segment files store them, for writing.
+     */
+    SegmentWriter.Terms sortedTerms() {
+        byte[][] keys = new byte[terms.size()][];
+        Postings[] values = new Postings[terms.size()];
+        Integer[] order = new Integer[terms.size()];
+        int i = 0;
+        for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+            keys[i] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            values[i] = entry.getValue();
+            order[i] = i;
+            i++;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys[a], keys[b]));
+
+        return new SegmentWriter.Terms() {
+            @Override
+            public int size() {
+                return order.length;
+            }
+
+            @Override
+            public byte[] term(int index) {
+                return keys[order[index]];
+            }
+
+            @Override
+            public int documentFrequency(int index) {
+                return values[order[index]].documentFrequency;
+            }
+
+            @Override
+            public int lastDocument(int index) {
+                return values[order[index]].lastDocument;
+            }
+
+            @Override
+            public long postingsLength(int index) {
+                return values[order[index]].bytes.size();
+            }
+
+            @Override
+            public void writePostings(int index, SegmentWriter.Output out) throws IOException {
+                ByteList bytes = values[order[index]].bytes;
+                out.write(bytes.array(), 0, bytes.size());
+            }
+        };
+    }
+
+    /**
+     * Approximate heap held by the buffer, dominated by the encoded postings.
+     */
+    long estimatedBytes() {
+        return postingBytes + terms.size() * 96L + documentCount * (8L + 4L * fieldCount + 64L);
+    }
+
+    private static final class Snapshot implements Segment {
+        private final int fieldCount;
+        private final int documentCount;
+        private final long[] totals;
+        private final long[] ids;
+        private final String[] names;
+        private final int[] lengths;
+        private final Map<String, ByteBuffer> postings;
+        private final Map<String, Integer> frequencies;
+
+        Snapshot(int fieldCount, int documentCount, long[] totals, long[] ids, String[] names, int[] lengths,
+                 Map<String, ByteBuffer> postings, Map<String, Integer> frequencies) {
+            this.fieldCount = fieldCount;
+            this.documentCount = documentCount;
+            this.totals = totals;
+            this.ids = ids;
+            this.names = names;
+            this.lengths = lengths;
+            this.postings = postings;
+            this.frequencies = frequencies;
+        }
+
+        @Override
+        public int documentCount() {
+            return documentCount;
+        }
+
+        @Override
+        public long totalLength(int field) {
+            return totals[field];
+        }
+
+        @Override
+        public int documentFrequency(String term) {
+            return frequencies.getOrDefault(term, 0);
+        }
+
+        @Override
+        public ByteBuffer postings(String term) {
+            ByteBuffer buffer = postings.get(term);
+            return buffer == null ? null : buffer.duplicate();
+        }
+
+        @Override
+        public long id(int document) {
+            return ids[document];
+        }
+
+        @Override
+        public String name(int document) {
+            return names[document];
+        }
+
+        @Override
+        public int fieldLength(int document, int field) {
+            return lengths[document * fieldCount + field];
+        }
+    }
+
+    private static final class Postings {
+        final ByteList bytes = new ByteList();
+        int documentFrequency;
+        int lastDocument;
+    }
+}
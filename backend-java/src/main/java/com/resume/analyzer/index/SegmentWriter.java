@@ -0,0 +1,288 @@
+package com.resume.analyzer.index;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes segment files in the layout {@link MappedSegment} reads, either from a
+ * {@link SegmentBuffer} or by merging two adjacent segments. Everything is streamed in
+ * one pass per section, so merging large segments needs no more heap than the term list.
+ */
+final class SegmentWriter {
+
+    private SegmentWriter() {
+    }
+
+    /**
+     * A segment's terms in UTF-8 byte order with their postings.
+     */
+    interface Terms {
+        int size();
+
+        byte[] term(int index);
+
+        int documentFrequency(int index);
+
+        int lastDocument(int index);
+
+        long postingsLength(int index);
+
+        void writePostings(int index, Output out) throws IOException;
+    }
+
+    /**
+     * Writes a segment with {@code terms} and the documents of {@code documents}, in
+     * order, to {@code file}. The file is written under a temporary name and moved into
+     * place, so it either exists complete or not at all.
+     */
+    static void write(Path file, int fieldCount, Terms terms, List<? extends Segment> documents) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Output out = new Output(Files.newOutputStream(temp))) {
+                int termCount = terms.size();
+
+                // Term table: fixed-size entries, so lookups can binary search it
+                long termBytesOffset = 0;
+                long postingsOffset = 0;
+                for (int i = 0; i < termCount; i++) {
+                    long postingsLength = terms.postingsLength(i);
+                    out.writeInt((int) termBytesOffset);
+                    out.writeInt(terms.documentFrequency(i));
+                    out.writeInt(terms.lastDocument(i));
+                    out.writeLong(postingsOffset);
+                    out.writeInt((int) postingsLength);
+                    termBytesOffset += 2 + terms.term(i).length;
+                    postingsOffset += postingsLength;
+                }
+
+                long termBytes = out.position();
+                for (int i = 0; i < termCount; i++) {
+                    byte[] term = terms.term(i);
+                    out.writeShort(term.length);
+                    out.write(term, 0, term.length);
+                }
+
+                long postings = out.position();
+                for (int i = 0; i < termCount; i++) {
+                    terms.writePostings(i, out);
+                }
+                if (out.position() - postings != postingsOffset) {
+                    throw new IllegalStateException("Postings length mismatch writing " + file);
+                }
+
+                long docs = out.position();
+                long[] totals = new long[fieldCount];
+                int documentCount = 0;
+                long nameOffset = 0;
+                for (Segment segment : documents) {
+                    for (int d = 0; d < segment.documentCount(); d++) {
+                        out.writeLong(segment.id(d));
+                        for (int f = 0; f < fieldCount; f++) {
+                            int length = segment.fieldLength(d, f);
+                            out.writeInt(length);
+                            totals[f] += length;
+                        }
+                        out.writeInt((int) nameOffset);
+                        nameOffset += 4 + nameBytes(segment, d).length;
+                        documentCount++;
+                    }
+                }
+
+                long names = out.position();
+                for (Segment segment : documents) {
+                    for (int d = 0; d < segment.documentCount(); d++) {
+                        byte[] name = nameBytes(segment, d);
+                        out.writeInt(name.length);
+                        out.write(name, 0, name.length);
+                    }
+                }
+
+                // Footer, read back from the end of the file
+                long footer = out.position();
+                out.writeInt(fieldCount);
+                out.writeInt(documentCount);
+                out.writeInt(termCount);
+                for (long total : totals) {
+                    out.writeLong(total);
+                }
+                out.writeInt(0);
+                out.writeInt((int) termBytes);
+                out.writeInt((int) postings);
+                out.writeInt((int) docs);
+                out.writeInt((int) names);
+                out.writeInt((int) (out.position() - footer + 8));
+                out.writeInt(MappedSegment.MAGIC);
+
+                if (out.position() > Integer.MAX_VALUE) {
+                    throw new IOException("Segment " + file + " exceeds the 2 GB mapping limit");
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * The union of two adjacent segments' terms, with {@code newer}'s documents numbered
+     * after {@code older}'s. Only the first entry of each of {@code newer}'s lists changes,
+     * since its delta is now taken from {@code older}'s last document; the rest is copied.
+     */
+    static Terms merge(MappedSegment older, MappedSegment newer) {
+        // Entry in each segment per merged term, -1 where the term is missing
+        IntList olderEntries = new IntList(Math.max(older.termCount(), newer.termCount()));
+        IntList newerEntries = new IntList(Math.max(older.termCount(), newer.termCount()));
+        int i = 0;
+        int j = 0;
+        while (i < older.termCount() || j < newer.termCount()) {
+            int order = i == older.termCount() ? 1
+                : j == newer.termCount() ? -1
+                : Arrays.compareUnsigned(older.term(i), newer.term(j));
+            olderEntries.add(order <= 0 ? i++ : -1);
+            newerEntries.add(order >= 0 ? j++ : -1);
+        }
+
+        int offset = older.documentCount();
+        int fieldCount = older.fieldCount();
+        long fieldMask = (1L << fieldCount) - 1;
+
+        return new Terms() {
+            @Override
+            public int size() {
+                return olderEntries.size();
+            }
+
+            @Override
+            public byte[] term(int index) {
+                int entry = olderEntries.get(index);
+                return entry >= 0 ? older.term(entry) : newer.term(newerEntries.get(index));
+            }
+
+            @Override
+            public int documentFrequency(int index) {
+                int a = olderEntries.get(index);
+                int b = newerEntries.get(index);
+                return (a >= 0 ? older.documentFrequency(a) : 0) + (b >= 0 ? newer.documentFrequency(b) : 0);
+            }
+
+            @Override
+            public int lastDocument(int index) {
+                int b = newerEntries.get(index);
+                return b >= 0 ? offset + newer.lastDocument(b) : older.lastDocument(olderEntries.get(index));
+            }
+
+            @Override
+            public long postingsLength(int index) {
+                int a = olderEntries.get(index);
+                int b = newerEntries.get(index);
+                long length = a >= 0 ? older.postingsLength(a) : 0;
+                if (b >= 0) {
+                    long first = Segment.readVarint(newer.postings(b));
+                    length += newer.postingsLength(b) - Segment.varintSize(first)
+                        + Segment.varintSize(rebase(first, a));
+                }
+                return length;
+            }
+
+            @Override
+            public void writePostings(int index, Output out) throws IOException {
+                int a = olderEntries.get(index);
+                int b = newerEntries.get(index);
+                if (a >= 0) {
+                    out.write(older.postings(a));
+                }
+                if (b >= 0) {
+                    ByteBuffer postings = newer.postings(b);
+                    out.writeVarint(rebase(Segment.readVarint(postings), a));
+                    out.write(postings);
+                }
+            }
+
+            // First entry of a newer list, with its delta taken from the older list's last document
+            private long rebase(long first, int olderEntry) {
+                long delta = (first >>> fieldCount) + offset - (olderEntry >= 0 ? older.lastDocument(olderEntry) : 0);
+                return (delta << fieldCount) | (first & fieldMask);
+            }
+        };
+    }
+
+    private static byte[] nameBytes(Segment segment, int document) {
+        String name = segment.name(document);
+        return name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Buffered big-endian output that tracks its position, matching {@link ByteBuffer}'s
+     * default byte order on the read side.
+     */
+    static final class Output implements Closeable {
+
+        private final OutputStream out;
+        private final byte[] chunk = new byte[8192];
+        private long position;
+
+        Output(OutputStream out) {
+            this.out = new BufferedOutputStream(out, 1 << 16);
+        }
+
+        long position() {
+            return position;
+        }
+
+        void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            position += length;
+        }
+
+        /**
+         * Copies the remaining bytes of {@code bytes}.
+         */
+        void write(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                int length = Math.min(bytes.remaining(), chunk.length);
+                bytes.get(chunk, 0, length);
+                write(chunk, 0, length);
+            }
+        }
+
+        void writeShort(int value) throws IOException {
+            out.write(value >>> 8);
+            out.write(value);
+            position += 2;
+        }
+
+        void writeInt(int value) throws IOException {
+            writeShort(value >>> 16);
+            writeShort(value & 0xFFFF);
+        }
+
+        void writeLong(long value) throws IOException {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeVarint(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                position++;
+                value >>>= 7;
+            }
+            out.write((int) value);
+            position++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
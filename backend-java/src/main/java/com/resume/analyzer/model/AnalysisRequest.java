@@ -0,0 +1,26 @@
+package com.resume.analyzer.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What a queued analysis needs besides the upload itself: exactly one of
+ * {@code jobDescription} or {@code jobId}, the {@code AnalysisMode} name, and where to
+ * post the finished task.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalysisRequest {
+    private String id;
+    private String resumeFilename;
+    private String jobDescription;
+    private String jobId;
+    private String mode;
+    private String callbackUrl;
+}
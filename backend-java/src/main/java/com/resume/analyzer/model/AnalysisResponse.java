@@ -13,6 +13,8 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 public class AnalysisResponse {
+    private String mode;
+    private String resumeId;
     private Double matchScore;
     private Double keywordScore;
     private Double semanticScore;
@@ -25,4 +27,5 @@ public class AnalysisResponse {
     private Map<String, Double> atsScore;
     private LLMAnalysis llmAnalysis;
     private String scoreReasoning;
+    private List<StageTiming> stageTimings;
 }
@@ -0,0 +1,25 @@
+package com.resume.analyzer.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One section of the LLM analysis ({@code OVERALL}, {@code STRENGTHS}, ...), sent by
+ * /analyze/stream as soon as the model has finished writing it. List sections also
+ * carry their parsed items.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalysisSection {
+    private String name;
+    private String content;
+    private List<String> items;
+}
@@ -0,0 +1,34 @@
+package com.resume.analyzer.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * State of an analysis submitted with {@code POST /analyze?async=true}, as returned by
+ * {@code GET /analyze/{id}} and posted to the callback URL. {@code status} moves from
+ * {@code queued} to {@code running} to {@code completed} (with {@code result}) or
+ * {@code failed} (with {@code error}). Times are epoch milliseconds.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalysisTask {
+    public static final String QUEUED = "queued";
+    public static final String RUNNING = "running";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+
+    private String id;
+    private String status;
+    private String resumeFilename;
+    private Long submittedAt;
+    private Long startedAt;
+    private Long completedAt;
+    private AnalysisResponse result;
+    private ErrorResponse error;
+}
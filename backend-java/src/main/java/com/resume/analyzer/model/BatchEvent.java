@@ -0,0 +1,29 @@
+package com.resume.analyzer.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One line of the newline-delimited JSON stream returned by /analyze/batch:
+ * a {@code result} per resume as it finishes, an {@code llm_analysis} per top-K resume,
+ * then a final {@code summary} with the full ranking.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchEvent {
+    private String type;
+    private BatchResult result;
+    private String jobId;
+    private Integer processed;
+    private Integer failed;
+    private Long elapsedMs;
+    private List<BatchResult> ranking;
+}
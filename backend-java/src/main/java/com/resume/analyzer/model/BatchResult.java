@@ -0,0 +1,28 @@
+package com.resume.analyzer.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResult {
+    private Integer index;
+    private Integer rank;
+    private String resumeFilename;
+    private Double matchScore;
+    private Double keywordScore;
+    private Double semanticScore;
+    private Double atsScore;
+    private List<String> matchedSkills;
+    private List<String> missingSkills;
+    private LLMAnalysis llmAnalysis;
+    private String error;
+}
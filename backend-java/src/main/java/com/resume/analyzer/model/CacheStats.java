@@ -0,0 +1,25 @@
+package com.resume.analyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStats {
+    private Integer entries;
+    private Long weightBytes;
+    private Long hits;
+    private Long misses;
+    private Long evictions;
+    private Double hitRate;
+    private Long bytesSaved;
+    private Long sharedCalls;
+    private Integer diskEntries;
+    private Long diskBytes;
+    private Long diskHits;
+    private Long diskRotations;
+}
@@ -13,4 +13,5 @@ public class HealthResponse {
     private String status;
     private String service;
     private Boolean openaiConfigured;
+    private String embeddingProvider;
 }
@@ -0,0 +1,24 @@
+package com.resume.analyzer.model;
+
+import com.resume.analyzer.service.AnalyzedDocument;
+import com.resume.analyzer.vector.DenseVector;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobProfile {
+    private String id;
+    private String description;
+    private AnalyzedDocument document;
+    private Set<String> skills;
+    private DenseVector embedding;
+    private Instant createdAt;
+}
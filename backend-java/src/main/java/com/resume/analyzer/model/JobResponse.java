@@ -0,0 +1,22 @@
+package com.resume.analyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobResponse {
+    private String jobId;
+    private List<String> jobSkills;
+    private Integer totalJobSkills;
+    private Boolean embedded;
+    private Integer descriptionLength;
+    private Instant createdAt;
+}
@@ -1,5 +1,6 @@
 package com.resume.analyzer.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,4 +21,7 @@ public class LLMAnalysis {
     private Map<String, String> atsOptimization;
     private List<String> skillDevelopmentPriority;
     private List<String> immediateActions;
+    // Why the rule-based analysis was returned instead of the model's, if it was
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String fallbackReason;
 }
@@ -0,0 +1,21 @@
+package com.resume.analyzer.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MatchResult {
+    private String resumeId;
+    private String resumeFilename;
+    private Double matchScore;
+    private Double keywordScore;
+    private Double semanticScore;
+    private Double bm25Score;
+}
@@ -0,0 +1,22 @@
+package com.resume.analyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchesResponse {
+    private String jobId;
+    private Integer k;
+    private String mode;
+    private Integer totalResumes;
+    private Integer candidatesScored;
+    private Long tookMs;
+    private List<MatchResult> matches;
+}
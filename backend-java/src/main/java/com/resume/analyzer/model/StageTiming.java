@@ -0,0 +1,17 @@
+package com.resume.analyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StageTiming {
+    private String stage;
+    private Double startMs;
+    private Double durationMs;
+    private String thread;
+}
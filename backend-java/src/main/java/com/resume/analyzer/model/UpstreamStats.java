@@ -0,0 +1,24 @@
+package com.resume.analyzer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpstreamStats {
+    private Integer concurrencyLimit;
+    private Integer inFlight;
+    private Integer queuedInteractive;
+    private Integer queuedBatch;
+    private Long requestBudget;
+    private Long tokenBudget;
+    private Double latencyMs;
+    private Long completed;
+    private Long rateLimited;
+    private Long retried;
+    private Long shed;
+}
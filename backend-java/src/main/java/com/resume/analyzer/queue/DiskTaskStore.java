@@ -0,0 +1,188 @@
+package com.resume.analyzer.queue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resume.analyzer.model.AnalysisRequest;
+import com.resume.analyzer.model.AnalysisTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores each analysis as files in one local directory, so queued work and finished
+ * results survive a restart:
+ *
+ * <pre>
+ * {id}.upload        the uploaded resume, until it has been analyzed
+ * {id}.request.json  job description or job id, callback URL
+ * {id}.task.json     current status and, once finished, the result or error
+ * </pre>
+ *
+ * JSON files are replaced atomically (written to a temp file, then moved), and the task
+ * file is written last on creation, so a crash mid-submit leaves no half-created task.
+ * Tasks and requests are also held in memory; the directory is only read on open.
+ */
+public class DiskTaskStore implements TaskStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskTaskStore.class);
+
+    private static final String UPLOAD = ".upload";
+    private static final String REQUEST = ".request.json";
+    private static final String TASK = ".task.json";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final Map<String, AnalysisTask> tasks = new ConcurrentHashMap<>();
+    private final Map<String, AnalysisRequest> requests = new ConcurrentHashMap<>();
+
+    public DiskTaskStore(Path directory, ObjectMapper objectMapper) throws IOException {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        Files.createDirectories(directory);
+        load();
+    }
+
+    @Override
+    public void create(AnalysisRequest request, AnalysisTask task, InputStream upload) throws IOException {
+        String id = request.getId();
+        Path temp = Files.createTempFile(directory, id, ".tmp");
+        try {
+            Files.copy(upload, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, file(id, UPLOAD), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        write(file(id, REQUEST), request);
+        write(file(id, TASK), task);
+        requests.put(id, request);
+        tasks.put(id, task);
+    }
+
+    @Override
+    public void update(AnalysisTask task) {
+        try {
+            write(file(task.getId(), TASK), task);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to persist analysis " + task.getId(), e);
+        }
+        tasks.put(task.getId(), task);
+    }
+
+    @Override
+    public AnalysisTask get(String id) {
+        return tasks.get(id);
+    }
+
+    @Override
+    public AnalysisRequest request(String id) {
+        return requests.get(id);
+    }
+
+    @Override
+    public InputStream openUpload(String id) throws IOException {
+        if (!tasks.containsKey(id)) {
+            throw new FileNotFoundException("No upload stored for " + id);
+        }
+        return Files.newInputStream(file(id, UPLOAD));
+    }
+
+    @Override
+    public void deleteUpload(String id) {
+        if (tasks.containsKey(id)) {
+            deleteQuietly(file(id, UPLOAD));
+        }
+    }
+
+    @Override
+    public void delete(String id) {
+        if (tasks.remove(id) != null) {
+            requests.remove(id);
+            // Task file first: without it the rest is ignored on the next open
+            deleteQuietly(file(id, TASK));
+            deleteQuietly(file(id, REQUEST));
+            deleteQuietly(file(id, UPLOAD));
+        }
+    }
+
+    @Override
+    public List<AnalysisTask> tasks() {
+        List<AnalysisTask> all = new ArrayList<>(tasks.values());
+        all.sort(Comparator.comparing(AnalysisTask::getSubmittedAt));
+        return all;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void load() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    deleteQuietly(path);
+                    continue;
+                }
+                if (!name.endsWith(TASK)) {
+                    continue;
+                }
+                String id = name.substring(0, name.length() - TASK.length());
+                try {
+                    AnalysisTask task = objectMapper.readValue(path.toFile(), AnalysisTask.class);
+                    AnalysisRequest request = objectMapper.readValue(file(id, REQUEST).toFile(), AnalysisRequest.class);
+                    tasks.put(id, task);
+                    requests.put(id, request);
+                } catch (IOException e) {
+                    logger.warn("⚠️ Skipping unreadable analysis {} in {}: {}", id, directory, e.getMessage());
+                }
+            }
+        }
+        // Leftovers of submissions that crashed before their task file was written
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                String id = name.endsWith(UPLOAD) ? name.substring(0, name.length() - UPLOAD.length())
+                    : name.endsWith(REQUEST) ? name.substring(0, name.length() - REQUEST.length())
+                    : null;
+                if (id != null && !tasks.containsKey(id)) {
+                    deleteQuietly(path);
+                }
+            }
+        }
+        logger.info("✅ Opened analysis store at {} with {} analyses", directory, tasks.size());
+    }
+
+    private void write(Path target, Object value) throws IOException {
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, objectMapper.writeValueAsBytes(value));
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path file(String id, String suffix) {
+        return directory.resolve(id + suffix);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to delete {}", path, e);
+        }
+    }
+}
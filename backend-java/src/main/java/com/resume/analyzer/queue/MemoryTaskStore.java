@@ -0,0 +1,121 @@
+package com.resume.analyzer.queue;
+
+import com.resume.analyzer.model.AnalysisRequest;
+import com.resume.analyzer.model.AnalysisTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process store: fast, but queued and finished analyses are lost on restart. Uploads
+ * are still written to a temporary directory rather than held on the heap, so a full
+ * queue of large PDFs costs disk space, not memory.
+ */
+public class MemoryTaskStore implements TaskStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemoryTaskStore.class);
+
+    private final Path directory;
+    private final Map<String, AnalysisTask> tasks = new ConcurrentHashMap<>();
+    private final Map<String, AnalysisRequest> requests = new ConcurrentHashMap<>();
+    private final Map<String, Path> uploads = new ConcurrentHashMap<>();
+
+    public MemoryTaskStore() throws IOException {
+        this.directory = Files.createTempDirectory("analysis-queue");
+    }
+
+    @Override
+    public void create(AnalysisRequest request, AnalysisTask task, InputStream upload) throws IOException {
+        Path file = Files.createTempFile(directory, request.getId(), ".upload");
+        try {
+            Files.copy(upload, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+        uploads.put(request.getId(), file);
+        requests.put(request.getId(), request);
+        tasks.put(task.getId(), task);
+    }
+
+    @Override
+    public void update(AnalysisTask task) {
+        tasks.put(task.getId(), task);
+    }
+
+    @Override
+    public AnalysisTask get(String id) {
+        return tasks.get(id);
+    }
+
+    @Override
+    public AnalysisRequest request(String id) {
+        return requests.get(id);
+    }
+
+    @Override
+    public InputStream openUpload(String id) throws IOException {
+        Path upload = uploads.get(id);
+        if (upload == null) {
+            throw new FileNotFoundException("No upload stored for " + id);
+        }
+        return Files.newInputStream(upload);
+    }
+
+    @Override
+    public void deleteUpload(String id) {
+        Path upload = uploads.remove(id);
+        if (upload != null) {
+            deleteQuietly(upload);
+        }
+    }
+
+    @Override
+    public void delete(String id) {
+        deleteUpload(id);
+        requests.remove(id);
+        tasks.remove(id);
+    }
+
+    @Override
+    public List<AnalysisTask> tasks() {
+        List<AnalysisTask> all = new ArrayList<>(tasks.values());
+        all.sort(Comparator.comparing(AnalysisTask::getSubmittedAt));
+        return all;
+    }
+
+    /**
+     * Deletes the uploads of analyses that had not finished, and their directory.
+     */
+    @Override
+    public void close() throws IOException {
+        uploads.clear();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                deleteQuietly(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to delete {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.resume.analyzer.queue;
+
+import com.resume.analyzer.model.AnalysisRequest;
+import com.resume.analyzer.model.AnalysisTask;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Where queued analyses live between submission and expiry: the request, the uploaded
+ * file until it has been analyzed, and the task's current state. Implementations must be
+ * safe for concurrent use.
+ */
+public interface TaskStore extends Closeable {
+
+    /**
+     * Stores a new submission, copying {@code upload} so the caller can release it.
+     */
+    void create(AnalysisRequest request, AnalysisTask task, InputStream upload) throws IOException;
+
+    void update(AnalysisTask task);
+
+    /**
+     * Returns the task, or null if unknown or expired.
+     */
+    AnalysisTask get(String id);
+
+    AnalysisRequest request(String id);
+
+    InputStream openUpload(String id) throws IOException;
+
+    /**
+     * Drops the upload once the analysis has finished; the task stays readable.
+     */
+    void deleteUpload(String id);
+
+    void delete(String id);
+
+    /**
+     * Every stored task, oldest submission first.
+     */
+    List<AnalysisTask> tasks();
+}
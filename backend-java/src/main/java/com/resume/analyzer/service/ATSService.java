@@ -5,29 +5,65 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.regex.Pattern;
 
 @Service
 public class ATSService {
     
     private static final Logger logger = LoggerFactory.getLogger(ATSService.class);
     
-    private static final Set<String> EXPECTED_SECTIONS = new HashSet<>(Arrays.asList(
+    private static final List<String> EXPECTED_SECTIONS = List.of(
         "contact", "email", "phone", "summary", "objective", "profile",
         "experience", "work experience", "employment", "education", "degree",
         "skills", "technical skills", "certifications", "certificates"
-    ));
+    );
+    
+    // Critical sections (indexes into EXPECTED_SECTIONS)
+    private static final int[] CRITICAL_SECTIONS = {
+        EXPECTED_SECTIONS.indexOf("experience"),
+        EXPECTED_SECTIONS.indexOf("education"),
+        EXPECTED_SECTIONS.indexOf("skills")
+    };
+    
+    // Section keywords count anywhere in the text, as with String.contains
+    private static final SkillMatcher SECTION_MATCHER = new SkillMatcher(EXPECTED_SECTIONS, false);
+    
+    /**
+     * Returns a scanner to feed the resume text into; {@link DocumentAnalyzer} runs one
+     * during its pass so {@link #calculateAtsScore(AnalyzedDocument, List, List)} only
+     * reads the results.
+     */
+    public AtsScanner newScanner() {
+        return new AtsScanner(SECTION_MATCHER);
+    }
     
     public Map<String, Double> calculateAtsScore(
             String resumeText,
             String jobDescription,
             List<String> matchedSkills,
             List<String> missingSkills
+    ) {
+        AtsScanner scanner = newScanner();
+        scanner.write(resumeText, 0, resumeText.length());
+        return calculateAtsScore(scanner, matchedSkills, missingSkills);
+    }
+    
+    public Map<String, Double> calculateAtsScore(
+            AnalyzedDocument resume,
+            List<String> matchedSkills,
+            List<String> missingSkills
+    ) {
+        return calculateAtsScore(resume.ats(), matchedSkills, missingSkills);
+    }
+    
+    private Map<String, Double> calculateAtsScore(
+            AtsScanner scanner,
+            List<String> matchedSkills,
+            List<String> missingSkills
     ) {
         logger.info("🎯 Calculating ATS score...");
         
-        double formatScore = calculateFormatScore(resumeText);
-        double sectionScore = calculateSectionScore(resumeText);
+        double formatScore = calculateFormatScore(scanner);
+        double sectionScore = calculateSectionScore(scanner);
         double keywordScore = calculateKeywordDensity(matchedSkills, missingSkills);
         
         double overallScore = (formatScore * 0.3 + sectionScore * 0.3 + keywordScore * 0.4);
@@ -42,52 +78,40 @@ public class ATSService {
         return result;
     }
     
-    private double calculateFormatScore(String resumeText) {
+    private double calculateFormatScore(AtsScanner scanner) {
         double score = 100.0;
         
         // Check for email
-        Pattern emailPattern = Pattern.compile("[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}");
-        if (!emailPattern.matcher(resumeText).find()) {
+        if (!scanner.hasEmail()) {
             score -= 15;
         }
         
         // Check for phone
-        Pattern phonePattern = Pattern.compile("\\+?\\d{1,3}?[-.\\s]?\\(?\\d{1,4}\\)?[-.\\s]?\\d{1,4}[-.\\s]?\\d{1,9}");
-        if (!phonePattern.matcher(resumeText).find()) {
+        if (!scanner.hasPhone()) {
             score -= 15;
         }
         
         // Check for dates (indicates structured experience)
-        Pattern datePattern = Pattern.compile("(Jan|Feb|Mar|Apr|May|Jun|Jul|Aug|Sep|Oct|Nov|Dec|January|February|March|April|May|June|July|August|September|October|November|December)\\s+\\d{4}");
-        if (!datePattern.matcher(resumeText).find()) {
+        if (!scanner.hasDate()) {
             score -= 10;
         }
         
         return Math.max(0, score);
     }
     
-    private double calculateSectionScore(String resumeText) {
-        String lowerText = resumeText.toLowerCase();
-        int foundSections = 0;
+    private double calculateSectionScore(AtsScanner scanner) {
+        BitSet found = scanner.sections();
+        int foundSections = found.cardinality();
         int criticalSections = 0;
         
-        // Critical sections
-        String[] critical = {"experience", "education", "skills"};
-        for (String section : critical) {
-            if (lowerText.contains(section)) {
+        for (int section : CRITICAL_SECTIONS) {
+            if (found.get(section)) {
                 criticalSections++;
             }
         }
         
-        // All expected sections
-        for (String section : EXPECTED_SECTIONS) {
-            if (lowerText.contains(section)) {
-                foundSections++;
-            }
-        }
-        
         // Critical sections are mandatory
-        double criticalScore = (criticalSections * 100.0) / critical.length;
+        double criticalScore = (criticalSections * 100.0) / CRITICAL_SECTIONS.length;
         double generalScore = (foundSections * 100.0) / EXPECTED_SECTIONS.size();
         
         return (criticalScore * 0.7 + generalScore * 0.3);
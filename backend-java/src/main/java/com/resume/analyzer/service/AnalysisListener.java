@@ -0,0 +1,16 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.model.AnalysisResponse;
+import com.resume.analyzer.model.AnalysisSection;
+
+/**
+ * Receives partial results of a streamed analysis, in order: the deterministic scores
+ * once they are ready, then each LLM analysis section as it completes. Called from
+ * analysis threads.
+ */
+public interface AnalysisListener {
+
+    void onScores(AnalysisResponse scores);
+
+    void onSection(AnalysisSection section);
+}
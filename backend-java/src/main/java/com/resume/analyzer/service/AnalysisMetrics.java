@@ -0,0 +1,174 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.model.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The application's meters, in one place so names and tags stay consistent. Exposed with
+ * the built-in JVM and HTTP meters at {@code /actuator/prometheus}:
+ *
+ * <ul>
+ *   <li>{@code analysis.stage} - duration of each pipeline stage ({@code stage}, {@code outcome})</li>
+ *   <li>{@code analysis.active}, {@code analysis.upload.active} - analyses and upload bytes in flight;
+ *       {@code analysis.upload.size} - upload sizes</li>
+ *   <li>{@code analysis.fallbacks} - rule-based results returned instead of the model's
+ *       ({@code kind}, {@code reason})</li>
+ *   <li>{@code pdf.extraction} - text extraction on a cache miss ({@code type}, {@code outcome})</li>
+ *   <li>{@code openai.requests} - each upstream attempt ({@code endpoint}, {@code outcome});
+ *       {@code openai.queue.wait}, {@code openai.shed} and {@code openai.tokens} per call</li>
+ *   <li>{@code cache.gets}, {@code cache.evictions} - per cache ({@code cache}, {@code result})</li>
+ *   <li>{@code http.response.serialization} - JSON encoding of each response body ({@code type})</li>
+ * </ul>
+ *
+ * Timers publish histogram buckets where {@code management.metrics.distribution} enables
+ * them, so p99 can be computed and alerted on across instances.
+ */
+@Service
+public class AnalysisMetrics {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private EmbeddingCache embeddingCache;
+
+    @Autowired
+    private ExtractionCache extractionCache;
+
+    @Autowired
+    private CompletionCache completionCache;
+
+    private final AtomicInteger activeAnalyses = new AtomicInteger();
+    private final AtomicLong activeUploadBytes = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("analysis.active", activeAnalyses, AtomicInteger::get)
+            .description("Analyses in progress")
+            .register(registry);
+        Gauge.builder("analysis.upload.active", activeUploadBytes, AtomicLong::get)
+            .description("Upload bytes held by analyses in progress")
+            .baseUnit("bytes")
+            .register(registry);
+
+        bindCache("embeddings", embeddingCache, EmbeddingCache::stats);
+        bindCache("extractions", extractionCache, ExtractionCache::stats);
+        bindCache("completions", completionCache, CompletionCache::stats);
+    }
+
+    /**
+     * Counts {@code analysis} as in flight, holding {@code uploadBytes}, until it completes.
+     */
+    public <T> CompletableFuture<T> track(long uploadBytes, CompletableFuture<T> analysis) {
+        activeAnalyses.incrementAndGet();
+        activeUploadBytes.addAndGet(uploadBytes);
+        DistributionSummary.builder("analysis.upload.size")
+            .baseUnit("bytes")
+            .register(registry)
+            .record(uploadBytes);
+        return analysis.whenComplete((result, error) -> {
+            activeAnalyses.decrementAndGet();
+            activeUploadBytes.addAndGet(-uploadBytes);
+        });
+    }
+
+    public void recordStage(String stage, long nanos, boolean failed) {
+        timer("analysis.stage", "stage", stage, "outcome", failed ? "error" : "success")
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordExtraction(String type, long nanos, boolean failed) {
+        timer("pdf.extraction", "type", type, "outcome", failed ? "error" : "success")
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * {@code kind} is what fell back ({@code llm_analysis}, {@code feedback}); {@code reason}
+     * is one of {@code unavailable}, {@code shed}, {@code timeout}, {@code error} or {@code parse}.
+     */
+    public void recordFallback(String kind, String reason) {
+        Counter.builder("analysis.fallbacks")
+            .tags("kind", kind, "reason", reason)
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * {@code outcome} is {@code success}, {@code rate_limited}, {@code timeout} or {@code error}.
+     */
+    public void recordUpstream(String endpoint, long nanos, String outcome) {
+        timer("openai.requests", "endpoint", endpoint, "outcome", outcome)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordQueueWait(String endpoint, String priority, long nanos) {
+        timer("openai.queue.wait", "endpoint", endpoint, "priority", priority)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordShed(String endpoint, String priority) {
+        Counter.builder("openai.shed")
+            .tags("endpoint", endpoint, "priority", priority)
+            .register(registry)
+            .increment();
+    }
+
+    /**
+     * Tokens billed for one call, as reported in the response's usage block.
+     */
+    public void recordTokens(String endpoint, String type, long tokens) {
+        DistributionSummary.builder("openai.tokens")
+            .tags("endpoint", endpoint, "type", type)
+            .baseUnit("tokens")
+            .register(registry)
+            .record(tokens);
+    }
+
+    public void recordSerialization(String type, long nanos) {
+        timer("http.response.serialization", "type", type).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registers a gauge read from {@code source} whenever metrics are scraped. Gauges only
+     * hold a weak reference, so {@code source} must be kept alive by its owner.
+     */
+    public <T> void gauge(String name, T source, ToDoubleFunction<T> value, String... tags) {
+        Gauge.builder(name, source, value).tags(tags).register(registry);
+    }
+
+    private Timer timer(String name, String... tags) {
+        // The registry returns the existing timer for the same name and tags
+        return Timer.builder(name).tags(tags).register(registry);
+    }
+
+    // Read from the cache bean itself, which the context keeps alive
+    private <C> void bindCache(String name, C cache, Function<C, CacheStats> stats) {
+        FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).getHits())
+            .tags("cache", name, "result", "hit")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).getMisses())
+            .tags("cache", name, "result", "miss")
+            .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, c -> stats.apply(c).getEvictions())
+            .tags("cache", name)
+            .register(registry);
+        Gauge.builder("cache.size", cache, c -> stats.apply(c).getEntries())
+            .tags("cache", name)
+            .register(registry);
+    }
+}
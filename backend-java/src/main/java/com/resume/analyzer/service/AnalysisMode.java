@@ -0,0 +1,42 @@
+package com.resume.analyzer.service;
+
+/**
+ * How much of the analysis to run, selected with the {@code mode} request parameter.
+ * Each tier adds to the one before it and skips all work the lower tiers don't return.
+ */
+public enum AnalysisMode {
+
+    /**
+     * Skills, keyword score and ATS score from local processing only; no upstream calls.
+     * The match score is the keyword score.
+     */
+    FAST,
+
+    /**
+     * Adds embeddings and the semantic score, blended into the match score, and the
+     * improvement advice.
+     */
+    SEMANTIC,
+
+    /**
+     * Adds the LLM analysis.
+     */
+    FULL;
+
+    public boolean includesEmbeddings() {
+        return this != FAST;
+    }
+
+    public boolean includesLlm() {
+        return this == FULL;
+    }
+
+    public static AnalysisMode parse(String value) {
+        for (AnalysisMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("mode must be one of fast, semantic or full");
+    }
+}
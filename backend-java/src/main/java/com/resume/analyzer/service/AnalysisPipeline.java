@@ -0,0 +1,310 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.cache.ContentHash;
+import com.resume.analyzer.model.AnalysisResponse;
+import com.resume.analyzer.model.JobProfile;
+import com.resume.analyzer.model.LLMAnalysis;
+import com.resume.analyzer.vector.DenseVector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Runs the /analyze steps as a dependency graph instead of a fixed sequence:
+ *
+ * <pre>
+ * resume_text ──► resume_skills ──┐
+ *      │                          ├─► skill_match ──► ats_score ──┐
+ *      │          job_skills ─────┘        │                      ├─► llm_analysis
+ *      └────────► embeddings ──► semantic_score ──► match_score ─┘
+ *                      └──────────────► store_resume
+ * </pre>
+ *
+ * resume_text and job_skills each produce an {@link AnalyzedDocument}; every later stage
+ * reads those instead of processing the raw text again.
+ *
+ * Job-side stages start immediately, in parallel with resume extraction, so end-to-end
+ * latency is bounded by the slowest chain rather than the sum of all steps. For a
+ * registered {@link JobProfile} the job-side results are taken from the profile instead.
+ * Resumes analyzed with embeddings are added to the {@link ResumeStore} for later job
+ * matching.
+ *
+ * The {@link AnalysisMode} decides which branches exist at all: {@code fast} builds only
+ * the skill and ATS stages, {@code semantic} adds the embeddings branch and store_resume,
+ * and only {@code full} builds a prompt and calls the model.
+ */
+@Service
+public class AnalysisPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisPipeline.class);
+
+    @Autowired
+    private SkillsService skillsService;
+
+    @Autowired
+    private DocumentAnalyzer documentAnalyzer;
+
+    @Autowired
+    private ATSService atsService;
+
+    @Autowired
+    private LLMAnalyzerService llmAnalyzerService;
+
+    @Autowired
+    private EmbeddingBatcher embeddingBatcher;
+
+    @Autowired
+    private ResumeStore resumeStore;
+
+    @Autowired
+    private AnalysisMetrics metrics;
+
+    @Autowired
+    @Qualifier("analysisExecutor")
+    private ExecutorService analysisExecutor;
+
+    public AnalysisResponse analyze(String resumeName, TextSource resumeTextSource, String jobDescription) {
+        return StageGraph.await(run(resumeName, resumeTextSource, jobDescription, null, AnalysisMode.FULL,
+            UpstreamScheduler.Priority.INTERACTIVE, null));
+    }
+
+    /**
+     * Analyzes against a registered job, reusing its precomputed skills and embedding.
+     */
+    public AnalysisResponse analyze(String resumeName, TextSource resumeTextSource, JobProfile job) {
+        return StageGraph.await(run(resumeName, resumeTextSource, job.getDescription(), job, AnalysisMode.FULL,
+            UpstreamScheduler.Priority.INTERACTIVE, null));
+    }
+
+    /**
+     * Non-blocking {@link #analyze(String, TextSource, String)}: completes when the last
+     * stage does, without a thread waiting on the upstream calls in between. Only the
+     * stages {@code mode} needs are run; upstream calls are scheduled at {@code priority}.
+     */
+    public CompletableFuture<AnalysisResponse> analyzeAsync(
+            String resumeName,
+            TextSource resumeTextSource,
+            String jobDescription,
+            AnalysisMode mode,
+            UpstreamScheduler.Priority priority
+    ) {
+        return run(resumeName, resumeTextSource, jobDescription, null, mode, priority, null);
+    }
+
+    /**
+     * Like {@link #analyzeAsync(String, TextSource, String, AnalysisMode, UpstreamScheduler.Priority)},
+     * against a registered job.
+     */
+    public CompletableFuture<AnalysisResponse> analyzeAsync(
+            String resumeName,
+            TextSource resumeTextSource,
+            JobProfile job,
+            AnalysisMode mode,
+            UpstreamScheduler.Priority priority
+    ) {
+        return run(resumeName, resumeTextSource, job.getDescription(), job, mode, priority, null);
+    }
+
+    /**
+     * Streaming variant: {@code listener} gets the scores as soon as they are ready and then
+     * each LLM analysis section as the model writes it. {@code job} may be null, in which
+     * case {@code jobDescription} is analyzed for this request only.
+     */
+    public CompletableFuture<AnalysisResponse> analyzeStreaming(
+            String resumeName,
+            TextSource resumeTextSource,
+            String jobDescription,
+            JobProfile job,
+            AnalysisMode mode,
+            AnalysisListener listener
+    ) {
+        return run(resumeName, resumeTextSource, job != null ? job.getDescription() : jobDescription, job, mode,
+            UpstreamScheduler.Priority.INTERACTIVE, listener);
+    }
+
+    private CompletableFuture<AnalysisResponse> run(
+            String resumeName,
+            TextSource resumeTextSource,
+            String jobDescription,
+            JobProfile job,
+            AnalysisMode mode,
+            UpstreamScheduler.Priority priority,
+            AnalysisListener listener
+    ) {
+        StageGraph graph = new StageGraph(analysisExecutor, metrics);
+
+        // The resume is analyzed (normalized, tokenized, skills and ATS checks) while it is
+        // being extracted, so later stages only read the document
+        AnalyzedDocument.Builder resumeBuilder = documentAnalyzer.newBuilder();
+        CompletableFuture<AnalyzedDocument> resumeDocument = graph.stage("resume_text", () -> {
+            String text = resumeTextSource.extract(resumeBuilder);
+            if (resumeBuilder.length() == 0 && !text.isEmpty()) {
+                // Source ignored the sink
+                resumeBuilder.write(text, 0, text.length());
+            }
+            AnalyzedDocument document = resumeBuilder.finish();
+            logger.info("✅ Extracted {} characters from resume", text.length());
+            return document;
+        });
+
+        CompletableFuture<Set<String>> resumeSkills = graph.stage("resume_skills", resumeDocument, AnalyzedDocument::skills);
+        CompletableFuture<AnalyzedDocument> jobDocument = job != null
+            ? CompletableFuture.completedFuture(job.getDocument())
+            : graph.stage("job_skills", () -> documentAnalyzer.analyze(jobDescription));
+        CompletableFuture<Set<String>> jobSkills = jobDocument.thenApply(AnalyzedDocument::skills);
+
+        CompletableFuture<SkillMatch> skillMatch = graph.stage("skill_match", resumeSkills, jobSkills, (resumeSet, jobSet) -> {
+            SkillMatch match = new SkillMatch(resumeSet, jobSet);
+            logger.info("📊 Skills - Matched: {}, Missing: {}", match.matched.size(), match.missing.size());
+            return match;
+        });
+
+        CompletableFuture<List<DenseVector>> embeddings;
+        CompletableFuture<Double> semanticScore;
+        if (mode.includesEmbeddings() && embeddingBatcher.isAvailable()) {
+            // Both texts go out in one embeddings call, coalesced with other in-flight analyses
+            // (or are embedded locally); a registered job's embedding is reused and only the
+            // resume is embedded
+            DenseVector jobEmbedding = job != null ? job.getEmbedding() : null;
+            embeddings = graph.asyncStage("embeddings", resumeDocument, jobDocument,
+                (resume, jobDoc) -> jobEmbedding != null
+                    ? embeddingBatcher.embed(List.of(resume.text()), priority)
+                        .thenApply(vectors -> vectors == null ? null : Arrays.asList(vectors.get(0), jobEmbedding))
+                    : embeddingBatcher.embed(List.of(resume.text(), jobDoc.text()), priority));
+            semanticScore = graph.stage("semantic_score", embeddings, vectors -> {
+                if (vectors == null || vectors.get(0) == null || vectors.get(1) == null) {
+                    return 0.0;
+                }
+                double score = skillsService.cosineSimilarity(vectors.get(0), vectors.get(1)) * 100;
+                logger.info("🔍 Semantic similarity: {}", score);
+                return score;
+            });
+        } else {
+            embeddings = CompletableFuture.completedFuture(null);
+            semanticScore = CompletableFuture.completedFuture(0.0);
+        }
+
+        CompletableFuture<String> resumeId = resumeDocument.thenApply(document -> ContentHash.sha256(document.text()).substring(0, 16));
+
+        // Fast analyses skip the store: their resumes would have no vector for semantic matching
+        CompletableFuture<Void> storeResume;
+        if (mode.includesEmbeddings()) {
+            // Indexing failures must never fail the analysis itself
+            storeResume = graph.stage("store_resume", resumeDocument, embeddings, (document, vectors) -> {
+                try {
+                    resumeStore.add(resumeId.join(), resumeName, document, vectors != null ? vectors.get(0) : null);
+                } catch (RuntimeException e) {
+                    logger.warn("⚠️ Failed to store resume for matching", e);
+                }
+                return null;
+            });
+        } else {
+            storeResume = CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Map<String, Double>> atsScore = graph.stage("ats_score", resumeDocument, skillMatch,
+            (resume, match) -> atsService.calculateAtsScore(resume, match.matchedList, match.missingList));
+
+        CompletableFuture<Double> baseMatchScore = mode.includesEmbeddings()
+            ? graph.stage("match_score", skillMatch, semanticScore, (match, semantic) -> match.keywordScore * 0.6 + semantic * 0.4)
+            : skillMatch.thenApply(match -> match.keywordScore);
+
+        // Every stage the response reads is upstream of match_score or ats_score (or is
+        // store_resume, combined in last), so these joins never block
+        Function<LLMAnalysis, AnalysisResponse> response = analysis -> {
+            SkillMatch match = skillMatch.join();
+            double finalMatchScore = Math.round(baseMatchScore.join() * 10.0) / 10.0;
+
+            return AnalysisResponse.builder()
+                .mode(mode.name().toLowerCase())
+                .resumeId(resumeId.join())
+                .matchScore(finalMatchScore)
+                .keywordScore(Math.round(match.keywordScore * 10.0) / 10.0)
+                .semanticScore(mode.includesEmbeddings() ? Math.round(semanticScore.join() * 10.0) / 10.0 : null)
+                .matchedSkills(match.matchedList)
+                .missingSkills(match.missingList)
+                .totalResumeSkills(match.resumeSkills.size())
+                .totalJobSkills(match.jobSkills.size())
+                .improvementAdvice(mode.includesEmbeddings() ? generateImprovementAdvice(match.matchedList, match.missingList) : null)
+                .atsScore(atsScore.join())
+                .llmAnalysis(analysis)
+                .scoreReasoning(analysis != null ? analysis.getMatchScoreReasoning() : null)
+                .stageTimings(graph.timings())
+                .build();
+        };
+
+        CompletableFuture<Double> scored = baseMatchScore.thenCombine(atsScore, (score, ats) -> score);
+        if (listener != null) {
+            // Deterministic scores go out before the LLM call starts
+            scored = scored.thenApply(score -> {
+                listener.onScores(response.apply(null));
+                return score;
+            });
+        }
+
+        CompletableFuture<LLMAnalysis> llmAnalysis = mode.includesLlm()
+            ? graph.asyncStage("llm_analysis", scored, atsScore, (score, ats) -> listener != null
+                ? llmAnalyzerService.streamWithContext(
+                    resumeDocument.join(), jobDocument.join(), score,
+                    skillMatch.join().matchedList, skillMatch.join().missingList, ats, listener::onSection)
+                : llmAnalyzerService.analyzeWithContext(
+                    resumeDocument.join(), jobDocument.join(), score,
+                    skillMatch.join().matchedList, skillMatch.join().missingList, ats, priority
+                ))
+            : scored.thenApply(score -> null);
+
+        return llmAnalysis.thenCombine(storeResume, (analysis, stored) -> response.apply(analysis));
+    }
+
+    private String generateImprovementAdvice(List<String> matched, List<String> missing) {
+        StringBuilder advice = new StringBuilder();
+
+        if (missing.isEmpty()) {
+            advice.append("✅ Excellent! Your resume covers all key skills from the job description.\n\n");
+            advice.append("Focus on:\n");
+            advice.append("- Adding quantifiable achievements\n");
+            advice.append("- Highlighting relevant projects\n");
+            advice.append("- Ensuring ATS-friendly formatting\n");
+        } else {
+            advice.append("To improve your match score:\n\n");
+            advice.append("1. Add these missing skills if you have them:\n   ");
+            advice.append(String.join(", ", missing.subList(0, Math.min(5, missing.size()))));
+            advice.append("\n\n");
+            advice.append("2. Strengthen your matched skills:\n   ");
+            advice.append(String.join(", ", matched.subList(0, Math.min(5, matched.size()))));
+            advice.append("\n\n");
+            advice.append("3. Consider taking courses or building projects in missing areas\n");
+        }
+
+        return advice.toString();
+    }
+
+    private final class SkillMatch {
+        final Set<String> resumeSkills;
+        final Set<String> jobSkills;
+        final Set<String> matched;
+        final Set<String> missing;
+        final List<String> matchedList;
+        final List<String> missingList;
+        final double keywordScore;
+
+        SkillMatch(Set<String> resumeSkills, Set<String> jobSkills) {
+            this.resumeSkills = resumeSkills;
+            this.jobSkills = jobSkills;
+            this.matched = new HashSet<>(resumeSkills);
+            matched.retainAll(jobSkills);
+            this.missing = new HashSet<>(jobSkills);
+            missing.removeAll(resumeSkills);
+            this.matchedList = new ArrayList<>(matched);
+            this.missingList = new ArrayList<>(missing);
+            this.keywordScore = skillsService.calculateKeywordScore(matched, jobSkills);
+        }
+    }
+}
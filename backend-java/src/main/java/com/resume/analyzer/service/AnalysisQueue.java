@@ -0,0 +1,451 @@
+package com.resume.analyzer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resume.analyzer.exception.AnalysisQueueFullException;
+import com.resume.analyzer.exception.AnalysisTaskNotFoundException;
+import com.resume.analyzer.exception.GlobalExceptionHandler;
+import com.resume.analyzer.model.AnalysisRequest;
+import com.resume.analyzer.model.AnalysisResponse;
+import com.resume.analyzer.model.AnalysisTask;
+import com.resume.analyzer.queue.DiskTaskStore;
+import com.resume.analyzer.queue.MemoryTaskStore;
+import com.resume.analyzer.queue.TaskStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dns;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.Proxy;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@code POST /analyze?async=true} submissions in the background. The upload is put
+ * in the {@link TaskStore} and the caller gets an id straight away; results are read
+ * with {@code GET /analyze/{id}} and, if a callback URL was given, posted there.
+ *
+ * At most {@code analysis.queue.workers} analyses run at once, the rest wait in
+ * submission order; once {@code analysis.queue.max-queued} are waiting, new submissions
+ * are rejected so a burst can't grow the backlog without bound. Upstream calls are
+ * scheduled at batch priority since nobody holds a connection open for them.
+ *
+ * With {@code analysis.queue.store-path} set, tasks are kept in a {@link DiskTaskStore}:
+ * analyses that were queued or running at shutdown are started again on the next start,
+ * and finished results stay readable until they expire.
+ *
+ * Callback URLs must name a host in {@code analysis.queue.callback.allowed-hosts}; with
+ * no allowlist, any host that does not resolve to a loopback, private or link-local
+ * address is accepted. That check is made at submission and again on every connection a
+ * callback opens, against the addresses it connects to, so a host that resolves
+ * elsewhere by the time the callback is sent (DNS rebinding) is refused. Callbacks don't
+ * follow redirects.
+ */
+@Service
+public class AnalysisQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisQueue.class);
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    @Autowired
+    private AnalysisPipeline analysisPipeline;
+
+    @Autowired
+    private PDFService pdfService;
+
+    @Autowired
+    private JobRegistry jobRegistry;
+
+    @Autowired
+    private AnalysisMetrics metrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("analysisExecutor")
+    private ExecutorService analysisExecutor;
+
+    @Value("${analysis.queue.workers}")
+    private int workers;
+
+    @Value("${analysis.queue.max-queued}")
+    private int maxQueued;
+
+    @Value("${analysis.queue.store-path:}")
+    private String storePath;
+
+    @Value("${analysis.queue.retention-minutes}")
+    private long retentionMinutes;
+
+    @Value("${analysis.queue.callback.timeout-ms}")
+    private long callbackTimeoutMs;
+
+    @Value("${analysis.queue.callback.max-attempts}")
+    private int callbackMaxAttempts;
+
+    @Value("${analysis.queue.callback.allowed-hosts:}")
+    private Set<String> callbackAllowedHosts;
+
+    private TaskStore store;
+    private OkHttpClient callbackClient;
+    private final ArrayDeque<String> waiting = new ArrayDeque<>();
+    // Submissions past the queue-full check that are still copying their upload
+    private int reserved;
+    private int running;
+
+    @PostConstruct
+    public void init() throws IOException {
+        store = storePath == null || storePath.isBlank()
+            ? new MemoryTaskStore()
+            : new DiskTaskStore(Path.of(storePath), objectMapper);
+        callbackClient = new OkHttpClient.Builder()
+            .connectTimeout(callbackTimeoutMs, TimeUnit.MILLISECONDS)
+            .callTimeout(callbackTimeoutMs, TimeUnit.MILLISECONDS)
+            .proxy(Proxy.NO_PROXY)
+            .followRedirects(false)
+            .followSslRedirects(false)
+            .dns(this::resolveCallbackHost)
+            .build();
+        metrics.gauge("analysis.queue.waiting", waiting, queue -> {
+            synchronized (this) {
+                return queue.size();
+            }
+        });
+
+        // Work interrupted by the last shutdown starts over
+        int recovered = 0;
+        for (AnalysisTask task : store.tasks()) {
+            if (!isFinished(task)) {
+                task.setStatus(AnalysisTask.QUEUED);
+                task.setStartedAt(null);
+                store.update(task);
+                synchronized (this) {
+                    waiting.add(task.getId());
+                }
+                recovered++;
+            }
+        }
+        if (recovered > 0) {
+            logger.info("♻️ Resuming {} queued analyses", recovered);
+        }
+        logger.info("✅ Analysis queue: {} workers, up to {} waiting, {} store", workers, maxQueued,
+            store instanceof DiskTaskStore ? "disk" : "memory");
+        drain();
+    }
+
+    /**
+     * Queues an analysis of {@code resume} against exactly one of {@code jobDescription} or
+     * {@code jobId}. The upload is copied into the store before this returns.
+     */
+    public AnalysisTask submit(
+            MultipartFile resume,
+            String jobDescription,
+            String jobId,
+            AnalysisMode mode,
+            String callbackUrl
+    ) {
+        if (jobId != null) {
+            // Fail now rather than in the background
+            jobRegistry.get(jobId);
+        }
+        if (callbackUrl != null) {
+            validateCallbackUrl(callbackUrl);
+        }
+
+        synchronized (this) {
+            if (waiting.size() + reserved >= maxQueued) {
+                throw new AnalysisQueueFullException(waiting.size() + reserved);
+            }
+            reserved++;
+        }
+
+        String id = UUID.randomUUID().toString().replace("-", "");
+        AnalysisRequest request = AnalysisRequest.builder()
+            .id(id)
+            .resumeFilename(resume.getOriginalFilename())
+            .jobDescription(jobDescription)
+            .jobId(jobId)
+            .mode(mode.name())
+            .callbackUrl(callbackUrl)
+            .build();
+        AnalysisTask task = AnalysisTask.builder()
+            .id(id)
+            .status(AnalysisTask.QUEUED)
+            .resumeFilename(resume.getOriginalFilename())
+            .submittedAt(System.currentTimeMillis())
+            .build();
+
+        boolean created = false;
+        try (InputStream upload = resume.getInputStream()) {
+            store.create(request, task, upload);
+            created = true;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to queue analysis", e);
+        } finally {
+            synchronized (this) {
+                reserved--;
+                if (created) {
+                    waiting.add(id);
+                }
+            }
+        }
+        logger.info("📥 Queued analysis {} for {}", id, resume.getOriginalFilename());
+        drain();
+        return task;
+    }
+
+    public AnalysisTask get(String id) {
+        AnalysisTask task = store.get(id);
+        if (task == null) {
+            throw new AnalysisTaskNotFoundException(id);
+        }
+        return task;
+    }
+
+    /**
+     * Drops finished analyses older than {@code analysis.queue.retention-minutes}.
+     */
+    @Scheduled(fixedDelayString = "${analysis.queue.cleanup-interval-ms}")
+    public void expire() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        int expired = 0;
+        for (AnalysisTask task : store.tasks()) {
+            if (isFinished(task) && task.getCompletedAt() < cutoff) {
+                store.delete(task.getId());
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            logger.info("🧹 Expired {} finished analyses", expired);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        store.close();
+    }
+
+    // Starts waiting analyses while workers are free
+    private void drain() {
+        while (true) {
+            String id;
+            synchronized (this) {
+                if (running >= workers || waiting.isEmpty()) {
+                    return;
+                }
+                id = waiting.poll();
+                running++;
+            }
+            // Spooling the upload is file I/O; keep it off the thread that submitted or
+            // finished the previous analysis
+            try {
+                analysisExecutor.execute(() -> start(id));
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    running--;
+                    waiting.addFirst(id);
+                }
+                logger.warn("⚠️ Analysis executor rejected queued analysis {}", id);
+                return;
+            }
+        }
+    }
+
+    private void start(String id) {
+        AnalysisRequest request = store.request(id);
+        AnalysisTask task = store.get(id);
+        CompletableFuture<AnalysisResponse> analysis;
+        try {
+            task.setStatus(AnalysisTask.RUNNING);
+            task.setStartedAt(System.currentTimeMillis());
+            store.update(task);
+            analysis = analyze(request);
+        } catch (RuntimeException | IOException e) {
+            analysis = CompletableFuture.failedFuture(e);
+        }
+        analysis.whenComplete((response, error) -> finish(request, task, response, error));
+    }
+
+    private CompletableFuture<AnalysisResponse> analyze(AnalysisRequest request) throws IOException {
+        String filename = request.getResumeFilename();
+        PDFService.SpooledFile spooled;
+        try (InputStream upload = store.openUpload(request.getId())) {
+            spooled = pdfService.spool(upload);
+        }
+        TextSource source = sink -> {
+            try (spooled) {
+                return pdfService.extractText(filename, spooled, sink);
+            }
+        };
+
+        try {
+            // Requests stored before modes existed ran everything
+            AnalysisMode mode = request.getMode() != null ? AnalysisMode.parse(request.getMode()) : AnalysisMode.FULL;
+            CompletableFuture<AnalysisResponse> analysis = request.getJobId() != null
+                ? analysisPipeline.analyzeAsync(filename, source, jobRegistry.get(request.getJobId()), mode,
+                    UpstreamScheduler.Priority.BATCH)
+                : analysisPipeline.analyzeAsync(filename, source, request.getJobDescription(), mode,
+                    UpstreamScheduler.Priority.BATCH);
+            return metrics.track(spooled.getSize(), analysis);
+        } catch (RuntimeException e) {
+            spooled.close();
+            throw e;
+        }
+    }
+
+    private void finish(AnalysisRequest request, AnalysisTask task, AnalysisResponse response, Throwable error) {
+        task.setCompletedAt(System.currentTimeMillis());
+        if (error == null) {
+            response.setResumeFilename(request.getResumeFilename());
+            task.setResult(response);
+            task.setStatus(AnalysisTask.COMPLETED);
+            logger.info("✅ Analysis {} complete - Match Score: {}/100", task.getId(), response.getMatchScore());
+        } else {
+            task.setError(GlobalExceptionHandler.toErrorResponse(error));
+            task.setStatus(AnalysisTask.FAILED);
+            logger.error("❌ Analysis {} failed", task.getId(), error);
+        }
+
+        try {
+            store.update(task);
+            store.deleteUpload(task.getId());
+        } catch (RuntimeException e) {
+            logger.error("❌ Failed to store result of analysis {}", task.getId(), e);
+        }
+        synchronized (this) {
+            running--;
+        }
+        drain();
+
+        if (request.getCallbackUrl() != null) {
+            postCallback(request.getCallbackUrl(), task, 1);
+        }
+    }
+
+    private void postCallback(String url, AnalysisTask task, int attempt) {
+        Request callback;
+        try {
+            callback = new Request.Builder()
+                .url(url)
+                .post(RequestBody.create(objectMapper.writeValueAsBytes(task), JSON))
+                .build();
+        } catch (JsonProcessingException e) {
+            logger.error("❌ Failed to serialize analysis {} for its callback", task.getId(), e);
+            return;
+        }
+
+        callbackClient.newCall(callback).enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    if (response.code() < 300) {
+                        logger.info("📤 Posted analysis {} to its callback", task.getId());
+                        return;
+                    }
+                    retryCallback(url, task, attempt, "HTTP " + response.code());
+                }
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                retryCallback(url, task, attempt, e.getMessage());
+            }
+        });
+    }
+
+    private void retryCallback(String url, AnalysisTask task, int attempt, String reason) {
+        if (attempt >= callbackMaxAttempts) {
+            logger.warn("⚠️ Giving up on callback for analysis {} after {} attempts: {}", task.getId(), attempt, reason);
+            return;
+        }
+        // 1s, 2s, 4s, ...
+        long delayMs = 1000L << (attempt - 1);
+        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS)
+            .execute(() -> postCallback(url, task, attempt + 1));
+    }
+
+    // The callback client's resolver, so the addresses checked are the ones connected to
+    private List<InetAddress> resolveCallbackHost(String host) throws UnknownHostException {
+        List<InetAddress> addresses = Dns.SYSTEM.lookup(host);
+        if (callbackAllowedHosts.isEmpty()) {
+            for (InetAddress address : addresses) {
+                if (isInternal(address)) {
+                    throw new UnknownHostException("Callback host " + host + " resolves to an internal address");
+                }
+            }
+        }
+        return addresses;
+    }
+
+    private void validateCallbackUrl(String callbackUrl) {
+        URI uri;
+        try {
+            uri = URI.create(callbackUrl);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("callback_url is not a valid URL");
+        }
+        if (!"http".equals(uri.getScheme()) && !"https".equals(uri.getScheme()) || uri.getHost() == null) {
+            throw new IllegalArgumentException("callback_url must be an absolute http(s) URL");
+        }
+        String host = uri.getHost();
+        if (!callbackAllowedHosts.isEmpty()) {
+            if (!callbackAllowedHosts.contains(host)) {
+                throw new IllegalArgumentException("callback_url host " + host + " is not allowed");
+            }
+            return;
+        }
+        // Without an allowlist, callbacks must not reach this machine or the internal network
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("callback_url host " + host + " cannot be resolved");
+        }
+        for (InetAddress address : addresses) {
+            if (isInternal(address)) {
+                throw new IllegalArgumentException("callback_url host " + host + " resolves to an internal address");
+            }
+        }
+    }
+
+    private static boolean isInternal(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isAnyLocalAddress() || address.isSiteLocalAddress()
+                || address.isLinkLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        // IPv6 unique local addresses (fc00::/7), the successor of site-local ones
+        return address instanceof Inet6Address && (address.getAddress()[0] & 0xFE) == 0xFC;
+    }
+
+    private static boolean isFinished(AnalysisTask task) {
+        return AnalysisTask.COMPLETED.equals(task.getStatus()) || AnalysisTask.FAILED.equals(task.getStatus());
+    }
+}
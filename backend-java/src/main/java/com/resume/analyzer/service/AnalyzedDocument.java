@@ -0,0 +1,352 @@
+package com.resume.analyzer.service;
+
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * One resume or job description after a single analysis pass: whitespace-normalized text,
+ * token and line offsets, section headings and every skill mention with its position.
+ *
+ * Built by {@link DocumentAnalyzer} while the text is being extracted, then shared
+ * read-only by the skill matching, ATS and prompt-building stages so none of them has to
+ * lowercase, split or rescan the text again. All offsets refer to {@link #text()}.
+ */
+public final class AnalyzedDocument {
+
+    // Normalized heading line (lowercased, without trailing ":") -> section name
+    private static final Map<String, String> HEADINGS = new HashMap<>();
+
+    static {
+        heading("summary", "summary", "professional summary", "profile", "professional profile",
+            "objective", "career objective", "about me");
+        heading("experience", "experience", "work experience", "professional experience",
+            "employment", "employment history", "work history", "career history");
+        heading("education", "education", "academic background", "education and training");
+        heading("skills", "skills", "technical skills", "core competencies", "key skills",
+            "skills and abilities", "technologies");
+        heading("projects", "projects", "personal projects", "key projects");
+        heading("certifications", "certifications", "certificates", "licenses and certifications",
+            "licenses & certifications");
+        heading("awards", "awards", "honors", "honors and awards", "achievements");
+        heading("publications", "publications");
+        heading("languages", "languages");
+        heading("volunteering", "volunteering", "volunteer experience");
+        heading("contact", "contact", "contact information");
+        // Job description headings
+        heading("responsibilities", "responsibilities", "key responsibilities", "what you'll do",
+            "what you will do", "the role", "role overview", "your role");
+        heading("requirements", "requirements", "qualifications", "minimum qualifications",
+            "required qualifications", "preferred qualifications", "required skills", "preferred skills",
+            "must have", "nice to have", "what you'll need",
+            "what we're looking for", "who you are");
+        heading("benefits", "benefits", "perks", "perks and benefits", "what we offer", "compensation");
+        heading("company", "about us", "about the company", "who we are", "our mission");
+    }
+
+    private static final int MAX_HEADING_LENGTH = 40;
+
+    private final String text;
+    private final int[] tokenStarts;
+    private final int[] tokenEnds;
+    private final int[] lineStarts;
+    private final List<Section> sections;
+    private final List<Mention> mentions;
+    private final Set<String> skills;
+    private final AtsScanner ats;
+
+    private AnalyzedDocument(Builder builder) {
+        this.text = builder.text.toString();
+        this.tokenStarts = Arrays.copyOf(builder.tokenStarts, builder.tokenCount);
+        this.tokenEnds = Arrays.copyOf(builder.tokenEnds, builder.tokenCount);
+        this.lineStarts = Arrays.copyOf(builder.lineStarts, builder.lineCount);
+        this.sections = Collections.unmodifiableList(builder.sections);
+        this.mentions = Collections.unmodifiableList(builder.skills.mentions());
+        Set<String> found = new LinkedHashSet<>();
+        for (Mention mention : mentions) {
+            found.add(mention.getSkill());
+        }
+        this.skills = Collections.unmodifiableSet(found);
+        this.ats = builder.ats;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    public int length() {
+        return text.length();
+    }
+
+    public boolean isEmpty() {
+        return text.isEmpty();
+    }
+
+    public int tokenCount() {
+        return tokenStarts.length;
+    }
+
+    public int tokenStart(int token) {
+        return tokenStarts[token];
+    }
+
+    public int tokenEnd(int token) {
+        return tokenEnds[token];
+    }
+
+    public int lineCount() {
+        return lineStarts.length;
+    }
+
+    public int lineStart(int line) {
+        return lineStarts[line];
+    }
+
+    /**
+     * End of the line, excluding its line break.
+     */
+    public int lineEnd(int line) {
+        return line + 1 < lineStarts.length ? lineStarts[line + 1] - 1 : text.length();
+    }
+
+    /**
+     * Index of the line containing {@code offset}.
+     */
+    public int lineOf(int offset) {
+        int line = Arrays.binarySearch(lineStarts, offset);
+        return line >= 0 ? line : -line - 2;
+    }
+
+    /**
+     * Sections introduced by a recognized heading line, in document order. Text before the
+     * first heading (usually name and contact details) belongs to no section.
+     */
+    public List<Section> sections() {
+        return sections;
+    }
+
+    /**
+     * Canonical skills mentioned in the document, in order of first mention.
+     */
+    public Set<String> skills() {
+        return skills;
+    }
+
+    /**
+     * Every skill mention, ordered by position.
+     */
+    public List<Mention> mentions() {
+        return mentions;
+    }
+
+    AtsScanner ats() {
+        return ats;
+    }
+
+    private static void heading(String section, String... variants) {
+        for (String variant : variants) {
+            HEADINGS.put(variant, section);
+        }
+    }
+
+    public static final class Section {
+        private final String name;
+        private final int start;
+        private final int end;
+
+        Section(String name, int start, int end) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Start of the heading line.
+         */
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+    }
+
+    public static final class Mention {
+        private final String skill;
+        private final int start;
+        private final int end;
+
+        Mention(String skill, int start, int end) {
+            this.skill = skill;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getSkill() {
+            return skill;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+    }
+
+    /**
+     * Sink that analyzes text as it is written. Runs of whitespace collapse to a single
+     * space, or a single line break if they contain one, and control characters are
+     * dropped. The ATS checks see the raw characters so their results don't depend on the
+     * normalization. Not thread-safe; call {@link #finish()} once at the end.
+     */
+    public static final class Builder extends Writer {
+
+        private static final int NONE = 0;
+        private static final int SPACE = 1;
+        private static final int NEWLINE = 2;
+
+        private final SkillTaxonomy.Scanner skills;
+        private final AtsScanner ats;
+        private final StringBuilder text = new StringBuilder();
+        private int[] tokenStarts = new int[256];
+        private int[] tokenEnds = new int[256];
+        private int tokenCount;
+        private int[] lineStarts = new int[64];
+        private int lineCount = 1;
+        private final List<Section> sections = new ArrayList<>();
+        private int pendingBreak = NONE;
+        private boolean inWord;
+        private long written;
+
+        Builder(SkillTaxonomy.Scanner skills, AtsScanner ats) {
+            this.skills = skills;
+            this.ats = ats;
+        }
+
+        public void accept(char c) {
+            written++;
+            ats.accept(c);
+            if (c == '\n' || c == '\r') {
+                pendingBreak = NEWLINE;
+                return;
+            }
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                pendingBreak = Math.max(pendingBreak, SPACE);
+                return;
+            }
+            if (Character.isISOControl(c)) {
+                return;
+            }
+
+            if (pendingBreak != NONE && text.length() > 0) {
+                inWord = false;
+                if (pendingBreak == NEWLINE) {
+                    endLine();
+                    emit('\n');
+                    if (lineCount == lineStarts.length) {
+                        lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+                    }
+                    lineStarts[lineCount++] = text.length();
+                } else {
+                    emit(' ');
+                }
+            }
+            pendingBreak = NONE;
+
+            int offset = text.length();
+            emit(c);
+            if (Character.isLetterOrDigit(c)) {
+                if (inWord) {
+                    tokenEnds[tokenCount - 1] = offset + 1;
+                } else {
+                    addToken(offset);
+                    inWord = true;
+                }
+            } else {
+                addToken(offset);
+                inWord = false;
+            }
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                accept(buffer[i]);
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                accept(text.charAt(i));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        /**
+         * Number of raw characters written so far.
+         */
+        public long length() {
+            return written;
+        }
+
+        public AnalyzedDocument finish() {
+            endLine();
+            closeSection(text.length());
+            return new AnalyzedDocument(this);
+        }
+
+        private void emit(char c) {
+            text.append(c);
+            skills.accept(c);
+        }
+
+        private void addToken(int start) {
+            if (tokenCount == tokenStarts.length) {
+                tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+                tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+            }
+            tokenStarts[tokenCount] = start;
+            tokenEnds[tokenCount++] = start + 1;
+        }
+
+        // Checks whether the line just completed is a section heading
+        private void endLine() {
+            int start = lineStarts[lineCount - 1];
+            int end = text.length();
+            if (end - start > MAX_HEADING_LENGTH || end == start) {
+                return;
+            }
+            String line = text.substring(start, end).toLowerCase().trim();
+            while (!line.isEmpty() && !Character.isLetter(line.charAt(line.length() - 1))) {
+                line = line.substring(0, line.length() - 1).trim();
+            }
+            String section = HEADINGS.get(line);
+            if (section == null) {
+                return;
+            }
+            closeSection(start);
+            sections.add(new Section(section, start, -1));
+        }
+
+        private void closeSection(int end) {
+            int last = sections.size() - 1;
+            if (last >= 0 && sections.get(last).end < 0) {
+                sections.set(last, new Section(sections.get(last).name, sections.get(last).start, end));
+            }
+        }
+    }
+}
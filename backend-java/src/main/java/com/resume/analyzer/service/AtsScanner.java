@@ -0,0 +1,244 @@
+package com.resume.analyzer.service;
+
+import java.io.Writer;
+import java.util.BitSet;
+
+/**
+ * Single-pass scanner for the ATS format and section checks.
+ *
+ * Text is written in (all at once or as it is extracted) and every check advances on the
+ * same character: email, phone and date detection run as small state machines whose
+ * state fits in an int, and section keywords go through a substring automaton on the
+ * lowercased character. Each check accepts exactly what the former regex / {@code contains}
+ * check found, but in linear time with no backtracking.
+ *
+ * Not thread-safe; one scanner per text.
+ */
+public final class AtsScanner extends Writer {
+
+    // Phone: \+?\d{1,3}?[-.\s]?\(?\d{1,4}\)?[-.\s]?\d{1,4}[-.\s]?\d{1,9}. A match exists iff
+    // D S? (? D{1,4} )? S? D{1,4} S? D does, since the leading "+" is optional and the outer
+    // digit groups can be cut to one digit. Bits mark the positions reached in that pattern.
+    private static final int P_FIRST = 1;         // after the first digit
+    private static final int P_SEP1 = 1 << 1;     // after separator
+    private static final int P_OPEN = 1 << 2;     // after "("
+    private static final int P_AREA = 3;          // bits 3-6: 1-4 area digits
+    private static final int P_CLOSE = 1 << 7;    // after ")"
+    private static final int P_SEP2 = 1 << 8;
+    private static final int P_LOCAL = 9;         // bits 9-12: 1-4 digits
+    private static final int P_SEP3 = 1 << 13;
+
+    // Email: [a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\.[a-zA-Z]{2,}
+    private static final int E_LOCAL = 1;         // after at least one local-part character
+    private static final int E_AT = 1 << 1;
+    private static final int E_DOMAIN = 1 << 2;   // after at least one domain character
+    private static final int E_DOT = 1 << 3;      // after a "." preceded by a domain character
+    private static final int E_TLD1 = 1 << 4;     // after one letter following that "."
+
+    // Date: (Jan|...|December)\s+\d{4}, case-sensitive and without word boundaries
+    private static final String[] MONTHS = {
+        "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec",
+        "January", "February", "March", "April", "June", "July", "August", "September",
+        "October", "November", "December"
+    };
+    private static final int RECENT = 16;
+
+    private final SkillMatcher.Scanner sections;
+    private final char[] recent = new char[RECENT];
+    private long position;
+
+    private int phone;
+    private int email;
+    private boolean afterMonth;
+    private int dateDigits;
+
+    private boolean hasPhone;
+    private boolean hasEmail;
+    private boolean hasDate;
+
+    AtsScanner(SkillMatcher sectionMatcher) {
+        this.sections = sectionMatcher.scanner();
+    }
+
+    public void accept(char c) {
+        boolean digit = c >= '0' && c <= '9';
+        if (!hasPhone) {
+            hasPhone = advancePhone(c, digit);
+        }
+        if (!hasEmail) {
+            hasEmail = advanceEmail(c);
+        }
+        if (!hasDate) {
+            hasDate = advanceDate(c, digit);
+        }
+        sections.accept(Character.toLowerCase(c));
+        recent[(int) (position++ % RECENT)] = c;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            accept(buffer[i]);
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            accept(text.charAt(i));
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Number of characters written so far.
+     */
+    public long length() {
+        return position;
+    }
+
+    public boolean hasPhone() {
+        return hasPhone;
+    }
+
+    public boolean hasEmail() {
+        return hasEmail;
+    }
+
+    public boolean hasDate() {
+        return hasDate;
+    }
+
+    /**
+     * Ids (positions in the section list the scanner was built with) of every section
+     * keyword seen so far.
+     */
+    public BitSet sections() {
+        return sections.finish();
+    }
+
+    private boolean advancePhone(char c, boolean digit) {
+        int state = phone;
+        int next = 0;
+        if (digit) {
+            if ((state & (P_SEP3 | (1 << P_LOCAL) | (1 << (P_LOCAL + 1)) | (1 << (P_LOCAL + 2)) | (1 << (P_LOCAL + 3)))) != 0) {
+                return true;
+            }
+            // The previous digit group may continue or the next one may start
+            for (int k = 0; k < 3; k++) {
+                if ((state & (1 << (P_LOCAL + k))) != 0) {
+                    next |= 1 << (P_LOCAL + k + 1);
+                }
+                if ((state & (1 << (P_AREA + k))) != 0) {
+                    next |= 1 << (P_AREA + k + 1);
+                }
+            }
+            if ((state & (0xF << P_AREA | P_CLOSE | P_SEP2)) != 0) {
+                next |= 1 << P_LOCAL;
+            }
+            if ((state & (P_FIRST | P_SEP1 | P_OPEN)) != 0) {
+                next |= 1 << P_AREA;
+            }
+            next |= P_FIRST;
+        } else if (c == '-' || c == '.' || isRegexSpace(c)) {
+            if ((state & P_FIRST) != 0) {
+                next |= P_SEP1;
+            }
+            if ((state & (0xF << P_AREA | P_CLOSE)) != 0) {
+                next |= P_SEP2;
+            }
+            if ((state & (0xF << P_LOCAL)) != 0) {
+                next |= P_SEP3;
+            }
+        } else if (c == '(') {
+            if ((state & (P_FIRST | P_SEP1)) != 0) {
+                next |= P_OPEN;
+            }
+        } else if (c == ')') {
+            if ((state & (0xF << P_AREA)) != 0) {
+                next |= P_CLOSE;
+            }
+        }
+        phone = next;
+        return false;
+    }
+
+    private boolean advanceEmail(char c) {
+        int state = email;
+        boolean letter = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+        boolean alnum = letter || (c >= '0' && c <= '9');
+        boolean domain = alnum || c == '.' || c == '-';
+        int next = 0;
+
+        if ((state & E_TLD1) != 0 && letter) {
+            return true;
+        }
+        if (alnum || c == '.' || c == '_' || c == '%' || c == '+' || c == '-') {
+            next |= E_LOCAL;
+        }
+        if ((state & E_LOCAL) != 0 && c == '@') {
+            next |= E_AT;
+        }
+        if ((state & (E_AT | E_DOMAIN | E_DOT | E_TLD1)) != 0 && domain) {
+            next |= E_DOMAIN;
+        }
+        if ((state & (E_DOMAIN | E_DOT | E_TLD1)) != 0 && c == '.') {
+            next |= E_DOT;
+        }
+        if ((state & E_DOT) != 0 && letter) {
+            next |= E_TLD1;
+        }
+        email = next;
+        return false;
+    }
+
+    private boolean advanceDate(char c, boolean digit) {
+        if (isRegexSpace(c)) {
+            boolean previousSpace = position > 0 && isRegexSpace(previous(1));
+            afterMonth = previousSpace ? afterMonth && dateDigits == 0 : endsWithMonth();
+            dateDigits = 0;
+        } else if (digit && afterMonth) {
+            if (++dateDigits == 4) {
+                return true;
+            }
+        } else {
+            afterMonth = false;
+            dateDigits = 0;
+        }
+        return false;
+    }
+
+    private boolean endsWithMonth() {
+        for (String month : MONTHS) {
+            int length = month.length();
+            if (position < length) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < length && matches; i++) {
+                matches = previous(length - i) == month.charAt(i);
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Character written {@code back} positions before the current one (1 = the last one)
+    private char previous(int back) {
+        return recent[(int) ((position - back) % RECENT)];
+    }
+
+    // \s without UNICODE_CHARACTER_CLASS
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
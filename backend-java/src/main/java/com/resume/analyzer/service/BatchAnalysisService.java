@@ -0,0 +1,321 @@
+package com.resume.analyzer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resume.analyzer.exception.FileValidationException;
+import com.resume.analyzer.model.AnalysisResponse;
+import com.resume.analyzer.model.BatchEvent;
+import com.resume.analyzer.model.BatchResult;
+import com.resume.analyzer.model.JobProfile;
+import com.resume.analyzer.model.LLMAnalysis;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Scores many resumes against one job for {@code POST /analyze/batch}.
+ *
+ * Uploads (individual files or ZIP archives) are fed into the non-blocking analysis
+ * pipeline with at most {@code analysis.batch.parallelism} resumes in flight, which also
+ * throttles how fast archives are read. Each result is written to the NDJSON stream as
+ * soon as it completes. Only the top-K resumes by match score keep their text, and only
+ * those get an LLM analysis once every resume has been scored.
+ */
+@Service
+public class BatchAnalysisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchAnalysisService.class);
+
+    @Autowired
+    private AnalysisPipeline analysisPipeline;
+
+    @Autowired
+    private PDFService pdfService;
+
+    @Autowired
+    private LLMAnalyzerService llmAnalyzerService;
+
+    @Autowired
+    private DocumentAnalyzer documentAnalyzer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("analysisExecutor")
+    private ExecutorService analysisExecutor;
+
+    @Value("${analysis.batch.parallelism}")
+    private int parallelism;
+
+    @Value("${analysis.batch.max-resumes}")
+    private int maxResumes;
+
+    public void analyze(List<MultipartFile> uploads, JobProfile job, int topK, OutputStream out) throws IOException {
+        Batch batch = new Batch(job, topK, out);
+        logger.info("📦 Starting batch analysis against job {} (top {} get LLM analysis)", job.getId(), topK);
+
+        try {
+            for (MultipartFile upload : uploads) {
+                String filename = upload.getOriginalFilename();
+                if (filename != null && filename.toLowerCase().endsWith(".zip")) {
+                    submitArchive(batch, upload);
+                } else {
+                    batch.submit(filename, sink -> {
+                        pdfService.validateFile(upload);
+                        return pdfService.extractText(upload, sink);
+                    });
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch analysis interrupted", e);
+        }
+
+        batch.finish();
+    }
+
+    private void submitArchive(Batch batch, MultipartFile archive) throws IOException, InterruptedException {
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                String lower = name.toLowerCase();
+                if (entry.isDirectory() || name.startsWith("__MACOSX/")
+                        || !(lower.endsWith(".pdf") || lower.endsWith(".txt"))) {
+                    continue;
+                }
+
+                if (!batch.accepting()) {
+                    // Past the batch limit: record the skip without reading the entry
+                    batch.submit(name, null);
+                    continue;
+                }
+
+                // Entries are spooled to temp files so queued resumes don't sit in heap
+                PDFService.SpooledFile spooled;
+                try {
+                    spooled = pdfService.spool(zip);
+                } catch (FileValidationException e) {
+                    batch.submit(name, sink -> {
+                        throw e;
+                    });
+                    continue;
+                }
+                batch.submit(name, sink -> {
+                    try (spooled) {
+                        return pdfService.extractText(name, spooled, sink);
+                    }
+                });
+            }
+        }
+    }
+
+    private final class Batch {
+        final JobProfile job;
+        final int topK;
+        final OutputStream out;
+        final long startNanos = System.nanoTime();
+        final Semaphore permits = new Semaphore(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors() * 2);
+        final List<CompletableFuture<Void>> pending = new ArrayList<>();
+        final List<BatchResult> results = Collections.synchronizedList(new ArrayList<>());
+        // Min-heap on match score holding the current top-K candidates with their text
+        final PriorityQueue<Candidate> top = new PriorityQueue<>(Comparator.comparingDouble(c -> c.response.getMatchScore()));
+        final AtomicInteger failed = new AtomicInteger();
+        int submitted;
+
+        Batch(JobProfile job, int topK, OutputStream out) {
+            this.job = job;
+            this.topK = topK;
+            this.out = out;
+        }
+
+        boolean accepting() {
+            return submitted < maxResumes;
+        }
+
+        void submit(String filename, TextSource text) throws InterruptedException {
+            int index = submitted++;
+            if (index >= maxResumes) {
+                BatchResult skipped = BatchResult.builder()
+                    .index(index)
+                    .resumeFilename(filename)
+                    .error("Skipped: batch limit of " + maxResumes + " resumes reached")
+                    .build();
+                failed.incrementAndGet();
+                results.add(skipped);
+                write(BatchEvent.builder().type("result").result(skipped).build());
+                return;
+            }
+            permits.acquire();
+
+            AtomicReference<String> resumeText = new AtomicReference<>();
+            TextSource capturing = sink -> {
+                String extracted = text.extract(sink);
+                resumeText.set(extracted);
+                return extracted;
+            };
+
+            pending.add(analysisPipeline.analyzeAsync(filename, capturing, job, AnalysisMode.SEMANTIC, UpstreamScheduler.Priority.BATCH)
+                .handle((response, error) -> {
+                    permits.release();
+                    BatchResult result = error == null
+                        ? toResult(index, filename, response)
+                        : BatchResult.builder().index(index).resumeFilename(filename).error(message(error)).build();
+                    if (error != null) {
+                        failed.incrementAndGet();
+                    } else {
+                        offerCandidate(new Candidate(result, response, resumeText.get()));
+                    }
+                    results.add(result);
+                    write(BatchEvent.builder().type("result").result(result).build());
+                    return null;
+                }));
+        }
+
+        void offerCandidate(Candidate candidate) {
+            if (topK <= 0) {
+                return;
+            }
+            synchronized (top) {
+                top.add(candidate);
+                if (top.size() > topK) {
+                    top.poll();
+                }
+            }
+        }
+
+        void finish() {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+
+            List<Candidate> candidates;
+            synchronized (top) {
+                candidates = new ArrayList<>(top);
+            }
+            CompletableFuture.allOf(candidates.stream()
+                .map(this::analyzeWithLlm)
+                .toArray(CompletableFuture[]::new)).join();
+
+            List<BatchResult> ranking;
+            synchronized (results) {
+                ranking = new ArrayList<>(results);
+            }
+            ranking.sort(Comparator
+                .comparing((BatchResult r) -> r.getMatchScore() == null)
+                .thenComparing(r -> r.getMatchScore() == null ? 0.0 : -r.getMatchScore()));
+
+            List<BatchResult> summary = new ArrayList<>(ranking.size());
+            for (int i = 0; i < ranking.size(); i++) {
+                BatchResult result = ranking.get(i);
+                result.setRank(result.getError() == null ? i + 1 : null);
+                summary.add(BatchResult.builder()
+                    .index(result.getIndex())
+                    .rank(result.getRank())
+                    .resumeFilename(result.getResumeFilename())
+                    .matchScore(result.getMatchScore())
+                    .keywordScore(result.getKeywordScore())
+                    .semanticScore(result.getSemanticScore())
+                    .atsScore(result.getAtsScore())
+                    .error(result.getError())
+                    .build());
+            }
+
+            long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+            write(BatchEvent.builder()
+                .type("summary")
+                .jobId(job.getId())
+                .processed(ranking.size())
+                .failed(failed.get())
+                .elapsedMs(elapsedMs)
+                .ranking(summary)
+                .build());
+            logger.info("✅ Batch complete - {} resumes ({} failed) in {} ms", ranking.size(), failed.get(), elapsedMs);
+        }
+
+        CompletableFuture<Void> analyzeWithLlm(Candidate candidate) {
+            AnalysisResponse response = candidate.response;
+            // Only the top-K keep their raw text; re-analyzing those few is cheaper than
+            // holding a document for every resume in the batch
+            return CompletableFuture.supplyAsync(() -> documentAnalyzer.analyze(candidate.text), analysisExecutor)
+                .thenCompose(resume -> llmAnalyzerService.analyzeWithContext(
+                    resume, job.getDocument(), response.getMatchScore(),
+                    response.getMatchedSkills(), response.getMissingSkills(), response.getAtsScore(),
+                    UpstreamScheduler.Priority.BATCH
+                ))
+                .thenAccept(analysis -> {
+                    candidate.result.setLlmAnalysis(analysis);
+                    write(BatchEvent.builder()
+                        .type("llm_analysis")
+                        .result(BatchResult.builder()
+                            .index(candidate.result.getIndex())
+                            .resumeFilename(candidate.result.getResumeFilename())
+                            .matchScore(response.getMatchScore())
+                            .llmAnalysis(analysis)
+                            .build())
+                        .build());
+                });
+        }
+
+        void write(BatchEvent event) {
+            try {
+                byte[] line = objectMapper.writeValueAsBytes(event);
+                synchronized (out) {
+                    out.write(line);
+                    out.write('\n');
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // Client went away; keep going so permits and futures still settle
+                logger.warn("⚠️ Failed to write batch event: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static BatchResult toResult(int index, String filename, AnalysisResponse response) {
+        return BatchResult.builder()
+            .index(index)
+            .resumeFilename(filename)
+            .matchScore(response.getMatchScore())
+            .keywordScore(response.getKeywordScore())
+            .semanticScore(response.getSemanticScore())
+            .atsScore(response.getAtsScore().get("overall_score"))
+            .matchedSkills(response.getMatchedSkills())
+            .missingSkills(response.getMissingSkills())
+            .build();
+    }
+
+    private static String message(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private static final class Candidate {
+        final BatchResult result;
+        final AnalysisResponse response;
+        final String text;
+
+        Candidate(BatchResult result, AnalysisResponse response, String text) {
+            this.result = result;
+            this.response = response;
+            this.text = text;
+        }
+    }
+}
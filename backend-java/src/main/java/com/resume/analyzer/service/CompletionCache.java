@@ -0,0 +1,189 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.cache.DiskStore;
+import com.resume.analyzer.cache.WeightedLruCache;
+import com.resume.analyzer.model.CacheStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Chat completions keyed by a hash of everything that determines them (model parameters,
+ * system prompt and the prompt built from the normalized resume and job text), so
+ * re-submits and retries of the same analysis don't pay for another completion.
+ *
+ * The raw completion text is cached rather than the parsed {@code LLMAnalysis}: parsing
+ * is cheap, and the streaming endpoint can replay its section events from the text.
+ * Entries expire after {@code openai.chat.cache.ttl-minutes} and are bounded by count and
+ * bytes, optionally backed by a {@link DiskStore}. Concurrent misses for the same key
+ * share one upstream call.
+ */
+@Service
+public class CompletionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompletionCache.class);
+
+    @Value("${openai.chat.cache.max-entries}")
+    private int maxEntries;
+
+    @Value("${openai.chat.cache.max-bytes}")
+    private long maxBytes;
+
+    @Value("${openai.chat.cache.ttl-minutes}")
+    private long ttlMinutes;
+
+    @Value("${openai.chat.cache.disk-path:}")
+    private String diskPath;
+
+    @Value("${openai.chat.cache.disk-max-bytes}")
+    private long diskMaxBytes;
+
+    private WeightedLruCache<String, Entry> memory;
+    private DiskStore disk;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong sharedCalls = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        memory = new WeightedLruCache<>(maxEntries, maxBytes, entry -> 2L * entry.completion.length() + 120L);
+        if (diskPath != null && !diskPath.isBlank()) {
+            try {
+                disk = new DiskStore(Path.of(diskPath), diskMaxBytes);
+            } catch (IOException e) {
+                logger.error("❌ Could not open completion cache at {}, continuing in memory only", diskPath, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached completion for {@code key}, or null if absent or expired.
+     */
+    public String get(String key) {
+        long now = System.currentTimeMillis();
+        Entry entry = memory.get(key);
+        if (entry != null && entry.expiresAt <= now) {
+            memory.remove(key);
+            entry = null;
+        }
+        if (entry == null && disk != null) {
+            byte[] stored = disk.get(key);
+            if (stored != null) {
+                Entry fromDisk = Entry.decode(stored);
+                if (fromDisk.expiresAt > now) {
+                    diskHits.incrementAndGet();
+                    memory.put(key, fromDisk);
+                    entry = fromDisk;
+                }
+            }
+        }
+        return entry == null ? null : entry.completion;
+    }
+
+    /**
+     * Returns the cached completion, or starts {@code upstream} and caches its result. If an
+     * identical call is already in flight, shares that one instead. Failures are not
+     * cached and reach every caller sharing the call.
+     */
+    public CompletableFuture<String> getOrLoad(String key, Supplier<CompletableFuture<String>> upstream) {
+        String cached = get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            sharedCalls.incrementAndGet();
+            // A copy, so no caller can complete or cancel the shared future for the others
+            return existing.copy();
+        }
+
+        try {
+            upstream.get().whenComplete((completion, error) -> {
+                if (error == null) {
+                    put(key, completion);
+                }
+                // Later callers find the result in the cache (or retry after a failure)
+                inFlight.remove(key, call);
+                if (error != null) {
+                    call.completeExceptionally(error);
+                } else {
+                    call.complete(completion);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+        }
+        return call.copy();
+    }
+
+    public CacheStats stats() {
+        long hits = memory.hits() + diskHits.get();
+        long lookups = memory.hits() + memory.misses();
+        return CacheStats.builder()
+            .entries(memory.size())
+            .weightBytes(memory.weight())
+            .hits(hits)
+            .misses(lookups - hits)
+            .evictions(memory.evictions())
+            .hitRate(lookups == 0 ? 0.0 : (double) hits / lookups)
+            .sharedCalls(sharedCalls.get())
+            .diskEntries(disk == null ? null : disk.size())
+            .diskBytes(disk == null ? null : disk.bytes())
+            .diskHits(disk == null ? null : diskHits.get())
+            .diskRotations(disk == null ? null : disk.rotations())
+            .build();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (disk != null) {
+            disk.close();
+        }
+    }
+
+    private void put(String key, String completion) {
+        Entry entry = new Entry(completion, System.currentTimeMillis() + ttlMinutes * 60_000L);
+        memory.put(key, entry);
+        if (disk != null) {
+            // Replaces an expired record for the same key
+            disk.put(key, entry.encode(), true);
+        }
+    }
+
+    private static final class Entry {
+        final String completion;
+        final long expiresAt;
+
+        Entry(String completion, long expiresAt) {
+            this.completion = completion;
+            this.expiresAt = expiresAt;
+        }
+
+        // [long expiresAt][UTF-8 completion]
+        byte[] encode() {
+            byte[] text = completion.getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocate(Long.BYTES + text.length).putLong(expiresAt).put(text).array();
+        }
+
+        static Entry decode(byte[] stored) {
+            ByteBuffer buffer = ByteBuffer.wrap(stored);
+            long expiresAt = buffer.getLong();
+            return new Entry(new String(stored, Long.BYTES, stored.length - Long.BYTES, StandardCharsets.UTF_8), expiresAt);
+        }
+    }
+}
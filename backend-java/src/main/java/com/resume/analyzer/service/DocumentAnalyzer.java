@@ -0,0 +1,33 @@
+package com.resume.analyzer.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Produces {@link AnalyzedDocument}s: the one text pass per resume or job description whose
+ * results every analysis stage reads.
+ */
+@Service
+public class DocumentAnalyzer {
+
+    @Autowired
+    private SkillsService skillsService;
+
+    @Autowired
+    private ATSService atsService;
+
+    /**
+     * Returns a sink to stream text into, e.g. while a resume is being extracted.
+     */
+    public AnalyzedDocument.Builder newBuilder() {
+        return new AnalyzedDocument.Builder(skillsService.newScanner(), atsService.newScanner());
+    }
+
+    public AnalyzedDocument analyze(String text) {
+        AnalyzedDocument.Builder builder = newBuilder();
+        if (text != null) {
+            builder.write(text, 0, text.length());
+        }
+        return builder.finish();
+    }
+}
@@ -0,0 +1,247 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.vector.DenseVector;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point for embeddings. {@code embedding.provider} picks where they come from:
+ * {@code openai}, {@code local} (the CPU-only {@link LocalEmbedder}) or {@code auto},
+ * which uses OpenAI when an API key is configured and the local embedder otherwise.
+ *
+ * OpenAI requests from concurrent analyses are coalesced into multi-input calls. Callers
+ * submit their texts and get a future back. Submissions are held for at most
+ * {@code openai.embedding.batch.window-ms} (or until {@code max-inputs} texts or
+ * {@code max-tokens} tokens are waiting), then sent in as few requests as those limits
+ * allow and the vectors are handed back to each caller in order. A request that fails only
+ * fails the callers with texts in it. Requests are scheduled upstream at the highest
+ * priority of the callers they serve.
+ */
+@Service
+public class EmbeddingBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingBatcher.class);
+
+    @Autowired
+    private OpenAIService openAIService;
+
+    @Autowired
+    private LocalEmbedder localEmbedder;
+
+    @Autowired
+    private PromptBudgeter promptBudgeter;
+
+    @Autowired
+    @Qualifier("analysisExecutor")
+    private ExecutorService analysisExecutor;
+
+    @Value("${embedding.provider}")
+    private String provider;
+
+    @Value("${openai.embedding.max-input-tokens}")
+    private int maxInputTokens;
+
+    @Value("${openai.embedding.batch.window-ms}")
+    private long windowMs;
+
+    @Value("${openai.embedding.batch.max-inputs}")
+    private int maxInputs;
+
+    @Value("${openai.embedding.batch.max-tokens}")
+    private int maxTokens;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "embedding-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private List<Pending> pending = new ArrayList<>();
+    private int pendingInputs;
+    private long pendingTokens;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean local;
+
+    @PostConstruct
+    public void init() {
+        local = switch (provider) {
+            case "auto" -> !openAIService.isAvailable();
+            case "openai" -> false;
+            case "local" -> true;
+            default -> throw new IllegalStateException("Unknown embedding.provider: " + provider);
+        };
+        logger.info("✅ Embeddings from {}", local ? "local embedder (" + localEmbedder.dimensions() + " dimensions)" : "OpenAI");
+    }
+
+    public boolean isAvailable() {
+        return local || openAIService.isAvailable();
+    }
+
+    /**
+     * {@code local} or {@code openai}, as resolved from {@code embedding.provider}.
+     */
+    public String provider() {
+        return local ? "local" : "openai";
+    }
+
+    /**
+     * Returns one embedding per text, in order; completes with null if embeddings are
+     * unavailable or the upstream call failed, matching {@link OpenAIService#getEmbeddings}.
+     * Local embeddings are computed on the calling thread and never fail.
+     */
+    public CompletableFuture<List<DenseVector>> embed(List<String> texts, UpstreamScheduler.Priority priority) {
+        if (!isAvailable() || texts.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (local) {
+            return CompletableFuture.completedFuture(localEmbedder.embed(texts));
+        }
+
+        // Cut to the model's input limit once, so the cache lookup and the request agree
+        List<String> inputs = new ArrayList<>(texts.size());
+        int[] tokens = new int[texts.size()];
+        for (int i = 0; i < texts.size(); i++) {
+            PromptBudgeter.Fitted fitted = promptBudgeter.fit(texts.get(i), maxInputTokens);
+            inputs.add(fitted.getText());
+            tokens[i] = fitted.getTokens();
+        }
+
+        // Fully cached requests don't need to wait for the batch window
+        List<DenseVector> cached = openAIService.getCachedEmbeddings(inputs);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        Pending request = new Pending(inputs, tokens, priority);
+        boolean flushNow;
+        synchronized (this) {
+            pending.add(request);
+            pendingInputs += inputs.size();
+            for (int count : tokens) {
+                pendingTokens += count;
+            }
+            flushNow = windowMs <= 0 || pendingInputs >= maxInputs || pendingTokens >= maxTokens;
+            if (!flushNow && scheduledFlush == null) {
+                scheduledFlush = timer.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (flushNow) {
+            flush();
+        }
+        return request.result;
+    }
+
+    private void flush() {
+        List<Pending> batch;
+        synchronized (this) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+            pendingInputs = 0;
+            pendingTokens = 0;
+        }
+
+        if (!batch.isEmpty()) {
+            analysisExecutor.execute(() -> send(batch));
+        }
+    }
+
+    // Runs on the analysis executor for the cache lookups; the upstream calls themselves
+    // complete the callers' futures without holding the thread
+    private void send(List<Pending> batch) {
+        List<String> inputs = new ArrayList<>();
+        List<Integer> tokens = new ArrayList<>();
+        UpstreamScheduler.Priority priority = UpstreamScheduler.Priority.BATCH;
+        for (Pending request : batch) {
+            inputs.addAll(request.texts);
+            for (int count : request.tokens) {
+                tokens.add(count);
+            }
+            if (request.priority.compareTo(priority) < 0) {
+                priority = request.priority;
+            }
+        }
+
+        // Consecutive runs of inputs within both per-request limits
+        List<CompletableFuture<List<DenseVector>>> calls = new ArrayList<>();
+        List<Integer> callSizes = new ArrayList<>();
+        int start = 0;
+        long callTokens = 0;
+        for (int i = 0; i <= inputs.size(); i++) {
+            if (i == inputs.size() || (i > start && (i - start >= maxInputs || callTokens + tokens.get(i) > maxTokens))) {
+                calls.add(call(inputs.subList(start, i), priority));
+                callSizes.add(i - start);
+                start = i;
+                callTokens = 0;
+            }
+            if (i < inputs.size()) {
+                callTokens += tokens.get(i);
+            }
+        }
+
+        logger.debug("Sending {} embedding inputs from {} requests in {} calls", inputs.size(), batch.size(), calls.size());
+
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+            List<DenseVector> embeddings = new ArrayList<>(inputs.size());
+            for (int c = 0; c < calls.size(); c++) {
+                List<DenseVector> vectors = calls.get(c).join();
+                embeddings.addAll(vectors != null ? vectors : Collections.nCopies(callSizes.get(c), null));
+            }
+
+            int offset = 0;
+            for (Pending request : batch) {
+                int size = request.texts.size();
+                List<DenseVector> vectors = embeddings.subList(offset, offset + size);
+                request.result.complete(vectors.contains(null) ? null : vectors);
+                offset += size;
+            }
+        });
+    }
+
+    // Completes with null rather than exceptionally, like getEmbeddingsAsync itself
+    private CompletableFuture<List<DenseVector>> call(List<String> inputs, UpstreamScheduler.Priority priority) {
+        try {
+            return openAIService.getEmbeddingsAsync(inputs, priority).exceptionally(e -> null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private static final class Pending {
+        final List<String> texts;
+        final int[] tokens;
+        final UpstreamScheduler.Priority priority;
+        final CompletableFuture<List<DenseVector>> result = new CompletableFuture<>();
+
+        Pending(List<String> texts, int[] tokens, UpstreamScheduler.Priority priority) {
+            this.texts = texts;
+            this.tokens = tokens;
+            this.priority = priority;
+        }
+    }
+}
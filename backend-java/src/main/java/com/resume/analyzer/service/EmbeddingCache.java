@@ -0,0 +1,120 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.cache.ContentHash;
+import com.resume.analyzer.cache.DiskStore;
+import com.resume.analyzer.cache.WeightedLruCache;
+import com.resume.analyzer.model.CacheStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedding vectors keyed by SHA-256 of (embedding model, exact input text), so the
+ * same job description or resume is only ever embedded once per model. Vectors are held
+ * as unit-length {@code float[]} in a bounded LRU, optionally backed by a {@link DiskStore} that
+ * survives restarts.
+ */
+@Service
+public class EmbeddingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingCache.class);
+
+    @Value("${openai.embedding.cache.max-entries}")
+    private int maxEntries;
+
+    @Value("${openai.embedding.cache.max-bytes}")
+    private long maxBytes;
+
+    @Value("${openai.embedding.cache.disk-path:}")
+    private String diskPath;
+
+    @Value("${openai.embedding.cache.disk-max-bytes}")
+    private long diskMaxBytes;
+
+    private WeightedLruCache<String, float[]> memory;
+    private DiskStore disk;
+    private final AtomicLong diskHits = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        memory = new WeightedLruCache<>(maxEntries, maxBytes, vector -> 16L + 4L * vector.length + 120L);
+        if (diskPath != null && !diskPath.isBlank()) {
+            try {
+                disk = new DiskStore(Path.of(diskPath), diskMaxBytes);
+            } catch (IOException e) {
+                logger.error("❌ Could not open embedding cache at {}, continuing in memory only", diskPath, e);
+            }
+        }
+    }
+
+    public float[] get(String model, String text) {
+        String key = ContentHash.sha256(model, text);
+        float[] vector = memory.get(key);
+        if (vector == null && disk != null) {
+            byte[] stored = disk.get(key);
+            if (stored != null) {
+                vector = decode(stored);
+                diskHits.incrementAndGet();
+                memory.put(key, vector);
+            }
+        }
+        return vector;
+    }
+
+    public boolean contains(String model, String text) {
+        String key = ContentHash.sha256(model, text);
+        return memory.containsKey(key) || (disk != null && disk.containsKey(key));
+    }
+
+    public void put(String model, String text, float[] vector) {
+        String key = ContentHash.sha256(model, text);
+        memory.put(key, vector);
+        if (disk != null) {
+            disk.put(key, encode(vector));
+        }
+    }
+
+    public CacheStats stats() {
+        long hits = memory.hits() + diskHits.get();
+        long lookups = memory.hits() + memory.misses();
+        return CacheStats.builder()
+            .entries(memory.size())
+            .weightBytes(memory.weight())
+            .hits(hits)
+            .misses(lookups - hits)
+            .evictions(memory.evictions())
+            .hitRate(lookups == 0 ? 0.0 : (double) hits / lookups)
+            .diskEntries(disk == null ? null : disk.size())
+            .diskBytes(disk == null ? null : disk.bytes())
+            .diskHits(disk == null ? null : diskHits.get())
+            .diskRotations(disk == null ? null : disk.rotations())
+            .build();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (disk != null) {
+            disk.close();
+        }
+    }
+
+    private static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * vector.length);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    private static float[] decode(byte[] bytes) {
+        float[] vector = new float[bytes.length / 4];
+        ByteBuffer.wrap(bytes).asFloatBuffer().get(vector);
+        return vector;
+    }
+}
@@ -0,0 +1,159 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.cache.DiskStore;
+import com.resume.analyzer.cache.WeightedLruCache;
+import com.resume.analyzer.model.CacheStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Extracted PDF text keyed by the SHA-256 of the uploaded bytes (plus the extraction
+ * settings), so a resume uploaded again for another job skips PDFBox entirely.
+ *
+ * Text is stored deflate-compressed in a bounded LRU, optionally backed by a
+ * {@link DiskStore}. {@code bytesSaved} in the stats counts upload bytes that did not
+ * have to be parsed.
+ */
+@Service
+public class ExtractionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionCache.class);
+
+    @Value("${pdf.extraction.cache.max-entries}")
+    private int maxEntries;
+
+    @Value("${pdf.extraction.cache.max-bytes}")
+    private long maxBytes;
+
+    @Value("${pdf.extraction.cache.disk-path:}")
+    private String diskPath;
+
+    @Value("${pdf.extraction.cache.disk-max-bytes}")
+    private long diskMaxBytes;
+
+    private WeightedLruCache<String, byte[]> memory;
+    private DiskStore disk;
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        memory = new WeightedLruCache<>(maxEntries, maxBytes, compressed -> 16L + compressed.length + 120L);
+        if (diskPath != null && !diskPath.isBlank()) {
+            try {
+                disk = new DiskStore(Path.of(diskPath), diskMaxBytes);
+            } catch (IOException e) {
+                logger.error("❌ Could not open extraction cache at {}, continuing in memory only", diskPath, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached text for {@code key}, or null; {@code uploadBytes} is the size of
+     * the upload that a hit saves from being parsed.
+     */
+    public String get(String key, long uploadBytes) {
+        byte[] compressed = memory.get(key);
+        if (compressed == null && disk != null) {
+            compressed = disk.get(key);
+            if (compressed != null) {
+                diskHits.incrementAndGet();
+                memory.put(key, compressed);
+            }
+        }
+        if (compressed == null) {
+            return null;
+        }
+
+        try {
+            String text = inflate(compressed);
+            bytesSaved.addAndGet(uploadBytes);
+            return text;
+        } catch (DataFormatException e) {
+            logger.warn("⚠️ Discarding corrupt extraction cache entry {}", key);
+            return null;
+        }
+    }
+
+    public void put(String key, String text) {
+        byte[] compressed = deflate(text);
+        memory.put(key, compressed);
+        if (disk != null) {
+            disk.put(key, compressed);
+        }
+    }
+
+    public CacheStats stats() {
+        long hits = memory.hits() + diskHits.get();
+        long lookups = memory.hits() + memory.misses();
+        return CacheStats.builder()
+            .entries(memory.size())
+            .weightBytes(memory.weight())
+            .hits(hits)
+            .misses(lookups - hits)
+            .evictions(memory.evictions())
+            .hitRate(lookups == 0 ? 0.0 : (double) hits / lookups)
+            .bytesSaved(bytesSaved.get())
+            .diskEntries(disk == null ? null : disk.size())
+            .diskBytes(disk == null ? null : disk.bytes())
+            .diskHits(disk == null ? null : diskHits.get())
+            .diskRotations(disk == null ? null : disk.rotations())
+            .build();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (disk != null) {
+            disk.close();
+        }
+    }
+
+    // Resume text typically shrinks 3-4x; fastest level since this runs on the request path
+    private static byte[] deflate(String text) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(text.length() / 3 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String inflate(byte[] compressed) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated entry");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.cache.ContentHash;
+import com.resume.analyzer.cache.WeightedLruCache;
+import com.resume.analyzer.exception.JobNotFoundException;
+import com.resume.analyzer.model.JobProfile;
+import com.resume.analyzer.vector.DenseVector;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Job descriptions registered through {@code POST /jobs}, with their job-side analysis
+ * artifacts computed once so each {@code /analyze?job_id=...} call only does resume work.
+ *
+ * Ids are derived from the description's content hash, so registering the same text twice
+ * returns the same job. The least recently used jobs are dropped beyond
+ * {@code jobs.max-entries}. A job is kept even if its embedding call failed; the embedding
+ * is retried the next time the job is looked up or registered.
+ */
+@Service
+public class JobRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobRegistry.class);
+
+    @Autowired
+    private DocumentAnalyzer documentAnalyzer;
+
+    @Autowired
+    private EmbeddingBatcher embeddingBatcher;
+
+    @Value("${jobs.max-entries}")
+    private int maxEntries;
+
+    private WeightedLruCache<String, JobProfile> jobs;
+    private final ConcurrentHashMap<String, CompletableFuture<JobProfile>> retries = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        jobs = new WeightedLruCache<>(maxEntries, Long.MAX_VALUE, job -> 1L);
+    }
+
+    /**
+     * Completes once the description is analyzed and embedded, without blocking the caller.
+     * Registering a job whose embedding failed earlier retries the embedding.
+     */
+    public CompletableFuture<JobProfile> register(String description) {
+        String id = idOf(description);
+        JobProfile existing = jobs.get(id);
+        if (existing != null) {
+            return needsEmbedding(existing) ? reembed(existing) : CompletableFuture.completedFuture(existing);
+        }
+
+        return profile(description).thenApply(job -> {
+            jobs.put(id, job);
+            logger.info("📌 Registered job {} with {} skills", id, job.getSkills().size());
+            return job;
+        });
+    }
+
+    /**
+     * Computes a job's artifacts without registering it, for one-off descriptions such as a
+     * batch's inline {@code job_description}. Completes once the description is embedded.
+     */
+    public CompletableFuture<JobProfile> profile(String description) {
+        String id = idOf(description);
+        AnalyzedDocument document = documentAnalyzer.analyze(description);
+        return embed(document.text()).thenApply(embedding -> JobProfile.builder()
+            .id(id)
+            .description(description)
+            .document(document)
+            .skills(document.skills())
+            .embedding(embedding)
+            .createdAt(Instant.now())
+            .build());
+    }
+
+    private static String idOf(String description) {
+        if (description == null || description.trim().isEmpty()) {
+            throw new IllegalArgumentException("Job description must not be empty");
+        }
+        return ContentHash.sha256(description).substring(0, 16);
+    }
+
+    // Null when embeddings are unavailable or the call failed
+    private CompletableFuture<DenseVector> embed(String text) {
+        return embeddingBatcher.embed(List.of(text), UpstreamScheduler.Priority.INTERACTIVE)
+            .thenApply(vectors -> vectors == null ? null : vectors.get(0));
+    }
+
+    /**
+     * A job whose embedding failed is returned without one, and the embedding is retried in
+     * the background so later calls get it.
+     */
+    public JobProfile get(String id) {
+        JobProfile job = jobs.get(id);
+        if (job == null) {
+            throw new JobNotFoundException(id);
+        }
+        if (needsEmbedding(job)) {
+            reembed(job);
+        }
+        return job;
+    }
+
+    private boolean needsEmbedding(JobProfile job) {
+        return job.getEmbedding() == null && embeddingBatcher.isAvailable();
+    }
+
+    // At most one retry per job is in flight; on success the registered profile is replaced
+    private CompletableFuture<JobProfile> reembed(JobProfile job) {
+        String id = job.getId();
+        CompletableFuture<JobProfile> retry = new CompletableFuture<>();
+        CompletableFuture<JobProfile> existing = retries.putIfAbsent(id, retry);
+        if (existing != null) {
+            return existing;
+        }
+
+        embed(job.getDocument().text()).whenComplete((embedding, error) -> {
+            JobProfile result = job;
+            if (embedding != null) {
+                result = JobProfile.builder()
+                    .id(id)
+                    .description(job.getDescription())
+                    .document(job.getDocument())
+                    .skills(job.getSkills())
+                    .embedding(embedding)
+                    .createdAt(job.getCreatedAt())
+                    .build();
+                if (jobs.containsKey(id)) {
+                    jobs.put(id, result);
+                }
+                logger.info("📌 Embedded job {} on retry", id);
+            }
+            retries.remove(id, retry);
+            retry.complete(result);
+        });
+        return retry;
+    }
+}
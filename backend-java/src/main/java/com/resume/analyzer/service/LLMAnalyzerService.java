@@ -1,10 +1,13 @@
 package com.resume.analyzer.service;
 
+import com.resume.analyzer.cache.ContentHash;
+import com.resume.analyzer.exception.UpstreamOverloadedException;
+import com.resume.analyzer.model.AnalysisSection;
 import com.resume.analyzer.model.LLMAnalysis;
+import com.theokanning.openai.completion.chat.ChatCompletionChoice;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import com.theokanning.openai.completion.chat.ChatMessage;
 import com.theokanning.openai.completion.chat.ChatMessageRole;
-import com.theokanning.openai.service.OpenAiService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,14 +15,42 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 public class LLMAnalyzerService {
     
     private static final Logger logger = LoggerFactory.getLogger(LLMAnalyzerService.class);
     
-    @Autowired(required = false)
-    private OpenAiService openAiService;
+    // The sections the prompt asks for; other "WORD:" lines (e.g. "AWS: ...") are content
+    private static final List<String> SECTIONS = List.of(
+        "OVERALL", "MATCH_REASONING", "STRENGTHS", "IMPROVEMENTS", "ATS_OPTIMIZATION", "SKILL_PRIORITY", "ACTIONS");
+    
+    // "NAME:" alone or followed by the start of its content, as in "OVERALL: Strong match."
+    private static final Pattern SECTION_HEADING = Pattern.compile("^(" + String.join("|", SECTIONS) + "):\\s*(.*)$");
+    
+    private static final Set<String> LIST_SECTIONS = Set.of("STRENGTHS", "IMPROVEMENTS", "SKILL_PRIORITY", "ACTIONS");
+    
+    private static final int MAX_COMPLETION_TOKENS = 1500;
+    
+    @Autowired
+    private OpenAiClient openAiClient;
+    
+    @Autowired
+    private PromptBudgeter promptBudgeter;
+    
+    @Autowired
+    private CompletionCache completionCache;
+    
+    @Autowired
+    private AnalysisMetrics metrics;
     
     @Value("${openai.model}")
     private String model;
@@ -30,55 +61,139 @@ public class LLMAnalyzerService {
     @Value("${openai.temperature}")
     private Double temperature;
     
-    public LLMAnalysis analyzeWithContext(
-            String resumeText,
-            String jobDescription,
+    /**
+     * Completes with the analysis once the model has answered, without holding a thread
+     * while it does. Falls back to a rule-based analysis if the model is unavailable or
+     * the call fails, times out or is shed by the {@link UpstreamScheduler}; the analysis
+     * then says why in {@code fallbackReason}.
+     */
+    public CompletableFuture<LLMAnalysis> analyzeWithContext(
+            AnalyzedDocument resume,
+            AnalyzedDocument job,
             double matchScore,
             List<String> matchedSkills,
             List<String> missingSkills,
-            Map<String, Double> atsScore
+            Map<String, Double> atsScore,
+            UpstreamScheduler.Priority priority
     ) {
         logger.info("🤖 Performing LLM analysis with few-shot learning...");
         
-        if (openAiService == null) {
-            return createBasicAnalysis(matchScore, matchedSkills, missingSkills, atsScore);
+        if (!openAiClient.isAvailable()) {
+            return CompletableFuture.completedFuture(createBasicAnalysis("unavailable", matchScore, matchedSkills, missingSkills, atsScore));
         }
         
         try {
             String prompt = buildFewShotPrompt(
-                resumeText, jobDescription, matchScore, 
+                resume, job, matchScore, 
                 matchedSkills, missingSkills, atsScore
             );
             
-            ChatCompletionRequest request = ChatCompletionRequest.builder()
-                .model(model)
-                .messages(Arrays.asList(
-                    new ChatMessage(ChatMessageRole.SYSTEM.value(), getSystemPrompt()),
-                    new ChatMessage(ChatMessageRole.USER.value(), prompt)
-                ))
-                .maxTokens(1500)
-                .temperature(temperature)
-                .build();
+            return completionCache.getOrLoad(completionKey(prompt), () -> openAiClient.chat(buildRequest(prompt), priority)
+                    .thenApply(completion -> completion.getChoices().get(0).getMessage().getContent()))
+                .thenApply(response -> parseAnalysisResponse(response, matchScore, matchedSkills, missingSkills))
+                .exceptionally(e -> {
+                    logger.error("❌ LLM analysis failed", e);
+                    return fallback(e, matchScore, matchedSkills, missingSkills, atsScore);
+                });
             
-            var completion = openAiService.createChatCompletion(request);
-            String response = completion.getChoices().get(0).getMessage().getContent();
+        } catch (Exception e) {
+            logger.error("❌ LLM analysis failed", e);
+            return CompletableFuture.completedFuture(createBasicAnalysis("error", matchScore, matchedSkills, missingSkills, atsScore));
+        }
+    }
+    
+    /**
+     * Streaming variant of {@link #analyzeWithContext}: the completion is read as it is
+     * generated and each section is passed to {@code onSection} as soon as the next one
+     * starts. Completes with the same parsed analysis once the completion ends. A cached
+     * completion is replayed through the same sections without calling the model.
+     */
+    public CompletableFuture<LLMAnalysis> streamWithContext(
+            AnalyzedDocument resume,
+            AnalyzedDocument job,
+            double matchScore,
+            List<String> matchedSkills,
+            List<String> missingSkills,
+            Map<String, Double> atsScore,
+            Consumer<AnalysisSection> onSection
+    ) {
+        logger.info("🤖 Streaming LLM analysis with few-shot learning...");
+        
+        if (!openAiClient.isAvailable()) {
+            return CompletableFuture.completedFuture(createBasicAnalysis("unavailable", matchScore, matchedSkills, missingSkills, atsScore));
+        }
+        
+        StringBuilder response = new StringBuilder();
+        SectionParser parser = new SectionParser((name, content) -> onSection.accept(AnalysisSection.builder()
+            .name(name)
+            .content(content)
+            .items(LIST_SECTIONS.contains(name) ? extractListItems(content) : null)
+            .build()));
+        try {
+            String prompt = buildFewShotPrompt(
+                resume, job, matchScore,
+                matchedSkills, missingSkills, atsScore
+            );
             
-            return parseAnalysisResponse(response, matchScore, matchedSkills, missingSkills);
+            // Chunks arrive one at a time on an HTTP client thread, so the parser needs no locking
+            AtomicBoolean streamed = new AtomicBoolean();
+            return completionCache.getOrLoad(completionKey(prompt), () -> {
+                    streamed.set(true);
+                    return openAiClient.streamChat(buildRequest(prompt), UpstreamScheduler.Priority.INTERACTIVE, chunk -> {
+                        for (ChatCompletionChoice choice : chunk.getChoices()) {
+                            String delta = choice.getMessage() != null ? choice.getMessage().getContent() : null;
+                            if (delta != null) {
+                                response.append(delta);
+                                parser.accept(delta);
+                            }
+                        }
+                    }).thenApply(done -> response.toString());
+                })
+                .thenApply(completion -> {
+                    if (!streamed.get()) {
+                        parser.accept(completion);
+                    }
+                    parser.finish();
+                    return parseAnalysisResponse(completion, matchScore, matchedSkills, missingSkills);
+                })
+                .exceptionally(e -> {
+                    logger.error("❌ Streaming LLM analysis failed after {} characters", response.length(), e);
+                    return fallback(e, matchScore, matchedSkills, missingSkills, atsScore);
+                });
             
         } catch (Exception e) {
-            logger.error("❌ LLM analysis failed", e);
-            return createBasicAnalysis(matchScore, matchedSkills, missingSkills, atsScore);
+            logger.error("❌ Streaming LLM analysis failed", e);
+            return CompletableFuture.completedFuture(createBasicAnalysis("error", matchScore, matchedSkills, missingSkills, atsScore));
         }
     }
     
+    private ChatCompletionRequest buildRequest(String prompt) {
+        return ChatCompletionRequest.builder()
+            .model(model)
+            .messages(Arrays.asList(
+                new ChatMessage(ChatMessageRole.SYSTEM.value(), getSystemPrompt()),
+                new ChatMessage(ChatMessageRole.USER.value(), prompt)
+            ))
+            .maxTokens(MAX_COMPLETION_TOKENS)
+            .temperature(temperature)
+            .build();
+    }
+    
+    // Everything that goes into the request, so a changed prompt or setting never hits a stale entry
+    private String completionKey(String prompt) {
+        return ContentHash.sha256(
+            model, String.valueOf(temperature), String.valueOf(MAX_COMPLETION_TOKENS), getSystemPrompt(), prompt
+        );
+    }
+    
     private String getSystemPrompt() {
         return "You are an expert technical recruiter with 15+ years of experience in resume analysis " +
                "and candidate evaluation. You provide actionable, specific, and honest feedback.";
     }
     
-    private String buildFewShotPrompt(
-            String resumeText,
-            String jobDescription,
+    String buildFewShotPrompt(
+            AnalyzedDocument resume,
+            AnalyzedDocument job,
             double matchScore,
             List<String> matchedSkills,
             List<String> missingSkills,
@@ -91,13 +206,13 @@ public class LLMAnalyzerService {
         
         // Add current analysis
         prompt.append("\n\n=== ANALYZE THIS RESUME ===\n\n");
-        prompt.append("JOB DESCRIPTION:\n").append(jobDescription).append("\n\n");
-        prompt.append("RESUME (first 2000 chars):\n")
-              .append(resumeText.substring(0, Math.min(resumeText.length(), 2000)))
-              .append("\n\n");
+        PromptBudgeter.Excerpts excerpts = promptBudgeter.excerpts(resume, job, matchedSkills, missingSkills);
+        prompt.append("JOB DESCRIPTION:\n").append(excerpts.getJob()).append("\n\n");
+        prompt.append("RESUME:\n").append(excerpts.getResume()).append("\n\n");
         
         prompt.append("CURRENT METRICS:\n");
-        prompt.append("- Match Score: ").append(matchScore).append("/100\n");
+        // One decimal is all the model needs, and keeps the prompt (and its cache key) stable
+        prompt.append("- Match Score: ").append(Math.round(matchScore * 10) / 10.0).append("/100\n");
         prompt.append("- ATS Score: ").append(atsScore.get("overall_score")).append("/100\n");
         prompt.append("- Matched Skills (").append(matchedSkills.size()).append("): ")
               .append(String.join(", ", matchedSkills.subList(0, Math.min(10, matchedSkills.size()))))
@@ -172,7 +287,7 @@ public class LLMAnalyzerService {
             """;
     }
     
-    private LLMAnalysis parseAnalysisResponse(
+    LLMAnalysis parseAnalysisResponse(
             String response,
             double matchScore,
             List<String> matchedSkills,
@@ -209,7 +324,7 @@ public class LLMAnalyzerService {
             
         } catch (Exception e) {
             logger.warn("⚠️ Failed to parse LLM response, using defaults", e);
-            return createBasicAnalysis(matchScore, matchedSkills, missingSkills, null);
+            return createBasicAnalysis("parse", matchScore, matchedSkills, missingSkills, null);
         }
         
         return builder.build();
@@ -217,27 +332,9 @@ public class LLMAnalyzerService {
     
     private Map<String, String> extractSections(String response) {
         Map<String, String> sections = new HashMap<>();
-        String[] lines = response.split("\n");
-        String currentSection = null;
-        StringBuilder content = new StringBuilder();
-        
-        for (String line : lines) {
-            String trimmed = line.trim();
-            if (trimmed.endsWith(":") && trimmed.matches("^[A-Z_]+:$")) {
-                if (currentSection != null) {
-                    sections.put(currentSection, content.toString().trim());
-                }
-                currentSection = trimmed.substring(0, trimmed.length() - 1);
-                content = new StringBuilder();
-            } else if (currentSection != null) {
-                content.append(line).append("\n");
-            }
-        }
-        
-        if (currentSection != null) {
-            sections.put(currentSection, content.toString().trim());
-        }
-        
+        SectionParser parser = new SectionParser(sections::put);
+        parser.accept(response);
+        parser.finish();
         return sections;
     }
     
@@ -257,12 +354,40 @@ public class LLMAnalyzerService {
         return items.isEmpty() ? Arrays.asList("No specific items identified") : items;
     }
     
+    private LLMAnalysis fallback(
+            Throwable error,
+            double matchScore,
+            List<String> matchedSkills,
+            List<String> missingSkills,
+            Map<String, Double> atsScore
+    ) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        LLMAnalysis analysis;
+        if (cause instanceof UpstreamOverloadedException) {
+            analysis = createBasicAnalysis("shed", matchScore, matchedSkills, missingSkills, atsScore);
+            analysis.setFallbackReason(cause.getMessage());
+        } else if (cause instanceof TimeoutException) {
+            analysis = createBasicAnalysis("timeout", matchScore, matchedSkills, missingSkills, atsScore);
+            analysis.setFallbackReason("OpenAI request timed out");
+        } else {
+            analysis = createBasicAnalysis("error", matchScore, matchedSkills, missingSkills, atsScore);
+            analysis.setFallbackReason("OpenAI request failed: " + cause.getMessage());
+        }
+        return analysis;
+    }
+    
+    // reason tags the analysis.fallbacks counter
     private LLMAnalysis createBasicAnalysis(
+            String reason,
             double matchScore,
             List<String> matchedSkills,
             List<String> missingSkills,
             Map<String, Double> atsScore
     ) {
+        metrics.recordFallback("llm_analysis", reason);
         String assessment;
         List<String> improvements;
         
@@ -308,4 +433,56 @@ public class LLMAnalyzerService {
             ))
             .build();
     }
+    
+    /**
+     * Splits a completion into {@code NAME:} sections, fed in arbitrary chunks. Only the
+     * section names the prompt asks for start a section. Content may start on the heading
+     * line. A section is reported once the next heading arrives (or the text ends), with
+     * its content trimmed.
+     */
+    static final class SectionParser {
+        private final BiConsumer<String, String> onSection;
+        private final StringBuilder line = new StringBuilder();
+        private StringBuilder content = new StringBuilder();
+        private String current;
+        
+        SectionParser(BiConsumer<String, String> onSection) {
+            this.onSection = onSection;
+        }
+        
+        void accept(String chunk) {
+            for (int i = 0; i < chunk.length(); i++) {
+                char c = chunk.charAt(i);
+                if (c == '\n') {
+                    endLine();
+                } else {
+                    line.append(c);
+                }
+            }
+        }
+        
+        void finish() {
+            if (line.length() > 0) {
+                endLine();
+            }
+            if (current != null) {
+                onSection.accept(current, content.toString().trim());
+                current = null;
+            }
+        }
+        
+        private void endLine() {
+            Matcher heading = SECTION_HEADING.matcher(line.toString().trim());
+            if (heading.matches()) {
+                if (current != null) {
+                    onSection.accept(current, content.toString().trim());
+                }
+                current = heading.group(1);
+                content = new StringBuilder(heading.group(2)).append("\n");
+            } else if (current != null) {
+                content.append(line).append("\n");
+            }
+            line.setLength(0);
+        }
+    }
 }
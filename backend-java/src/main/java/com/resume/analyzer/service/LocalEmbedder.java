@@ -0,0 +1,300 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.vector.DenseVector;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CPU-only embeddings for when OpenAI is not configured or {@code embedding.provider=local}.
+ *
+ * Each text becomes a hashed TF-IDF vector: word unigrams, adjacent word pairs, character
+ * trigrams of each word (so "develop" and "developer" overlap) and the canonical skills
+ * found by the taxonomy are hashed into {@code embedding.local.dimensions} signed buckets,
+ * weighted by sublinear term frequency and, for words, inverse document frequency. With
+ * {@code embedding.local.idf-path} unset, common English words get no weight and all
+ * others the same; otherwise the file gives the document count on its first line and one
+ * {@code term<TAB>document frequency} line per word.
+ *
+ * Vectors are unit length {@link DenseVector}s like the OpenAI ones, so the semantic score
+ * and resume index work unchanged, but the two are not comparable: cosines between local
+ * vectors run lower, and only one provider is used per process.
+ */
+@Service
+public class LocalEmbedder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalEmbedder.class);
+
+    // Seeds keep the feature kinds apart in the hash space
+    private static final long WORD = 0x9E3779B97F4A7C15L;
+    private static final long PAIR = 0xC2B2AE3D27D4EB4FL;
+    private static final long TRIGRAM = 0x165667B19E3779F9L;
+    private static final long SKILL = 0x27D4EB2F165667C5L;
+
+    private static final float PAIR_WEIGHT = 0.5f;
+    private static final float TRIGRAM_WEIGHT = 0.25f;
+
+    @Autowired
+    private SkillTaxonomyService taxonomyService;
+
+    @Value("${embedding.local.dimensions}")
+    private int dimensions;
+
+    @Value("${embedding.local.skill-weight}")
+    private float skillWeight;
+
+    @Value("${embedding.local.idf-path:}")
+    private String idfPath;
+
+    // Word hash -> idf; words missing from the table get missingIdf
+    private FeatureTable idf;
+    private float missingIdf = 1f;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (idfPath == null || idfPath.isBlank()) {
+            idf = new FeatureTable(Stopwords.WORDS.size());
+            for (String stopword : Stopwords.WORDS) {
+                idf.put(hash(WORD, stopword, 0, stopword.length()), 0f);
+            }
+        } else {
+            idf = loadIdf(Path.of(idfPath));
+        }
+        logger.info("✅ Local embedder: {} dimensions, {} idf terms", dimensions, idf.size());
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public List<DenseVector> embed(List<String> texts) {
+        SkillTaxonomy taxonomy = taxonomyService.current();
+        List<DenseVector> vectors = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            vectors.add(embed(text, taxonomy));
+        }
+        return vectors;
+    }
+
+    public DenseVector embed(String text) {
+        return embed(text, taxonomyService.current());
+    }
+
+    private DenseVector embed(String text, SkillTaxonomy taxonomy) {
+        // Sized for a short document; distinct trigrams level off well before this
+        FeatureTable features = new FeatureTable(Math.min(text.length(), 4096));
+        long previous = 0;
+        boolean previousCounts = false;
+
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (!isWordChar(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length && isWordChar(text.charAt(i))) {
+                i++;
+            }
+
+            long word = hash(WORD, text, start, i);
+            float wordIdf = idf.get(word, missingIdf);
+            boolean counts = wordIdf > 0f;
+            if (counts) {
+                features.add(word, wordIdf);
+                if (previousCounts) {
+                    features.add(mix(PAIR ^ previous * 31 ^ word), PAIR_WEIGHT);
+                }
+                // Trigrams of " word ", so prefixes and suffixes are features of their own
+                for (int t = start - 1; t + 3 <= i + 1; t++) {
+                    features.add(trigram(text, t, start, i), TRIGRAM_WEIGHT);
+                }
+            }
+            previous = word;
+            previousCounts = counts;
+        }
+
+        for (String skill : taxonomy.extractSkills(text.toLowerCase(Locale.ROOT))) {
+            features.add(hash(SKILL, skill, 0, skill.length()), skillWeight);
+        }
+
+        float[] values = new float[dimensions];
+        for (int slot = 0; slot < features.keys.length; slot++) {
+            if (features.counts[slot] == 0) {
+                continue;
+            }
+            long key = features.keys[slot];
+            // Sublinear tf times the feature's weight (idf for words)
+            float weight = features.weights[slot] * (1f + (float) Math.log(features.counts[slot]));
+            int bucket = (int) ((key >>> 1) % dimensions);
+            // A sign bit per feature makes collisions cancel out on average instead of adding up
+            values[bucket] += key < 0 ? -weight : weight;
+        }
+        return DenseVector.of(values);
+    }
+
+    private FeatureTable loadIdf(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IOException("Empty idf table " + path);
+            }
+            long documents = Long.parseLong(header.trim());
+            List<String> lines = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    lines.add(line);
+                }
+            }
+
+            FeatureTable table = new FeatureTable(lines.size() + Stopwords.WORDS.size());
+            for (String entry : lines) {
+                int tab = entry.indexOf('\t');
+                if (tab < 0) {
+                    throw new IOException("Malformed idf line in " + path + ": " + entry);
+                }
+                String term = entry.substring(0, tab).toLowerCase(Locale.ROOT);
+                long frequency = Long.parseLong(entry.substring(tab + 1).trim());
+                table.put(hash(WORD, term, 0, term.length()), idf(documents, frequency));
+            }
+            for (String stopword : Stopwords.WORDS) {
+                table.put(hash(WORD, stopword, 0, stopword.length()), 0f);
+            }
+            // Words the corpus never saw are treated as rarer than any it did
+            missingIdf = idf(documents, 0);
+            return table;
+        }
+    }
+
+    private static float idf(long documents, long frequency) {
+        return (float) Math.log((documents + 1.0) / (frequency + 1.0)) + 1f;
+    }
+
+    // Letters, digits and the "+"/"#" of c++ and c#
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '+' || c == '#';
+    }
+
+    // FNV-1a over the lowercased characters, finished with a 64-bit mix
+    private static long hash(long seed, String text, int start, int end) {
+        long h = seed ^ 0xCBF29CE484222325L;
+        for (int i = start; i < end; i++) {
+            h ^= Character.toLowerCase(text.charAt(i));
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    // Trigram starting at t of the word [start, end) padded with a space on each side
+    private static long trigram(String text, int t, int start, int end) {
+        long h = TRIGRAM ^ 0xCBF29CE484222325L;
+        for (int i = t; i < t + 3; i++) {
+            char c = i < start || i >= end ? ' ' : Character.toLowerCase(text.charAt(i));
+            h ^= c;
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Open-addressing map from feature hash to an occurrence count and weight, so a
+     * document's features are counted without boxing or per-term strings.
+     */
+    private static final class FeatureTable {
+        long[] keys;
+        int[] counts;
+        float[] weights;
+        private int size;
+
+        FeatureTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+            keys = new long[capacity];
+            counts = new int[capacity];
+            weights = new float[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(long key, float weight) {
+            int slot = slot(key);
+            if (counts[slot]++ == 0) {
+                keys[slot] = key;
+                weights[slot] = weight;
+                if (++size * 2 > keys.length) {
+                    grow();
+                }
+            }
+        }
+
+        void put(long key, float value) {
+            int slot = slot(key);
+            if (counts[slot] != 0) {
+                weights[slot] = value;
+                return;
+            }
+            keys[slot] = key;
+            counts[slot] = 1;
+            weights[slot] = value;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        float get(long key, float missing) {
+            int slot = slot(key);
+            return counts[slot] != 0 ? weights[slot] : missing;
+        }
+
+        // Slot holding key, or the empty slot where it belongs
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) key & mask;
+            while (counts[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            float[] oldWeights = weights;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            weights = new float[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldCounts[i] != 0) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                    weights[slot] = oldWeights[i];
+                }
+            }
+        }
+    }
+}
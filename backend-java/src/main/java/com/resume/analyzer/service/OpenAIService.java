@@ -1,18 +1,23 @@
 package com.resume.analyzer.service;
 
+import com.resume.analyzer.cache.ContentHash;
+import com.resume.analyzer.vector.DenseVector;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import com.theokanning.openai.completion.chat.ChatMessage;
 import com.theokanning.openai.completion.chat.ChatMessageRole;
+import com.theokanning.openai.embedding.Embedding;
 import com.theokanning.openai.embedding.EmbeddingRequest;
-import com.theokanning.openai.service.OpenAiService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,8 +25,23 @@ public class OpenAIService {
     
     private static final Logger logger = LoggerFactory.getLogger(OpenAIService.class);
     
-    @Autowired(required = false)
-    private OpenAiService openAiService;
+    private static final String FEEDBACK_SYSTEM_PROMPT =
+        "You are an expert resume reviewer and career advisor with 15+ years of experience.";
+    
+    @Autowired
+    private OpenAiClient openAiClient;
+    
+    @Autowired
+    private EmbeddingCache embeddingCache;
+    
+    @Autowired
+    private PromptBudgeter promptBudgeter;
+    
+    @Autowired
+    private CompletionCache completionCache;
+    
+    @Autowired
+    private AnalysisMetrics metrics;
     
     @Value("${openai.model}")
     private String model;
@@ -36,76 +56,137 @@ public class OpenAIService {
     private Double temperature;
     
     public boolean isAvailable() {
-        return openAiService != null;
+        return openAiClient.isAvailable();
+    }
+    
+    public DenseVector getEmbedding(String text) {
+        List<DenseVector> embeddings = getEmbeddings(List.of(text));
+        return embeddings == null ? null : embeddings.get(0);
+    }
+    
+    /**
+     * Embeds all inputs, serving repeats from the embedding cache and sending the rest in a
+     * single request. Results are returned in input order, or null if the service is
+     * unavailable or the request fails. Inputs must already fit the model's input limit
+     * ({@link EmbeddingBatcher} cuts them to {@code openai.embedding.max-input-tokens}).
+     */
+    public List<DenseVector> getEmbeddings(List<String> texts) {
+        return getEmbeddingsAsync(texts, UpstreamScheduler.Priority.INTERACTIVE).join();
     }
     
-    public List<Double> getEmbedding(String text) {
+    /**
+     * Non-blocking {@link #getEmbeddings}: completes when the upstream call does, with null
+     * if the service is unavailable or the request fails (including being shed by the
+     * {@link UpstreamScheduler}).
+     */
+    public CompletableFuture<List<DenseVector>> getEmbeddingsAsync(List<String> texts, UpstreamScheduler.Priority priority) {
         if (!isAvailable()) {
             logger.warn("OpenAI service not available");
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
         
-        try {
-            // Truncate text if too long
-            String truncated = text.length() > 8000 ? text.substring(0, 8000) : text;
-            
-            EmbeddingRequest request = EmbeddingRequest.builder()
-                .model(embeddingModel)
-                .input(Arrays.asList(truncated))
-                .build();
-            
-            var result = openAiService.createEmbeddings(request);
-            return result.getData().get(0).getEmbedding();
-            
-        } catch (Exception e) {
-            logger.error("❌ Failed to get embedding", e);
-            return null;
+        List<DenseVector> embeddings = new ArrayList<>(Collections.nCopies(texts.size(), null));
+        List<String> missing = new ArrayList<>();
+        List<Integer> missingIndexes = new ArrayList<>();
+        
+        for (int i = 0; i < texts.size(); i++) {
+            float[] cached = embeddingCache.get(embeddingModel, texts.get(i));
+            if (cached != null) {
+                embeddings.set(i, DenseVector.ofNormalized(cached));
+            } else {
+                missing.add(texts.get(i));
+                missingIndexes.add(i);
+            }
+        }
+        
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(embeddings);
+        }
+        
+        EmbeddingRequest request = EmbeddingRequest.builder()
+            .model(embeddingModel)
+            .input(missing)
+            .build();
+        
+        return openAiClient.embeddings(request, priority)
+            .thenApply(result -> {
+                for (Embedding embedding : result.getData()) {
+                    int index = embedding.getIndex();
+                    DenseVector vector = DenseVector.of(embedding.getEmbedding());
+                    embeddings.set(missingIndexes.get(index), vector);
+                    embeddingCache.put(embeddingModel, missing.get(index), vector.values());
+                }
+                return embeddings;
+            })
+            .exceptionally(e -> {
+                logger.error("❌ Failed to get embeddings for {} inputs", texts.size(), e);
+                return null;
+            });
+    }
+    
+    /**
+     * Returns embeddings for all texts if every one of them is cached, otherwise null.
+     */
+    public List<DenseVector> getCachedEmbeddings(List<String> texts) {
+        // One lookup per text: an entry evicted after a separate check would mean an upstream call
+        List<DenseVector> embeddings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            float[] cached = embeddingCache.get(embeddingModel, text);
+            if (cached == null) {
+                return null;
+            }
+            embeddings.add(DenseVector.ofNormalized(cached));
         }
+        return embeddings;
     }
     
     public String generateFeedback(
-            String resumeText,
-            String jobDescription,
+            AnalyzedDocument resume,
+            AnalyzedDocument job,
             List<String> matchedSkills,
             List<String> missingSkills
     ) {
         if (!isAvailable()) {
-            return generateBasicFeedback(matchedSkills, missingSkills);
+            return generateBasicFeedback("unavailable", matchedSkills, missingSkills);
         }
         
         try {
-            String prompt = buildFeedbackPrompt(resumeText, jobDescription, matchedSkills, missingSkills);
+            String prompt = buildFeedbackPrompt(resume, job, matchedSkills, missingSkills);
+            String key = ContentHash.sha256(
+                model, String.valueOf(temperature), String.valueOf(maxTokens), FEEDBACK_SYSTEM_PROMPT, prompt
+            );
             
             ChatCompletionRequest request = ChatCompletionRequest.builder()
                 .model(model)
                 .messages(Arrays.asList(
-                    new ChatMessage(ChatMessageRole.SYSTEM.value(), 
-                        "You are an expert resume reviewer and career advisor with 15+ years of experience."),
+                    new ChatMessage(ChatMessageRole.SYSTEM.value(), FEEDBACK_SYSTEM_PROMPT),
                     new ChatMessage(ChatMessageRole.USER.value(), prompt)
                 ))
                 .maxTokens(maxTokens)
                 .temperature(temperature)
                 .build();
             
-            var completion = openAiService.createChatCompletion(request);
-            return completion.getChoices().get(0).getMessage().getContent();
+            return completionCache.getOrLoad(key, () -> openAiClient.chat(request, UpstreamScheduler.Priority.INTERACTIVE)
+                .thenApply(completion -> completion.getChoices().get(0).getMessage().getContent()))
+                .join();
             
         } catch (Exception e) {
             logger.error("❌ Failed to generate AI feedback", e);
-            return generateBasicFeedback(matchedSkills, missingSkills);
+            return generateBasicFeedback("error", matchedSkills, missingSkills);
         }
     }
     
     private String buildFeedbackPrompt(
-            String resumeText,
-            String jobDescription,
+            AnalyzedDocument resume,
+            AnalyzedDocument job,
             List<String> matchedSkills,
             List<String> missingSkills
     ) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("Analyze this resume against the job description and provide specific, actionable feedback.\n\n");
-        prompt.append("JOB DESCRIPTION:\n").append(jobDescription).append("\n\n");
-        prompt.append("RESUME:\n").append(resumeText.substring(0, Math.min(resumeText.length(), 2000))).append("\n\n");
+        PromptBudgeter.Excerpts excerpts = promptBudgeter.excerpts(resume, job, matchedSkills, missingSkills);
+        prompt.append("JOB DESCRIPTION:\n").append(excerpts.getJob()).append("\n\n");
+        prompt.append("RESUME:\n").append(excerpts.getResume()).append("\n\n");
         prompt.append("MATCHED SKILLS: ").append(String.join(", ", matchedSkills)).append("\n");
         prompt.append("MISSING SKILLS: ").append(String.join(", ", missingSkills)).append("\n\n");
         prompt.append("Provide:\n");
@@ -117,7 +198,8 @@ public class OpenAIService {
         return prompt.toString();
     }
     
-    private String generateBasicFeedback(List<String> matchedSkills, List<String> missingSkills) {
+    private String generateBasicFeedback(String reason, List<String> matchedSkills, List<String> missingSkills) {
+        metrics.recordFallback("feedback", reason);
         StringBuilder feedback = new StringBuilder();
         feedback.append("RESUME ANALYSIS\n\n");
         
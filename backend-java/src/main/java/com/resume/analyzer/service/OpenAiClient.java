@@ -0,0 +1,143 @@
+package com.resume.analyzer.service;
+
+import com.theokanning.openai.Usage;
+import com.theokanning.openai.client.OpenAiApi;
+import com.theokanning.openai.completion.chat.ChatCompletionChunk;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatCompletionResult;
+import com.theokanning.openai.completion.chat.ChatMessage;
+import com.theokanning.openai.embedding.EmbeddingRequest;
+import com.theokanning.openai.embedding.EmbeddingResult;
+import com.theokanning.openai.service.OpenAiService;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import okhttp3.ResponseBody;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import retrofit2.Call;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous access to the OpenAI API. Every call returns immediately; the response is
+ * delivered on an HTTP client thread once it arrives, so no request or analysis thread
+ * waits on the network. Each call has its own timeout, after which the HTTP call is
+ * cancelled and the future fails with a {@link java.util.concurrent.TimeoutException}.
+ * Cancelling a returned future does not reach the call, which runs to completion or
+ * timeout.
+ *
+ * Calls go through the {@link UpstreamScheduler}, which holds them back while the rate
+ * limits or the current concurrency limit leave no room; the timeouts start once a call
+ * is actually sent.
+ */
+@Service
+public class OpenAiClient {
+
+    @Autowired(required = false)
+    private OpenAiApi openAiApi;
+
+    @Autowired
+    private UpstreamScheduler scheduler;
+
+    @Autowired
+    private PromptBudgeter promptBudgeter;
+
+    @Autowired
+    private AnalysisMetrics metrics;
+
+    @Value("${openai.timeout.chat-ms}")
+    private long chatTimeoutMs;
+
+    @Value("${openai.timeout.embedding-ms}")
+    private long embeddingTimeoutMs;
+
+    @Value("${openai.timeout.stream-idle-ms}")
+    private long streamIdleTimeoutMs;
+
+    public boolean isAvailable() {
+        return openAiApi != null;
+    }
+
+    public CompletableFuture<ChatCompletionResult> chat(ChatCompletionRequest request, UpstreamScheduler.Priority priority) {
+        return scheduler.submit(UpstreamScheduler.Endpoint.CHAT, priority, chatTokens(request),
+                () -> toFuture(openAiApi.createChatCompletion(request), chatTimeoutMs))
+            .thenApply(result -> {
+                recordUsage("chat", result.getUsage());
+                return result;
+            });
+    }
+
+    public CompletableFuture<EmbeddingResult> embeddings(EmbeddingRequest request, UpstreamScheduler.Priority priority) {
+        int tokens = 0;
+        for (String input : request.getInput()) {
+            tokens += promptBudgeter.countTokens(input);
+        }
+        return scheduler.submit(UpstreamScheduler.Endpoint.EMBEDDINGS, priority, tokens,
+                () -> toFuture(openAiApi.createEmbeddings(request), embeddingTimeoutMs))
+            .thenApply(result -> {
+                recordUsage("embeddings", result.getUsage());
+                return result;
+            });
+    }
+
+    /**
+     * Streams a chat completion, passing each chunk to {@code onChunk} as it arrives. The
+     * stream fails if no chunk arrives within {@code openai.timeout.stream-idle-ms}, and
+     * the whole completion must finish within {@code openai.timeout.chat-ms}. Streamed
+     * completions carry no usage block, so they are not counted in {@code openai.tokens}.
+     */
+    public CompletableFuture<Void> streamChat(
+            ChatCompletionRequest request,
+            UpstreamScheduler.Priority priority,
+            Consumer<ChatCompletionChunk> onChunk
+    ) {
+        request.setStream(true);
+        return scheduler.submit(UpstreamScheduler.Endpoint.CHAT, priority, chatTokens(request),
+            () -> stream(request, onChunk));
+    }
+
+    private void recordUsage(String endpoint, Usage usage) {
+        if (usage != null) {
+            metrics.recordTokens(endpoint, "prompt", usage.getPromptTokens());
+            metrics.recordTokens(endpoint, "completion", usage.getCompletionTokens());
+        }
+    }
+
+    // Rate limits count the prompt plus the most the completion may use
+    private int chatTokens(ChatCompletionRequest request) {
+        int tokens = request.getMaxTokens() != null ? request.getMaxTokens() : 0;
+        for (ChatMessage message : request.getMessages()) {
+            tokens += promptBudgeter.countTokens(message.getContent()) + 4;
+        }
+        return tokens;
+    }
+
+    private CompletableFuture<Void> stream(ChatCompletionRequest request, Consumer<ChatCompletionChunk> onChunk) {
+        Call<ResponseBody> call = openAiApi.createChatCompletionStream(request);
+        Flowable<ChatCompletionChunk> chunks = OpenAiService.stream(call, ChatCompletionChunk.class)
+            .doOnCancel(call::cancel)
+            .timeout(streamIdleTimeoutMs, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Disposable subscription = chunks.subscribe(onChunk::accept, future::completeExceptionally, () -> future.complete(null));
+        future.orTimeout(chatTimeoutMs, TimeUnit.MILLISECONDS)
+            .whenComplete((done, error) -> {
+                if (error != null) {
+                    subscription.dispose();
+                }
+            });
+        return future;
+    }
+
+    private static <T> CompletableFuture<T> toFuture(Single<T> call, long timeoutMs) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        // On timeout, timeout() disposes the upstream subscription, which cancels the HTTP call
+        call.timeout(timeoutMs, TimeUnit.MILLISECONDS)
+            .subscribe(future::complete, future::completeExceptionally);
+        return future;
+    }
+}
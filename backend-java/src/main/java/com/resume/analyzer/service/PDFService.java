@@ -1,24 +1,77 @@
 package com.resume.analyzer.service;
 
+import com.resume.analyzer.cache.ContentHash;
 import com.resume.analyzer.exception.FileValidationException;
 import com.resume.analyzer.exception.PDFExtractionException;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessStreamCache.StreamCacheCreateFunction;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @Service
 public class PDFService {
     
     private static final Logger logger = LoggerFactory.getLogger(PDFService.class);
-    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    public static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
     private static final String[] ALLOWED_TYPES = {"application/pdf", "text/plain", "application/octet-stream"};
     
+    @Value("${pdf.extraction.max-main-memory-bytes}")
+    private long maxMainMemoryBytes;
+    
+    @Value("${pdf.extraction.max-chars}")
+    private int maxChars;
+    
+    @Value("${pdf.extraction.max-pages}")
+    private int maxPages;
+    
+    @Value("${pdf.extraction.early-stop-chars}")
+    private int earlyStopChars;
+    
+    @Value("${pdf.extraction.parallel.min-pages}")
+    private int parallelMinPages;
+    
+    @Value("${pdf.extraction.parallel.pages-per-task}")
+    private int pagesPerTask;
+    
+    @Value("${pdf.extraction.parallel.threads}")
+    private int parallelThreads;
+    
+    @Autowired
+    private ExtractionCache extractionCache;
+    
+    @Autowired
+    private AnalysisMetrics metrics;
+    
+    @Autowired
+    @Qualifier("pdfExtractionExecutor")
+    private ExecutorService pdfExtractionExecutor;
+    
     public void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new FileValidationException("File is empty");
@@ -57,36 +110,371 @@ public class PDFService {
     }
     
     public String extractText(MultipartFile file) {
-        String filename = file.getOriginalFilename();
+        return extractText(file, null);
+    }
+    
+    /**
+     * Extracts text from an upload without holding it in memory: the upload is spooled to a
+     * temp file and parsed from there. Text is also written to {@code sink} (if given) as
+     * each page is extracted; the sink receives exactly the returned text, truncated to
+     * {@code maxChars} and trimmed.
+     */
+    public String extractText(MultipartFile file, Writer sink) {
+        SpooledFile spooled;
+        try (InputStream in = file.getInputStream()) {
+            spooled = spool(in);
+        } catch (IOException e) {
+            logger.error("❌ Failed to read uploaded file", e);
+            throw new PDFExtractionException("Failed to read file", e);
+        }
+        
+        try (spooled) {
+            return extractText(file.getOriginalFilename(), spooled, sink);
+        }
+    }
+    
+    /**
+     * Copies {@code in} to a temp file, hashing the bytes on the way and failing once more
+     * than {@link #MAX_FILE_SIZE} bytes have been read. The caller owns the returned file
+     * and must close it. {@code in} is left open.
+     */
+    public SpooledFile spool(InputStream in) throws IOException {
+        Path file = Files.createTempFile("resume-upload-", ".tmp");
+        MessageDigest digest = ContentHash.newDigest();
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > MAX_FILE_SIZE) {
+                    throw new FileValidationException("File exceeds maximum allowed size of 10MB");
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new SpooledFile(file, HexFormat.of().formatHex(digest.digest()), total);
+    }
+    
+    /**
+     * Like {@link #extractText(String, Path, Writer)}, but PDFs are served from the
+     * {@link ExtractionCache} when the same bytes were extracted before. The cached text is
+     * what the sink received on the miss, so a hit analyzes to the same document.
+     */
+    public String extractText(String filename, SpooledFile file, Writer sink) {
+        boolean pdf = filename == null || !filename.toLowerCase().endsWith(".txt");
+        if (!pdf) {
+            return extractText(filename, file.getPath(), sink);
+        }
+        
+        // Settings that change the extracted text are part of the key
+        String key = ContentHash.sha256(file.getSha256(),
+            maxChars + "/" + maxPages + "/" + earlyStopChars);
+        String cached = extractionCache.get(key, file.getSize());
+        if (cached != null) {
+            logger.info("⚡ Extraction cache hit for {} ({} characters)", filename, cached.length());
+            if (sink != null) {
+                try {
+                    sink.write(cached);
+                } catch (IOException e) {
+                    throw new PDFExtractionException("Failed to read file", e);
+                }
+            }
+            return cached;
+        }
+        
+        // The returned text is exactly what was written to the sink
+        String text = extractText(filename, file.getPath(), sink);
+        extractionCache.put(key, text);
+        return text;
+    }
+    
+    public String extractText(String filename, Path file, Writer sink) {
+        String type = filename != null && filename.toLowerCase().endsWith(".txt") ? "txt" : "pdf";
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            String text = extract(filename, file, sink);
+            failed = false;
+            return text;
+        } finally {
+            metrics.recordExtraction(type, System.nanoTime() - start, failed);
+        }
+    }
+    
+    private String extract(String filename, Path file, Writer sink) {
         logger.info("📄 Extracting text from file: {}", filename);
         
+        TextCollector text = new TextCollector(maxChars, sink);
         try {
-            byte[] bytes = file.getBytes();
-            String text;
-            
             // Handle text files directly
             if (filename != null && filename.toLowerCase().endsWith(".txt")) {
-                text = new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
+                // InputStreamReader replaces malformed bytes, like new String(bytes, UTF_8) did
+                try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+                    reader.transferTo(text);
+                }
                 logger.info("✅ Read text file: {} characters", text.length());
             } else {
                 // Handle PDF files
-                try (PDDocument document = Loader.loadPDF(bytes)) {
-                    PDFTextStripper stripper = new PDFTextStripper();
-                    text = stripper.getText(document);
-                }
-                logger.info("✅ Extracted {} characters from PDF", text.length());
-            }
-            
-            if (text == null || text.trim().isEmpty()) {
-                throw new PDFExtractionException(
-                    "Could not extract text from file. It may be image-based or empty."
-                );
+                int pages = extractPdf(file, text);
+                logger.info("✅ Extracted {} characters from {} PDF pages", text.length(), pages);
             }
-            
-            return text.trim();
         } catch (IOException e) {
             logger.error("❌ Failed to extract text from file", e);
             throw new PDFExtractionException("Failed to read file", e);
         }
+        
+        String result = text.trimmed();
+        if (result.isEmpty()) {
+            throw new PDFExtractionException(
+                "Could not extract text from file. It may be image-based or empty."
+            );
+        }
+        if (text.truncated()) {
+            logger.warn("⚠️ Extracted text truncated to {} characters", maxChars);
+        }
+        return result;
+    }
+    
+    /**
+     * Extracts up to {@code maxPages} pages and returns how many were read. Documents with at
+     * least {@code parallelMinPages} pages are split into page ranges that are extracted
+     * concurrently and written out in order; with {@code earlyStopChars} set, extraction
+     * stops at the first range boundary where that much text has been collected.
+     */
+    private int extractPdf(Path file, TextCollector text) throws IOException {
+        int lastPage;
+        try (PDDocument document = Loader.loadPDF(file.toFile(), scratch())) {
+            int pages = document.getNumberOfPages();
+            lastPage = maxPages > 0 ? Math.min(pages, maxPages) : pages;
+            if (lastPage < parallelMinPages) {
+                return extractSequential(document, lastPage, text);
+            }
+        }
+        return extractParallel(file, lastPage, text);
+    }
+
+    private int extractSequential(PDDocument document, int lastPage, TextCollector text) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        if (earlyStopChars <= 0) {
+            stripper.setEndPage(lastPage);
+            stripper.writeText(document, text);
+            return lastPage;
+        }
+
+        int endPage = 0;
+        while (endPage < lastPage && text.length() < earlyStopChars) {
+            stripper.setStartPage(endPage + 1);
+            endPage = Math.min(lastPage, endPage + pagesPerTask);
+            stripper.setEndPage(endPage);
+            stripper.writeText(document, text);
+        }
+        return endPage;
+    }
+
+    private int extractParallel(Path file, int lastPage, TextCollector text) throws IOException {
+        // PDDocument is not thread-safe, so each range opens its own document; objects are
+        // parsed lazily, so a task only decodes the pages in its range
+        int ranges = (lastPage + pagesPerTask - 1) / pagesPerTask;
+        int window = parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors();
+        ArrayDeque<Future<String>> inFlight = new ArrayDeque<>();
+        int submitted = 0;
+        int endPage = 0;
+
+        try {
+            while (endPage < lastPage) {
+                // Keep at most one range per pool thread queued ahead of the writer
+                while (submitted < ranges && inFlight.size() < window) {
+                    int startPage = submitted * pagesPerTask + 1;
+                    int rangeEnd = Math.min(lastPage, startPage + pagesPerTask - 1);
+                    inFlight.add(pdfExtractionExecutor.submit(() -> extractRange(file, startPage, rangeEnd)));
+                    submitted++;
+                }
+
+                text.write(await(inFlight.poll()));
+                endPage = Math.min(lastPage, endPage + pagesPerTask);
+                if (earlyStopChars > 0 && text.length() >= earlyStopChars) {
+                    break;
+                }
+            }
+        } finally {
+            for (Future<String> pending : inFlight) {
+                pending.cancel(true);
+            }
+        }
+
+        logger.debug("Extracted pages 1-{} in {} parallel ranges", endPage, submitted);
+        return endPage;
+    }
+
+    private String extractRange(Path file, int startPage, int endPage) throws IOException {
+        try (PDDocument document = Loader.loadPDF(file.toFile(), scratch())) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(startPage);
+            stripper.setEndPage(endPage);
+            return stripper.getText(document);
+        }
+    }
+
+    private static String await(Future<String> range) throws IOException {
+        try {
+            return range.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while extracting PDF pages");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new PDFExtractionException("Failed to extract PDF pages", e.getCause());
+        }
+    }
+
+    // PDFBox keeps at most maxMainMemoryBytes of its own buffers in heap and spills the rest
+    // to scratch files
+    private StreamCacheCreateFunction scratch() {
+        return MemoryUsageSetting.setupMixed(maxMainMemoryBytes).streamCache;
+    }
+    
+    /**
+     * Writer that keeps the first {@code maxChars} characters and forwards them, trimmed, to
+     * an optional downstream sink, so the sink ends up with exactly {@link #trimmed()}.
+     * Leading whitespace is dropped and a whitespace run is held back until more text
+     * follows it.
+     */
+    private static final class TextCollector extends Writer {
+        private final StringBuilder text = new StringBuilder(4096);
+        private final StringBuilder pendingWhitespace = new StringBuilder();
+        private final int maxChars;
+        private final Writer sink;
+        private long length;
+        private boolean started;
+        
+        TextCollector(int maxChars, Writer sink) {
+            this.maxChars = maxChars;
+            this.sink = sink;
+        }
+        
+        @Override
+        public void write(char[] buffer, int offset, int count) throws IOException {
+            int keep = (int) Math.max(0, Math.min(count, maxChars - (long) text.length()));
+            int from = text.length();
+            text.append(buffer, offset, keep);
+            length += count;
+            forward(from);
+        }
+        
+        @Override
+        public void write(String str, int offset, int count) throws IOException {
+            int keep = (int) Math.max(0, Math.min(count, maxChars - (long) text.length()));
+            int from = text.length();
+            text.append(str, offset, offset + keep);
+            length += count;
+            forward(from);
+        }
+        
+        // Sends text[from, end) on to the sink, minus leading and (so far) trailing whitespace
+        private void forward(int from) throws IOException {
+            if (sink == null) {
+                return;
+            }
+            int i = from;
+            int end = text.length();
+            while (i < end) {
+                int runEnd = i;
+                while (runEnd < end && text.charAt(runEnd) <= ' ') {
+                    runEnd++;
+                }
+                if (started) {
+                    pendingWhitespace.append(text, i, runEnd);
+                }
+                if (runEnd == end) {
+                    break;
+                }
+                int wordEnd = runEnd;
+                while (wordEnd < end && text.charAt(wordEnd) > ' ') {
+                    wordEnd++;
+                }
+                if (pendingWhitespace.length() > 0) {
+                    sink.append(pendingWhitespace);
+                    pendingWhitespace.setLength(0);
+                }
+                sink.append(text, runEnd, wordEnd);
+                started = true;
+                i = wordEnd;
+            }
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            if (sink != null) {
+                sink.flush();
+            }
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        long length() {
+            return length;
+        }
+        
+        boolean truncated() {
+            return length > text.length();
+        }
+        
+        // Same result as toString().trim() without the intermediate copy
+        String trimmed() {
+            int start = 0;
+            int end = text.length();
+            while (start < end && text.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && text.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            return text.substring(start, end);
+        }
+    }
+    
+    /**
+     * An upload copied to a temp file, with the SHA-256 of its bytes. Closing deletes the file.
+     */
+    public static final class SpooledFile implements Closeable {
+        private final Path path;
+        private final String sha256;
+        private final long size;
+        
+        SpooledFile(Path path, String sha256, long size) {
+            this.path = path;
+            this.sha256 = sha256;
+            this.size = size;
+        }
+        
+        public Path getPath() {
+            return path;
+        }
+        
+        public String getSha256() {
+            return sha256;
+        }
+        
+        public long getSize() {
+            return size;
+        }
+        
+        @Override
+        public void close() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                logger.warn("⚠️ Failed to delete temp file {}", path, e);
+            }
+        }
     }
 }
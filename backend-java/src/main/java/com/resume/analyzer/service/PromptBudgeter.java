@@ -0,0 +1,348 @@
+package com.resume.analyzer.service;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingResult;
+import com.knuddels.jtokkit.api.EncodingType;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Fits resume and job description text into a token budget before it goes to the model.
+ *
+ * Tokens are counted locally with the model's BPE encoding. When a document is over its
+ * share of the budget, it is cut into lines (long lines into sentences) and the segments
+ * worth the most per token are kept: those mentioning matched or missing skills first,
+ * then content from sections such as experience or requirements, with boilerplate like
+ * benefits or company blurbs last. Kept segments stay in document order, with
+ * {@value #GAP} where text was left out.
+ */
+@Service
+public class PromptBudgeter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromptBudgeter.class);
+
+    static final String GAP = "\n[...]\n";
+
+    // Lines longer than this are split into sentences
+    private static final int MAX_SEGMENT_CHARS = 300;
+
+    // A skill already covered by a kept segment counts this much in later ones
+    private static final double REPEAT_WEIGHT = 0.25;
+
+    private static final Map<String, Double> SECTION_PRIORS = Map.ofEntries(
+        Map.entry("summary", 1.0),
+        Map.entry("experience", 1.0),
+        Map.entry("projects", 0.8),
+        Map.entry("skills", 0.6),
+        Map.entry("certifications", 0.5),
+        Map.entry("education", 0.5),
+        Map.entry("responsibilities", 1.0),
+        Map.entry("requirements", 1.2),
+        Map.entry("awards", 0.3),
+        Map.entry("publications", 0.3),
+        Map.entry("languages", 0.2),
+        Map.entry("volunteering", 0.2),
+        Map.entry("contact", 0.0),
+        Map.entry("benefits", 0.0),
+        Map.entry("company", 0.0)
+    );
+    private static final double DEFAULT_PRIOR = 0.3;
+
+    @Value("${openai.model}")
+    private String model;
+
+    @Value("${openai.prompt.input-tokens}")
+    private int inputTokens;
+
+    @Value("${openai.prompt.resume-share}")
+    private double resumeShare;
+
+    private Encoding encoding;
+
+    @PostConstruct
+    public void init() {
+        EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+        encoding = registry.getEncodingForModel(model)
+            .orElseGet(() -> registry.getEncoding(EncodingType.CL100K_BASE));
+        logger.info("✅ Prompt budget: {} input tokens ({} encoding)", inputTokens, encoding.getName());
+    }
+
+    public int countTokens(String text) {
+        return text.isEmpty() ? 0 : encoding.countTokens(text);
+    }
+
+    /**
+     * The prefix of {@code text} made of its first {@code maxTokens} tokens, with its token
+     * count. The text is encoded once; when it runs over, the kept tokens are decoded back.
+     */
+    public Fitted fit(String text, int maxTokens) {
+        // Special-token markup in uploaded text is just text here
+        EncodingResult encoded = encoding.encodeOrdinary(text, maxTokens);
+        String kept = encoded.isTruncated() ? encoding.decode(encoded.getTokens()) : text;
+        return new Fitted(kept, encoded.getTokens().size());
+    }
+
+    /**
+     * Resume and job description text for one prompt, together within the configured
+     * input budget. Whichever document needs less than its share leaves the rest to the other.
+     */
+    public Excerpts excerpts(
+            AnalyzedDocument resume,
+            AnalyzedDocument job,
+            Collection<String> matchedSkills,
+            Collection<String> missingSkills
+    ) {
+        int resumeTokens = countTokens(resume.text());
+        int jobTokens = countTokens(job.text());
+        if (resumeTokens + jobTokens <= inputTokens) {
+            return new Excerpts(resume.text(), job.text(), resumeTokens, jobTokens);
+        }
+
+        int resumeBudget = (int) (inputTokens * resumeShare);
+        int jobBudget = inputTokens - resumeBudget;
+        if (jobTokens < jobBudget) {
+            resumeBudget = inputTokens - jobTokens;
+        } else if (resumeTokens < resumeBudget) {
+            jobBudget = inputTokens - resumeTokens;
+        }
+
+        Map<String, Double> resumeWeights = skillWeights(matchedSkills, 3.0, missingSkills, 3.0);
+        Map<String, Double> jobWeights = skillWeights(missingSkills, 3.0, matchedSkills, 2.0);
+        String resumeExcerpt = resumeTokens <= resumeBudget ? resume.text() : select(resume, resumeBudget, resumeWeights);
+        String jobExcerpt = jobTokens <= jobBudget ? job.text() : select(job, jobBudget, jobWeights);
+
+        Excerpts excerpts = new Excerpts(resumeExcerpt, jobExcerpt, countTokens(resumeExcerpt), countTokens(jobExcerpt));
+        logger.info("✂️ Prompt excerpts: resume {} -> {} tokens, job {} -> {} tokens",
+            resumeTokens, excerpts.getResumeTokens(), jobTokens, excerpts.getJobTokens());
+        return excerpts;
+    }
+
+    // Greedy selection by value per token; gains only shrink as skills get covered, so a
+    // popped segment whose recomputed gain still beats the next one is the true best
+    String select(AnalyzedDocument document, int budget, Map<String, Double> skillWeights) {
+        List<Segment> segments = segments(document);
+        Set<String> covered = new HashSet<>();
+        PriorityQueue<Segment> queue = new PriorityQueue<>(Comparator.comparingDouble((Segment s) -> -s.density));
+        for (Segment segment : segments) {
+            segment.density = gain(segment, skillWeights, covered) / (segment.tokens + 4);
+            if (segment.density > 0) {
+                queue.add(segment);
+            }
+        }
+
+        int gapTokens = countTokens(GAP);
+        int remaining = budget;
+        while (!queue.isEmpty()) {
+            Segment best = queue.poll();
+            if (best.tokens + gapTokens > remaining) {
+                continue;
+            }
+            double density = gain(best, skillWeights, covered) / (best.tokens + 4);
+            if (density <= 0) {
+                continue;
+            }
+            if (!queue.isEmpty() && density < queue.peek().density) {
+                best.density = density;
+                queue.add(best);
+                continue;
+            }
+            best.selected = true;
+            remaining -= best.tokens + gapTokens;
+            covered.addAll(best.skills);
+        }
+
+        // Headings of sections with kept content, for context
+        Set<AnalyzedDocument.Section> keptSections = new HashSet<>();
+        for (Segment segment : segments) {
+            if (segment.selected && segment.section != null) {
+                keptSections.add(segment.section);
+            }
+        }
+        for (Segment segment : segments) {
+            if (segment.heading != null && !segment.selected && keptSections.contains(segment.section)
+                    && segment.tokens + gapTokens <= remaining) {
+                segment.selected = true;
+                remaining -= segment.tokens + gapTokens;
+            }
+        }
+
+        String text = document.text();
+        StringBuilder excerpt = new StringBuilder();
+        int previous = -1;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            if (!segment.selected) {
+                continue;
+            }
+            if (previous >= 0) {
+                excerpt.append(previous + 1 == i ? text.substring(segments.get(previous).end, segment.start) : GAP);
+            } else if (segment.start > 0) {
+                excerpt.append(GAP, 1, GAP.length());
+            }
+            excerpt.append(text, segment.start, segment.end);
+            previous = i;
+        }
+        if (previous >= 0 && segments.get(previous).end < text.length()) {
+            excerpt.append(GAP, 0, GAP.length() - 1);
+        }
+        return excerpt.toString();
+    }
+
+    private double gain(Segment segment, Map<String, Double> skillWeights, Set<String> covered) {
+        double gain = segment.prior;
+        for (String skill : segment.skills) {
+            double weight = skillWeights.getOrDefault(skill, 1.0);
+            gain += covered.contains(skill) ? weight * REPEAT_WEIGHT : weight;
+        }
+        return gain;
+    }
+
+    // Lines, with long lines split after sentence ends, tagged with section and skills
+    private List<Segment> segments(AnalyzedDocument document) {
+        String text = document.text();
+        List<Segment> segments = new ArrayList<>();
+        for (int line = 0; line < document.lineCount(); line++) {
+            int start = document.lineStart(line);
+            int end = document.lineEnd(line);
+            while (end - start > MAX_SEGMENT_CHARS) {
+                int cut = sentenceEnd(text, start + MAX_SEGMENT_CHARS / 3, end);
+                if (cut < 0) {
+                    break;
+                }
+                segments.add(new Segment(start, cut));
+                start = cut + 1;
+            }
+            if (end > start) {
+                segments.add(new Segment(start, end));
+            }
+        }
+
+        List<AnalyzedDocument.Section> sections = document.sections();
+        List<AnalyzedDocument.Mention> mentions = document.mentions();
+        int section = 0;
+        int mention = 0;
+        for (Segment segment : segments) {
+            while (section < sections.size() && sections.get(section).getEnd() <= segment.start) {
+                section++;
+            }
+            if (section < sections.size() && sections.get(section).getStart() <= segment.start) {
+                AnalyzedDocument.Section current = sections.get(section);
+                segment.section = current;
+                segment.prior = SECTION_PRIORS.getOrDefault(current.getName(), DEFAULT_PRIOR);
+                if (current.getStart() == segment.start) {
+                    segment.heading = current.getName();
+                    segment.prior = 0;
+                }
+            } else {
+                segment.prior = DEFAULT_PRIOR;
+            }
+            while (mention < mentions.size() && mentions.get(mention).getStart() < segment.start) {
+                mention++;
+            }
+            for (int m = mention; m < mentions.size() && mentions.get(m).getStart() < segment.end; m++) {
+                if (mentions.get(m).getEnd() <= segment.end) {
+                    segment.skills.add(mentions.get(m).getSkill());
+                }
+            }
+            segment.tokens = countTokens(text.substring(segment.start, segment.end));
+        }
+        return segments;
+    }
+
+    // Index of the first ". ", "! ", "? " or "; " space at or after from, or -1
+    private static int sentenceEnd(String text, int from, int end) {
+        for (int i = Math.max(from, 1); i < end; i++) {
+            char previous = text.charAt(i - 1);
+            if (text.charAt(i) == ' ' && (previous == '.' || previous == '!' || previous == '?' || previous == ';')) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Map<String, Double> skillWeights(
+            Collection<String> primary, double primaryWeight,
+            Collection<String> secondary, double secondaryWeight
+    ) {
+        Map<String, Double> weights = new HashMap<>();
+        for (String skill : secondary) {
+            weights.put(skill, secondaryWeight);
+        }
+        for (String skill : primary) {
+            weights.put(skill, primaryWeight);
+        }
+        return weights;
+    }
+
+    private static final class Segment {
+        final int start;
+        final int end;
+        final Set<String> skills = new HashSet<>();
+        AnalyzedDocument.Section section;
+        String heading;
+        double prior;
+        int tokens;
+        double density;
+        boolean selected;
+
+        Segment(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    public static final class Fitted {
+        private final String text;
+        private final int tokens;
+
+        Fitted(String text, int tokens) {
+            this.text = text;
+            this.tokens = tokens;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getTokens() {
+            return tokens;
+        }
+    }
+
+    public static final class Excerpts {
+        private final String resume;
+        private final String job;
+        private final int resumeTokens;
+        private final int jobTokens;
+
+        Excerpts(String resume, String job, int resumeTokens, int jobTokens) {
+            this.resume = resume;
+            this.job = job;
+            this.resumeTokens = resumeTokens;
+            this.jobTokens = jobTokens;
+        }
+
+        public String getResume() {
+            return resume;
+        }
+
+        public String getJob() {
+            return job;
+        }
+
+        public int getResumeTokens() {
+            return resumeTokens;
+        }
+
+        public int getJobTokens() {
+            return jobTokens;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.index.Bm25Index;
+import com.resume.analyzer.index.ResumeIndex;
+import com.resume.analyzer.model.JobProfile;
+import com.resume.analyzer.model.MatchResult;
+import com.resume.analyzer.model.MatchesResponse;
+import com.resume.analyzer.vector.DenseVector;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the skills and embedding of the last {@code resumes.store.max-entries} analyzed
+ * resumes so registered jobs can be matched against all of them with
+ * {@code GET /jobs/{id}/matches}.
+ *
+ * The semantic index is (re)trained in the background once the store holds
+ * {@code resumes.index.min-train-size} resumes and again each time it doubles; until then
+ * searches scan all vectors.
+ *
+ * Resumes are also added to a {@link Bm25Index} of their words and skills by section, for
+ * {@code scorer=bm25} rankings. That index is kept on disk at
+ * {@code resumes.keyword-index.path}: new resumes are flushed to it in the background
+ * every {@code flush-documents} resumes or {@code flush-interval-ms}, and on shutdown.
+ */
+@Service
+public class ResumeStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumeStore.class);
+
+    @Value("${resumes.store.enabled}")
+    private boolean enabled;
+
+    @Value("${resumes.store.max-entries}")
+    private int maxEntries;
+
+    @Value("${resumes.index.min-train-size}")
+    private int minTrainSize;
+
+    @Value("${resumes.index.nprobe}")
+    private int nprobe;
+
+    @Value("${resumes.index.candidates-per-match}")
+    private int candidatesPerMatch;
+
+    @Value("${resumes.keyword-index.path:}")
+    private String keywordIndexPath;
+
+    @Value("${resumes.keyword-index.flush-documents}")
+    private int flushDocuments;
+
+    @Value("${resumes.keyword-index.k1}")
+    private float k1;
+
+    @Value("${resumes.keyword-index.b}")
+    private float b;
+
+    @Value("${resumes.keyword-index.query-terms}")
+    private int queryTerms;
+
+    @Value("${resumes.keyword-index.skill-weight}")
+    private float skillWeight;
+
+    @Value("${resumes.keyword-index.field-weights.skills}")
+    private float skillsFieldWeight;
+
+    @Value("${resumes.keyword-index.field-weights.experience}")
+    private float experienceFieldWeight;
+
+    @Value("${resumes.keyword-index.field-weights.projects}")
+    private float projectsFieldWeight;
+
+    @Value("${resumes.keyword-index.field-weights.other}")
+    private float otherFieldWeight;
+
+    @Autowired
+    private AnalysisMetrics metrics;
+
+    private ResumeIndex index;
+
+    private Bm25Index keywordIndex;
+    private Path temporaryDirectory;
+    private float[] fieldWeights;
+
+    private final ExecutorService trainer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "resume-index-trainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService keywordIndexWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "keyword-index-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean training = new AtomicBoolean();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private volatile int trainedSize;
+
+    @PostConstruct
+    public void init() throws IOException {
+        index = new ResumeIndex(maxEntries);
+
+        Path directory;
+        if (keywordIndexPath == null || keywordIndexPath.isBlank()) {
+            temporaryDirectory = Files.createTempDirectory("keyword-index");
+            directory = temporaryDirectory;
+        } else {
+            directory = Path.of(keywordIndexPath);
+        }
+        keywordIndex = new Bm25Index(directory, ResumeTerms.FIELD_COUNT, k1, b);
+
+        fieldWeights = new float[ResumeTerms.FIELD_COUNT];
+        fieldWeights[ResumeTerms.SKILLS] = skillsFieldWeight;
+        fieldWeights[ResumeTerms.EXPERIENCE] = experienceFieldWeight;
+        fieldWeights[ResumeTerms.PROJECTS] = projectsFieldWeight;
+        fieldWeights[ResumeTerms.OTHER] = otherFieldWeight;
+
+        metrics.gauge("resumes.keyword_index.documents", keywordIndex, Bm25Index::size);
+        metrics.gauge("resumes.keyword_index.segments", keywordIndex, Bm25Index::segmentCount);
+        metrics.gauge("resumes.keyword_index.bytes", keywordIndex, Bm25Index::estimatedBytes);
+    }
+
+    public void add(String resumeId, String resumeName, AnalyzedDocument document, DenseVector embedding) {
+        if (!enabled) {
+            return;
+        }
+
+        // The keyword index outlives restarts, so it may know resumes the in-memory index doesn't
+        if (!keywordIndex.contains(resumeId)) {
+            ResumeTerms terms = ResumeTerms.of(document);
+            keywordIndex.add(resumeId, resumeName, terms.frequencies(), terms.lengths());
+            if (keywordIndex.bufferedDocuments() >= flushDocuments) {
+                flushKeywordIndex();
+            }
+        }
+
+        if (!index.add(resumeId, resumeName, document.skills(), embedding)) {
+            return;
+        }
+
+        int size = index.size();
+        if (size >= Math.max(minTrainSize, 2 * trainedSize) && training.compareAndSet(false, true)) {
+            trainer.execute(() -> train(size));
+        }
+    }
+
+    public MatchesResponse matches(JobProfile job, int k, boolean exact) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+
+        long start = System.nanoTime();
+        ResumeIndex.SearchResult result = index.search(
+            job.getSkills(), job.getEmbedding(), k, exact, nprobe, Math.max(k * candidatesPerMatch, 100));
+        long tookMs = (System.nanoTime() - start) / 1_000_000;
+
+        List<MatchResult> matches = new ArrayList<>(result.getMatches().size());
+        for (ResumeIndex.Match match : result.getMatches()) {
+            matches.add(MatchResult.builder()
+                .resumeId(match.getId())
+                .resumeFilename(match.getName())
+                .matchScore(Math.round(match.getMatchScore() * 10.0) / 10.0)
+                .keywordScore(Math.round(match.getKeywordScore() * 10.0) / 10.0)
+                .semanticScore(Math.round(match.getSemanticScore() * 10.0) / 10.0)
+                .build());
+        }
+
+        logger.info("🔎 Matched job {} against {} resumes ({} scored) in {} ms",
+                   job.getId(), result.getTotalResumes(), result.getCandidatesScored(), tookMs);
+
+        return MatchesResponse.builder()
+            .jobId(job.getId())
+            .k(k)
+            .mode(result.isApproximate() ? "approximate" : "exact")
+            .totalResumes(result.getTotalResumes())
+            .candidatesScored(result.getCandidatesScored())
+            .tookMs(tookMs)
+            .matches(matches)
+            .build();
+    }
+
+    /**
+     * Ranks every stored resume against {@code job} by BM25F keyword relevance alone.
+     * {@code matchScore} is the score as a percentage of the best the job's terms allow.
+     */
+    public MatchesResponse rank(JobProfile job, int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+
+        long start = System.nanoTime();
+        Bm25Index.SearchResult result = keywordIndex.search(
+            ResumeTerms.query(job.getDocument(), skillWeight), fieldWeights, k, queryTerms);
+        long tookMs = (System.nanoTime() - start) / 1_000_000;
+
+        List<MatchResult> matches = new ArrayList<>(result.getMatches().size());
+        for (Bm25Index.Match match : result.getMatches()) {
+            matches.add(MatchResult.builder()
+                .resumeId(match.getId())
+                .resumeFilename(match.getName())
+                .matchScore(Math.round(match.getRelevance() * 10.0) / 10.0)
+                .bm25Score(Math.round(match.getScore() * 100.0) / 100.0)
+                .build());
+        }
+
+        logger.info("🔎 Ranked {} resumes for job {} by keywords ({} terms, {} matched) in {} ms",
+                   result.getTotalDocuments(), job.getId(), result.getTermsUsed(), result.getDocumentsMatched(), tookMs);
+
+        return MatchesResponse.builder()
+            .jobId(job.getId())
+            .k(k)
+            .mode("bm25")
+            .totalResumes((int) result.getTotalDocuments())
+            .candidatesScored(result.getDocumentsMatched())
+            .tookMs(tookMs)
+            .matches(matches)
+            .build();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Writes resumes added since the last flush to the keyword index's segment files and
+     * merges segments, on the writer thread. Does nothing if a flush is already running.
+     */
+    @Scheduled(fixedDelayString = "${resumes.keyword-index.flush-interval-ms}")
+    public void flushKeywordIndex() {
+        if (keywordIndex.bufferedDocuments() == 0 || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+        keywordIndexWriter.execute(() -> {
+            try {
+                keywordIndex.flush();
+                while (keywordIndex.merge()) {
+                    // Keep merging while the newest segments are of similar size
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("⚠️ Failed to flush the keyword index", e);
+            } finally {
+                flushing.set(false);
+            }
+        });
+    }
+
+    private void train(int size) {
+        try {
+            // sqrt(N) lists keeps both the centroid scan and the probed lists small
+            int nlist = Math.min(1024, Math.max(16, (int) Math.sqrt(size)));
+            long start = System.currentTimeMillis();
+            index.train(nlist, nlist * 32, 8, size);
+            trainedSize = size;
+            logger.info("🧭 Trained resume index: {} lists over {} resumes in {} ms",
+                       nlist, size, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ Resume index training failed", e);
+        } finally {
+            training.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        trainer.shutdownNow();
+        keywordIndexWriter.shutdown();
+        if (temporaryDirectory != null) {
+            deleteRecursively(temporaryDirectory);
+        } else {
+            // Waits for a running flush or merge, then writes what is left
+            keywordIndex.close();
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (var paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
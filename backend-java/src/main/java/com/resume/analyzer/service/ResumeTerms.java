@@ -0,0 +1,138 @@
+package com.resume.analyzer.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The keyword index's view of a document: per-field counts of its words and skills.
+ *
+ * Words are lowercased letter-and-digit tokens, minus stopwords and bare numbers. Each
+ * skill mention also counts as a {@code skill:<canonical name>} term, so aliases ("k8s",
+ * "kubernetes") and multi-word skills match as one term. A token's field is that of the
+ * section it appears in; text before the first heading, and sections other than skills,
+ * experience and projects, fall under {@link #OTHER}.
+ */
+final class ResumeTerms {
+
+    static final int SKILLS = 0;
+    static final int EXPERIENCE = 1;
+    static final int PROJECTS = 2;
+    static final int OTHER = 3;
+    static final int FIELD_COUNT = 4;
+
+    static final String SKILL_PREFIX = "skill:";
+
+    private static final int MAX_WORD_LENGTH = 40;
+
+    private final Map<String, int[]> frequencies = new HashMap<>();
+    private final int[] lengths = new int[FIELD_COUNT];
+
+    private ResumeTerms() {
+    }
+
+    static ResumeTerms of(AnalyzedDocument document) {
+        ResumeTerms terms = new ResumeTerms();
+        String text = document.text();
+        FieldCursor fields = new FieldCursor(document.sections());
+
+        for (int token = 0; token < document.tokenCount(); token++) {
+            int start = document.tokenStart(token);
+            int end = document.tokenEnd(token);
+            if (end - start < 2 || end - start > MAX_WORD_LENGTH || !hasLetter(text, start, end)) {
+                continue;
+            }
+            String word = text.substring(start, end).toLowerCase(Locale.ROOT);
+            if (Stopwords.WORDS.contains(word)) {
+                continue;
+            }
+            int field = fields.at(start);
+            terms.count(word, field);
+            terms.lengths[field]++;
+        }
+
+        // Mentions are ordered by position too, so a fresh cursor walks forward again
+        fields = new FieldCursor(document.sections());
+        for (AnalyzedDocument.Mention mention : document.mentions()) {
+            terms.count(SKILL_PREFIX + mention.getSkill(), fields.at(mention.getStart()));
+        }
+        return terms;
+    }
+
+    /**
+     * A job description as a keyword query: each distinct word weighted by
+     * {@code 1 + ln(count)} and each skill by {@code skillWeight}.
+     */
+    static Map<String, Float> query(AnalyzedDocument job, float skillWeight) {
+        Map<String, Float> query = new HashMap<>();
+        for (Map.Entry<String, int[]> entry : of(job).frequencies.entrySet()) {
+            String term = entry.getKey();
+            if (term.startsWith(SKILL_PREFIX)) {
+                query.put(term, skillWeight);
+            } else {
+                int count = 0;
+                for (int fieldCount : entry.getValue()) {
+                    count += fieldCount;
+                }
+                query.put(term, 1f + (float) Math.log(count));
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Term to count per field, indexed by the field constants.
+     */
+    Map<String, int[]> frequencies() {
+        return frequencies;
+    }
+
+    /**
+     * Words per field; skill terms are not counted.
+     */
+    int[] lengths() {
+        return lengths;
+    }
+
+    private void count(String term, int field) {
+        frequencies.computeIfAbsent(term, t -> new int[FIELD_COUNT])[field]++;
+    }
+
+    static int field(String section) {
+        return switch (section) {
+            case "skills" -> SKILLS;
+            case "experience" -> EXPERIENCE;
+            case "projects" -> PROJECTS;
+            default -> OTHER;
+        };
+    }
+
+    private static boolean hasLetter(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (Character.isLetter(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Maps increasing offsets to the field of the section containing them
+    private static final class FieldCursor {
+        private final List<AnalyzedDocument.Section> sections;
+        private int current = -1;
+
+        FieldCursor(List<AnalyzedDocument.Section> sections) {
+            this.sections = sections;
+        }
+
+        int at(int offset) {
+            while (current + 1 < sections.size() && sections.get(current + 1).getStart() <= offset) {
+                current++;
+            }
+            return current >= 0 && offset < sections.get(current).getEnd()
+                ? field(sections.get(current).getName())
+                : OTHER;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.resume.analyzer.service;
+
+import java.util.*;
+
+/**
+ * Aho-Corasick automaton over a fixed dictionary of lowercase skill terms.
+ *
+ * Built once and then shared read-only between request threads. Terms are identified by
+ * their position in the list passed to the constructor; the automaton itself keeps only
+ * primitive arrays, not the term strings.
+ *
+ * A single pass over the text reports every dictionary term, with the same word-boundary
+ * rules as the
+ * {@code \b<term>\b} regex used previously: a match counts only if the character before it
+ * and its first character differ in "wordness", and likewise for its last character and the
+ * character after it. This keeps results for terms such as "c++", "c#", "node.js" and
+ * "ci/cd" identical to the old per-skill regex scan. With {@code wholeWords} off, terms
+ * match anywhere, like {@link String#contains}.
+ */
+public final class SkillMatcher {
+
+    private final int[] termLengths;
+    private final boolean wholeWords;
+
+    // Goto function in compressed sparse row form: edges of node n live in
+    // [edgeStart[n], edgeStart[n + 1]) sorted by character.
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+
+    private final int[] fail;
+    // Term id ending exactly at this node, or -1.
+    private final int[] terminal;
+    // Nearest node on the fail chain (excluding this node) that has a terminal, or -1.
+    private final int[] outputLink;
+
+    public SkillMatcher(List<String> terms) {
+        this(terms, true);
+    }
+
+    public SkillMatcher(List<String> terms, boolean wholeWords) {
+        this.termLengths = new int[terms.size()];
+        this.wholeWords = wholeWords;
+
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<Integer> terminals = new ArrayList<>();
+        children.add(new HashMap<>());
+        terminals.add(-1);
+
+        for (int id = 0; id < terms.size(); id++) {
+            String term = terms.get(id);
+            if (term == null || term.isEmpty()) {
+                continue;
+            }
+            termLengths[id] = term.length();
+            int node = 0;
+            for (int i = 0; i < term.length(); i++) {
+                Integer next = children.get(node).get(term.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.get(node).put(term.charAt(i), next);
+                    children.add(new HashMap<>());
+                    terminals.add(-1);
+                }
+                node = next;
+            }
+            terminals.set(node, id);
+        }
+
+        int nodeCount = children.size();
+        int edgeCount = 0;
+        for (Map<Character, Integer> edges : children) {
+            edgeCount += edges.size();
+        }
+
+        this.edgeStart = new int[nodeCount + 1];
+        this.edgeChars = new char[edgeCount];
+        this.edgeTargets = new int[edgeCount];
+        this.terminal = new int[nodeCount];
+        int offset = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStart[node] = offset;
+            terminal[node] = terminals.get(node);
+            for (Map.Entry<Character, Integer> edge : new TreeMap<>(children.get(node)).entrySet()) {
+                edgeChars[offset] = edge.getKey();
+                edgeTargets[offset] = edge.getValue();
+                offset++;
+            }
+        }
+        edgeStart[nodeCount] = offset;
+
+        this.fail = new int[nodeCount];
+        this.outputLink = new int[nodeCount];
+        Arrays.fill(outputLink, -1);
+
+        // Breadth-first so every node's fail target is finalized before its children.
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+            queue.add(edgeTargets[e]);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                char c = edgeChars[e];
+                int child = edgeTargets[e];
+                int f = fail[node];
+                int target;
+                while ((target = transition(f, c)) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[child] = target < 0 ? 0 : target;
+                int failNode = fail[child];
+                outputLink[child] = terminal[failNode] >= 0 ? failNode : outputLink[failNode];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of every dictionary term that occurs in {@code text} (on word boundaries
+     * when matching whole words). The text is expected to already be lowercased, as the dictionary is.
+     */
+    public BitSet findIds(CharSequence text) {
+        BitSet found = new BitSet();
+        if (text == null || termLengths.length == 0) {
+            return found;
+        }
+
+        int state = 0;
+        int length = text.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = transition(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = next < 0 ? 0 : next;
+
+            for (int node = terminal[state] >= 0 ? state : outputLink[state]; node >= 0; node = outputLink[node]) {
+                int id = terminal[node];
+                if (!found.get(id) && (!wholeWords || isBounded(text, i - termLengths[id] + 1, i + 1))) {
+                    found.set(id);
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Returns an incremental matcher for text that arrives in pieces, e.g. while a PDF is
+     * still being parsed. Feeding the pieces in order and calling {@link Scanner#finish()}
+     * gives the same ids as {@link #findIds} on the concatenated text.
+     */
+    public Scanner scanner() {
+        return new Scanner();
+    }
+
+    public int size() {
+        return termLengths.length;
+    }
+
+    public int termLength(int id) {
+        return termLengths[id];
+    }
+
+    public int nodeCount() {
+        return fail.length;
+    }
+
+    /**
+     * Approximate retained heap of the automaton's arrays, excluding object headers.
+     */
+    public long estimatedBytes() {
+        return 4L * (termLengths.length + edgeStart.length + edgeTargets.length
+            + fail.length + terminal.length + outputLink.length)
+            + 2L * edgeChars.length;
+    }
+
+    private int transition(int node, char c) {
+        int lo = edgeStart[node];
+        int hi = edgeStart[node + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char midChar = edgeChars[mid];
+            if (midChar < c) {
+                lo = mid + 1;
+            } else if (midChar > c) {
+                hi = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBounded(CharSequence text, int start, int end) {
+        boolean before = start > 0 && isWordChar(text.charAt(start - 1));
+        boolean after = end < text.length() && isWordChar(text.charAt(end));
+        return before != isWordChar(text.charAt(start)) && isWordChar(text.charAt(end - 1)) != after;
+    }
+
+    // Mirrors java.util.regex's notion of a word character for \b.
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Streaming counterpart of {@link #findIds}. Keeps only the last few characters (enough
+     * to check the boundary before the longest term) and defers the boundary check after a
+     * match until the next character arrives. Also records where each match starts, for
+     * callers that need positions. Not thread-safe; one scanner per text.
+     */
+    public final class Scanner {
+
+        private final char[] window;
+        private final int mask;
+        private final BitSet found = new BitSet();
+        // Terms that ended on the previous character and still need their trailing boundary checked
+        private int[] pending = new int[8];
+        private long[] pendingStarts = new long[8];
+        private int pendingCount;
+        private int[] occurrenceIds = new int[16];
+        private long[] occurrenceStarts = new long[16];
+        private int occurrenceCount;
+        private int state;
+        private long position;
+
+        private Scanner() {
+            int longest = 0;
+            for (int length : termLengths) {
+                longest = Math.max(longest, length);
+            }
+            int capacity = Integer.highestOneBit(longest + 1) << 1;
+            this.window = new char[capacity];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * Feeds the next character, which must already be lowercased.
+         */
+        public void accept(char c) {
+            boolean word = isWordChar(c);
+            for (int p = 0; p < pendingCount; p++) {
+                if (isWordChar(window[(int) ((position - 1) & mask)]) != word) {
+                    record(pending[p], pendingStarts[p]);
+                }
+            }
+            pendingCount = 0;
+
+            window[(int) (position & mask)] = c;
+            int next;
+            while ((next = transition(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = next < 0 ? 0 : next;
+
+            for (int node = terminal[state] >= 0 ? state : outputLink[state]; node >= 0; node = outputLink[node]) {
+                int id = terminal[node];
+                long start = position - termLengths[id] + 1;
+                if (!wholeWords) {
+                    record(id, start);
+                    continue;
+                }
+                boolean before = start > 0 && isWordChar(window[(int) ((start - 1) & mask)]);
+                if (before != isWordChar(window[(int) (start & mask)])) {
+                    if (pendingCount == pending.length) {
+                        pending = Arrays.copyOf(pending, pendingCount * 2);
+                        pendingStarts = Arrays.copyOf(pendingStarts, pendingCount * 2);
+                    }
+                    pending[pendingCount] = id;
+                    pendingStarts[pendingCount++] = start;
+                }
+            }
+            position++;
+        }
+
+        /**
+         * Completes any match that ended on the last character and returns all ids found.
+         */
+        public BitSet finish() {
+            if (pendingCount > 0 && isWordChar(window[(int) ((position - 1) & mask)])) {
+                for (int p = 0; p < pendingCount; p++) {
+                    record(pending[p], pendingStarts[p]);
+                }
+            }
+            pendingCount = 0;
+            return found;
+        }
+
+        /**
+         * Number of matches seen, counting every occurrence of a term and not just the first.
+         * Valid after {@link #finish()}; matches are in order of their end position.
+         */
+        public int occurrences() {
+            return occurrenceCount;
+        }
+
+        public int occurrenceId(int index) {
+            return occurrenceIds[index];
+        }
+
+        public long occurrenceStart(int index) {
+            return occurrenceStarts[index];
+        }
+
+        public long length() {
+            return position;
+        }
+
+        private void record(int id, long start) {
+            found.set(id);
+            if (occurrenceCount == occurrenceIds.length) {
+                occurrenceIds = Arrays.copyOf(occurrenceIds, occurrenceCount * 2);
+                occurrenceStarts = Arrays.copyOf(occurrenceStarts, occurrenceCount * 2);
+            }
+            occurrenceIds[occurrenceCount] = id;
+            occurrenceStarts[occurrenceCount++] = start;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.resume.analyzer.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Immutable skill index: canonical skills, their categories and every surface form
+ * (canonical name plus aliases) compiled into one {@link SkillMatcher}.
+ *
+ * Taxonomy files have one skill per line in the form
+ * {@code canonical | category | alias, alias, ...}; category and aliases are optional,
+ * blank lines and lines starting with {@code #} are ignored.
+ */
+public final class SkillTaxonomy {
+
+    private final String[] canonicalNames;
+    private final String[] categoryNames;
+    private final short[] categoryOf;
+    // Surface form id (matcher term id) -> canonical skill id.
+    private final int[] skillOfSurface;
+    private final Map<String, Integer> skillIds;
+    private final SkillMatcher matcher;
+    private final long buildNanos;
+
+    private SkillTaxonomy(
+            List<String> canonicals,
+            List<String> categories,
+            List<Short> skillCategories,
+            List<String> surfaces,
+            List<Integer> surfaceSkills,
+            long startNanos
+    ) {
+        this.canonicalNames = canonicals.toArray(new String[0]);
+        this.categoryNames = categories.toArray(new String[0]);
+        this.categoryOf = new short[skillCategories.size()];
+        for (int i = 0; i < categoryOf.length; i++) {
+            categoryOf[i] = skillCategories.get(i);
+        }
+        this.skillOfSurface = surfaceSkills.stream().mapToInt(Integer::intValue).toArray();
+        this.skillIds = new HashMap<>(canonicalNames.length * 2);
+        for (int i = 0; i < canonicalNames.length; i++) {
+            skillIds.put(canonicalNames[i], i);
+        }
+        this.matcher = new SkillMatcher(surfaces);
+        this.buildNanos = System.nanoTime() - startNanos;
+    }
+
+    public static SkillTaxonomy parse(BufferedReader reader) throws IOException {
+        long start = System.nanoTime();
+
+        List<String> canonicals = new ArrayList<>();
+        List<String> categories = new ArrayList<>();
+        Map<String, Short> categoryIds = new HashMap<>();
+        List<Short> skillCategories = new ArrayList<>();
+        Map<String, Integer> skillIds = new HashMap<>();
+        Map<String, Integer> surfaceIds = new LinkedHashMap<>();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields = trimmed.split("\\|", -1);
+            String canonical = fields[0].trim().toLowerCase();
+            if (canonical.isEmpty()) {
+                throw new IllegalArgumentException("Missing canonical skill on taxonomy line " + lineNumber);
+            }
+            String category = fields.length > 1 ? fields[1].trim().toLowerCase() : "";
+
+            Integer skillId = skillIds.get(canonical);
+            if (skillId == null) {
+                Short categoryId = categoryIds.get(category);
+                if (categoryId == null) {
+                    if (categories.size() == Short.MAX_VALUE) {
+                        throw new IllegalArgumentException("Too many skill categories in taxonomy");
+                    }
+                    categoryId = (short) categories.size();
+                    categoryIds.put(category, categoryId);
+                    categories.add(category);
+                }
+                skillId = canonicals.size();
+                skillIds.put(canonical, skillId);
+                canonicals.add(canonical.intern());
+                skillCategories.add(categoryId);
+            }
+
+            surfaceIds.putIfAbsent(canonical, skillId);
+            if (fields.length > 2) {
+                for (String alias : fields[2].split(",")) {
+                    String surface = alias.trim().toLowerCase();
+                    if (!surface.isEmpty()) {
+                        surfaceIds.putIfAbsent(surface, skillId);
+                    }
+                }
+            }
+        }
+
+        return new SkillTaxonomy(
+            canonicals, categories, skillCategories,
+            new ArrayList<>(surfaceIds.keySet()), new ArrayList<>(surfaceIds.values()),
+            start
+        );
+    }
+
+    /**
+     * Returns the canonical names of all skills mentioned in {@code lowerText},
+     * with aliases folded onto their canonical skill.
+     */
+    public Set<String> extractSkills(String lowerText) {
+        return canonicalSkills(matcher.findIds(lowerText));
+    }
+
+    /**
+     * Returns a {@link Writer} that extracts skills from text as it is written, for
+     * callers that produce text incrementally. Characters are lowercased on the way in.
+     */
+    public Scanner scanner() {
+        return new Scanner(matcher.scanner());
+    }
+
+    public String categoryOf(String canonicalSkill) {
+        Integer id = skillIds.get(canonicalSkill);
+        return id == null ? null : categoryNames[categoryOf[id]];
+    }
+
+    public int skillCount() {
+        return canonicalNames.length;
+    }
+
+    public int surfaceCount() {
+        return skillOfSurface.length;
+    }
+
+    public long buildMillis() {
+        return buildNanos / 1_000_000;
+    }
+
+    /**
+     * Approximate retained heap of the index: automaton arrays, id tables and the
+     * canonical/category strings (Latin-1 compact strings assumed).
+     */
+    public long estimatedBytes() {
+        long bytes = matcher.estimatedBytes();
+        bytes += 4L * skillOfSurface.length + 2L * categoryOf.length;
+        for (String name : canonicalNames) {
+            bytes += 40 + name.length();
+        }
+        for (String name : categoryNames) {
+            bytes += 40 + name.length();
+        }
+        // HashMap entry plus boxed id per canonical skill
+        bytes += 48L * canonicalNames.length;
+        return bytes;
+    }
+
+    private Set<String> canonicalSkills(BitSet surfaces) {
+        Set<String> found = new HashSet<>();
+        for (int id = surfaces.nextSetBit(0); id >= 0; id = surfaces.nextSetBit(id + 1)) {
+            found.add(canonicalNames[skillOfSurface[id]]);
+        }
+        return found;
+    }
+
+    public final class Scanner extends Writer {
+
+        private final SkillMatcher.Scanner scanner;
+
+        private Scanner(SkillMatcher.Scanner scanner) {
+            this.scanner = scanner;
+        }
+
+        public void accept(char c) {
+            scanner.accept(Character.toLowerCase(c));
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                scanner.accept(Character.toLowerCase(buffer[i]));
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                scanner.accept(Character.toLowerCase(text.charAt(i)));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        /**
+         * Number of characters written so far.
+         */
+        public long length() {
+            return scanner.length();
+        }
+
+        public Set<String> skills() {
+            return canonicalSkills(scanner.finish());
+        }
+
+        /**
+         * Every occurrence of a skill (by any of its surface forms), ordered by position.
+         */
+        public List<AnalyzedDocument.Mention> mentions() {
+            scanner.finish();
+            List<AnalyzedDocument.Mention> mentions = new ArrayList<>(scanner.occurrences());
+            for (int i = 0; i < scanner.occurrences(); i++) {
+                int surface = scanner.occurrenceId(i);
+                int start = (int) scanner.occurrenceStart(i);
+                mentions.add(new AnalyzedDocument.Mention(
+                    canonicalNames[skillOfSurface[surface]], start, start + matcher.termLength(surface)));
+            }
+            mentions.sort(Comparator.comparingInt(AnalyzedDocument.Mention::getStart));
+            return mentions;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.resume.analyzer.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class SkillTaxonomyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SkillTaxonomyService.class);
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${skills.taxonomy.location}")
+    private String location;
+
+    // Requests read the reference once per extraction, so a swap never affects in-flight work
+    private final AtomicReference<SkillTaxonomy> current = new AtomicReference<>();
+    private volatile long loadedLastModified;
+
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load skill taxonomy from " + location, e);
+        }
+    }
+
+    public SkillTaxonomy current() {
+        return current.get();
+    }
+
+    public synchronized SkillTaxonomy reload() throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        long lastModified = lastModified(resource);
+
+        SkillTaxonomy taxonomy;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            taxonomy = SkillTaxonomy.parse(reader);
+        }
+
+        current.set(taxonomy);
+        loadedLastModified = lastModified;
+
+        logger.info("📚 Loaded skill taxonomy from {}: {} skills, {} surface forms, ~{} KB, built in {} ms",
+                   location, taxonomy.skillCount(), taxonomy.surfaceCount(),
+                   taxonomy.estimatedBytes() / 1024, taxonomy.buildMillis());
+        return taxonomy;
+    }
+
+    @Scheduled(
+        initialDelayString = "${skills.taxonomy.reload-interval-ms}",
+        fixedDelayString = "${skills.taxonomy.reload-interval-ms}"
+    )
+    public void reloadIfChanged() {
+        Resource resource = resourceLoader.getResource(location);
+        long lastModified = lastModified(resource);
+        if (lastModified <= 0 || lastModified == loadedLastModified) {
+            return;
+        }
+
+        try {
+            reload();
+        } catch (Exception e) {
+            // Keep serving the previous index rather than failing requests
+            logger.error("❌ Failed to reload skill taxonomy, keeping previous version", e);
+        }
+    }
+
+    private long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
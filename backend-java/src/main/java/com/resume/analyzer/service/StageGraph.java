@@ -0,0 +1,140 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.model.StageTiming;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One request's worth of analysis stages. Each stage runs on the shared executor as soon
+ * as the stages it depends on have completed, and records when it started and how long
+ * it took relative to the creation of the graph. Durations also go to the
+ * {@code analysis.stage} timer.
+ */
+public final class StageGraph {
+
+    private final Executor executor;
+    private final AnalysisMetrics metrics;
+    private final long createdNanos = System.nanoTime();
+    private final ConcurrentLinkedQueue<StageTiming> timings = new ConcurrentLinkedQueue<>();
+
+    public StageGraph(Executor executor, AnalysisMetrics metrics) {
+        this.executor = executor;
+        this.metrics = metrics;
+    }
+
+    public <T> CompletableFuture<T> stage(String name, Supplier<T> work) {
+        return CompletableFuture.supplyAsync(() -> timed(name, work), executor);
+    }
+
+    public <A, T> CompletableFuture<T> stage(
+            String name,
+            CompletableFuture<A> input,
+            Function<? super A, ? extends T> work
+    ) {
+        return input.thenApplyAsync(a -> timed(name, () -> work.apply(a)), executor);
+    }
+
+    public <A, B, T> CompletableFuture<T> stage(
+            String name,
+            CompletableFuture<A> first,
+            CompletableFuture<B> second,
+            BiFunction<? super A, ? super B, ? extends T> work
+    ) {
+        return first.thenCombineAsync(second, (a, b) -> timed(name, () -> work.apply(a, b)), executor);
+    }
+
+    /**
+     * A stage whose work completes asynchronously, e.g. an upstream call handed off to a
+     * batcher. Its duration runs until the returned future completes.
+     */
+    public <A, T> CompletableFuture<T> asyncStage(
+            String name,
+            CompletableFuture<A> input,
+            Function<? super A, CompletableFuture<T>> work
+    ) {
+        return input.thenComposeAsync(a -> {
+            long start = System.nanoTime();
+            String thread = Thread.currentThread().getName();
+            return work.apply(a).whenComplete((result, error) -> record(name, start, thread, error != null));
+        }, executor);
+    }
+
+    public <A, B, T> CompletableFuture<T> asyncStage(
+            String name,
+            CompletableFuture<A> first,
+            CompletableFuture<B> second,
+            BiFunction<? super A, ? super B, CompletableFuture<T>> work
+    ) {
+        return asyncStage(name, first.thenCombine(second, Map::entry),
+            inputs -> work.apply(inputs.getKey(), inputs.getValue()));
+    }
+
+    /**
+     * Waits for a stage and rethrows its failure unwrapped, so callers see the same
+     * exceptions the stage code threw.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Analysis interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public List<StageTiming> timings() {
+        List<StageTiming> sorted = new ArrayList<>(timings);
+        sorted.sort(Comparator.comparing(StageTiming::getStartMs));
+        return sorted;
+    }
+
+    private <T> T timed(String name, Supplier<? extends T> work) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = work.get();
+            failed = false;
+            return result;
+        } finally {
+            record(name, start, Thread.currentThread().getName(), failed);
+        }
+    }
+
+    private void record(String name, long start, String thread, boolean failed) {
+        long end = System.nanoTime();
+        metrics.recordStage(name, end - start, failed);
+        timings.add(StageTiming.builder()
+            .stage(name)
+            .startMs(toMillis(start - createdNanos))
+            .durationMs(toMillis(end - start))
+            .thread(thread)
+            .build());
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
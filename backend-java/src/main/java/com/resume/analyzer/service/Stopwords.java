@@ -0,0 +1,23 @@
+package com.resume.analyzer.service;
+
+import java.util.Set;
+
+/**
+ * Common English words that say nothing about a candidate or a role, skipped by the local
+ * embedder and the keyword index.
+ */
+final class Stopwords {
+
+    static final Set<String> WORDS = Set.of(
+        "a", "about", "after", "all", "also", "an", "and", "any", "are", "as", "at", "be", "been",
+        "being", "but", "by", "can", "could", "do", "does", "each", "for", "from", "had", "has",
+        "have", "he", "her", "his", "how", "i", "if", "in", "into", "is", "it", "its", "me", "more",
+        "most", "my", "no", "not", "of", "on", "or", "other", "our", "out", "over", "she", "so",
+        "such", "than", "that", "the", "their", "them", "then", "there", "these", "they", "this",
+        "those", "to", "up", "us", "was", "we", "were", "what", "when", "where", "which", "while",
+        "who", "will", "with", "would", "you", "your"
+    );
+
+    private Stopwords() {
+    }
+}
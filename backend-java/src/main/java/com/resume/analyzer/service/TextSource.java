@@ -0,0 +1,15 @@
+package com.resume.analyzer.service;
+
+import java.io.Writer;
+
+/**
+ * Produces a resume's text for the analysis pipeline.
+ *
+ * Implementations write the text to {@code sink} as it is extracted (so consumers such as
+ * skill extraction can work incrementally) and also return the complete text.
+ */
+@FunctionalInterface
+public interface TextSource {
+
+    String extract(Writer sink);
+}
@@ -0,0 +1,546 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.exception.UpstreamOverloadedException;
+import com.resume.analyzer.model.UpstreamStats;
+import com.theokanning.openai.OpenAiHttpException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import retrofit2.HttpException;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Admission control for every upstream OpenAI call, per endpoint (chat, embeddings):
+ *
+ * <ul>
+ *   <li>Request and token budgets per minute, refilled continuously and corrected from the
+ *       {@code x-ratelimit-*} headers on every response, so calls wait here instead of
+ *       being rejected upstream.</li>
+ *   <li>A concurrency limit that adapts to the service: it grows by one per window of calls
+ *       while it is the bottleneck and latency is steady, and is cut when latency rises
+ *       well above its long-term average (x0.9) or on a 429 / 503 / timeout (x0.5).</li>
+ *   <li>A priority queue: interactive calls always go before batch work. A 429 pauses
+ *       the endpoint for the advertised reset time and the call is retried.</li>
+ * </ul>
+ *
+ * Work that can't start within its priority's maximum wait, or arrives when that
+ * priority's queue is full, fails with {@link UpstreamOverloadedException} - interactive
+ * calls after seconds, batch calls only after minutes.
+ */
+@Service
+public class UpstreamScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamScheduler.class);
+
+    public enum Priority {
+        INTERACTIVE,
+        BATCH
+    }
+
+    public enum Endpoint {
+        CHAT("/chat/completions"),
+        EMBEDDINGS("/embeddings");
+
+        private final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+    }
+
+    // Durations as sent in x-ratelimit-reset-*, e.g. "20ms", "1.5s", "6m0s"
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    private static final double LATENCY_DECREASE = 0.9;
+    private static final double OVERLOAD_DECREASE = 0.5;
+    private static final long DEFAULT_PAUSE_MS = 1000;
+
+    @Value("${openai.scheduler.initial-limit}")
+    private int initialLimit;
+
+    @Value("${openai.scheduler.max-limit}")
+    private int maxLimit;
+
+    @Value("${openai.scheduler.latency-tolerance}")
+    private double latencyTolerance;
+
+    @Value("${openai.scheduler.max-queued}")
+    private int maxQueued;
+
+    @Value("${openai.scheduler.interactive-max-wait-ms}")
+    private long interactiveMaxWaitMs;
+
+    @Value("${openai.scheduler.batch-max-wait-ms}")
+    private long batchMaxWaitMs;
+
+    @Value("${openai.scheduler.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${openai.limits.chat.requests-per-minute}")
+    private double chatRequestsPerMinute;
+
+    @Value("${openai.limits.chat.tokens-per-minute}")
+    private double chatTokensPerMinute;
+
+    @Value("${openai.limits.embeddings.requests-per-minute}")
+    private double embeddingRequestsPerMinute;
+
+    @Value("${openai.limits.embeddings.tokens-per-minute}")
+    private double embeddingTokensPerMinute;
+
+    @Autowired
+    private AnalysisMetrics metrics;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "upstream-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Endpoint, Lane> lanes = new EnumMap<>(Endpoint.class);
+    private final AtomicLong sequence = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        lanes.put(Endpoint.CHAT, new Lane(Endpoint.CHAT, chatRequestsPerMinute, chatTokensPerMinute));
+        lanes.put(Endpoint.EMBEDDINGS, new Lane(Endpoint.EMBEDDINGS, embeddingRequestsPerMinute, embeddingTokensPerMinute));
+        for (Lane lane : lanes.values()) {
+            String endpoint = lane.endpoint.name().toLowerCase();
+            metrics.gauge("openai.concurrency.limit", lane, l -> (int) l.limit, "endpoint", endpoint);
+            metrics.gauge("openai.inflight", lane, l -> l.inFlight, "endpoint", endpoint);
+            for (Priority priority : Priority.values()) {
+                metrics.gauge("openai.queued", lane, l -> l.queued[priority.ordinal()],
+                    "endpoint", endpoint, "priority", priority.name().toLowerCase());
+            }
+        }
+        logger.info("✅ Upstream scheduler: concurrency {} (max {}), chat {} req / {} tokens per minute",
+            initialLimit, maxLimit, (long) chatRequestsPerMinute, (long) chatTokensPerMinute);
+    }
+
+    /**
+     * Runs {@code call} once the endpoint has budget and a free concurrency slot, ahead of
+     * any queued work of lower priority. {@code tokens} is the call's expected cost against
+     * the tokens-per-minute budget (prompt plus maximum completion). Rate-limited calls are
+     * retried, so {@code call} may be invoked more than once.
+     */
+    public <T> CompletableFuture<T> submit(
+            Endpoint endpoint,
+            Priority priority,
+            int tokens,
+            Supplier<CompletableFuture<T>> call
+    ) {
+        Lane lane = lanes.get(endpoint);
+        long now = System.nanoTime();
+        long maxWaitMs = priority == Priority.INTERACTIVE ? interactiveMaxWaitMs : batchMaxWaitMs;
+        Task<T> task = new Task<>(priority, sequence.getAndIncrement(), tokens, now,
+            now + TimeUnit.MILLISECONDS.toNanos(maxWaitMs), call);
+
+        synchronized (lane) {
+            if (lane.queued[priority.ordinal()] >= maxQueued) {
+                lane.shed++;
+                metrics.recordShed(endpoint.name().toLowerCase(), priority.name().toLowerCase());
+                task.result.completeExceptionally(new UpstreamOverloadedException(
+                    endpoint.name().toLowerCase() + " queue for " + priority.name().toLowerCase() + " calls is full"));
+                return task.result;
+            }
+            lane.queue.add(task);
+            lane.queued[priority.ordinal()]++;
+        }
+        drain(lane);
+        return task.result;
+    }
+
+    /**
+     * Feeds the rate-limit headers of every OpenAI response back into the budgets.
+     */
+    public Interceptor rateLimitInterceptor() {
+        return chain -> {
+            Response response = chain.proceed(chain.request());
+            String path = chain.request().url().encodedPath();
+            for (Lane lane : lanes.values()) {
+                if (path.endsWith(lane.endpoint.path)) {
+                    lane.observe(response.code(), response::header);
+                }
+            }
+            return response;
+        };
+    }
+
+    public Map<String, UpstreamStats> stats() {
+        Map<String, UpstreamStats> stats = new LinkedHashMap<>();
+        for (Lane lane : lanes.values()) {
+            stats.put(lane.endpoint.name().toLowerCase(), lane.stats());
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    // Starts every queued call the lane has room and budget for
+    private void drain(Lane lane) {
+        List<Task<?>> ready = new ArrayList<>();
+        List<Task<?>> expired = new ArrayList<>();
+        synchronized (lane) {
+            long now = System.nanoTime();
+            lane.refill(now);
+
+            long wakeAt = Long.MAX_VALUE;
+            for (Iterator<Task<?>> it = lane.queue.iterator(); it.hasNext(); ) {
+                Task<?> task = it.next();
+                if (task.result.isDone() || task.deadline <= now) {
+                    it.remove();
+                    lane.queued[task.priority.ordinal()]--;
+                    if (!task.result.isDone()) {
+                        expired.add(task);
+                    }
+                } else {
+                    wakeAt = Math.min(wakeAt, task.deadline);
+                }
+            }
+
+            while (!lane.queue.isEmpty()) {
+                if (now < lane.pausedUntil) {
+                    wakeAt = Math.min(wakeAt, lane.pausedUntil);
+                    break;
+                }
+                if (lane.inFlight >= (int) lane.limit) {
+                    // A completion will drain again
+                    break;
+                }
+                Task<?> head = lane.queue.peek();
+                // A call larger than the whole budget can only ever go with a full bucket
+                double tokens = Math.min(head.tokens, lane.tokenCapacity);
+                long waitNanos = lane.nanosUntilAvailable(tokens);
+                if (waitNanos > 0) {
+                    wakeAt = Math.min(wakeAt, now + waitNanos);
+                    break;
+                }
+                lane.queue.poll();
+                lane.queued[head.priority.ordinal()]--;
+                lane.requestLevel -= 1;
+                lane.tokenLevel -= tokens;
+                lane.inFlight++;
+                ready.add(head);
+            }
+
+            if (!lane.queue.isEmpty() && wakeAt != Long.MAX_VALUE) {
+                lane.wakeAt(wakeAt, now);
+            }
+            lane.shed += expired.size();
+        }
+
+        for (Task<?> task : expired) {
+            metrics.recordShed(lane.endpoint.name().toLowerCase(), task.priority.name().toLowerCase());
+            task.result.completeExceptionally(new UpstreamOverloadedException(
+                "no " + lane.endpoint.name().toLowerCase() + " capacity within the "
+                    + task.priority.name().toLowerCase() + " wait limit"));
+        }
+        for (Task<?> task : ready) {
+            start(lane, task);
+        }
+    }
+
+    private <T> void start(Lane lane, Task<T> task) {
+        task.attempts++;
+        long started = System.nanoTime();
+        String endpoint = lane.endpoint.name().toLowerCase();
+        metrics.recordQueueWait(endpoint, task.priority.name().toLowerCase(), started - task.queuedAt);
+        CompletableFuture<T> call;
+        try {
+            call = task.call.get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+
+        call.whenComplete((result, error) -> {
+            long now = System.nanoTime();
+            metrics.recordUpstream(endpoint, now - started, error == null ? "success"
+                : isRateLimited(error) ? "rate_limited"
+                : unwrap(error) instanceof TimeoutException ? "timeout"
+                : "error");
+            boolean retry = false;
+            synchronized (lane) {
+                lane.inFlight--;
+                if (error == null) {
+                    lane.onSuccess((now - started) / 1_000_000.0);
+                } else if (isOverload(error)) {
+                    lane.onOverload(now);
+                    retry = isRateLimited(error) && task.attempts < maxAttempts && task.deadline > now
+                        && !task.result.isDone();
+                    if (retry) {
+                        lane.retried++;
+                        task.queuedAt = now;
+                        lane.queue.add(task);
+                        lane.queued[task.priority.ordinal()]++;
+                    }
+                }
+            }
+            if (!retry) {
+                if (error == null) {
+                    task.result.complete(result);
+                } else {
+                    task.result.completeExceptionally(error);
+                }
+            }
+            drain(lane);
+        });
+    }
+
+    private static boolean isRateLimited(Throwable error) {
+        int status = statusOf(error);
+        return status == 429 || status == 503;
+    }
+
+    private static boolean isOverload(Throwable error) {
+        return isRateLimited(error) || unwrap(error) instanceof TimeoutException;
+    }
+
+    private static int statusOf(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof HttpException http) {
+            return http.code();
+        }
+        if (cause instanceof OpenAiHttpException api) {
+            return api.statusCode;
+        }
+        return -1;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    // Milliseconds in a reset duration, or -1 if absent or unparseable
+    static long parseDurationMs(String value) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        Matcher matcher = DURATION_PART.matcher(value.trim());
+        double ms = 0;
+        boolean found = false;
+        while (matcher.find()) {
+            double amount = Double.parseDouble(matcher.group(1));
+            ms += switch (matcher.group(2)) {
+                case "h" -> amount * 3_600_000;
+                case "m" -> amount * 60_000;
+                case "s" -> amount * 1000;
+                default -> amount;
+            };
+            found = true;
+        }
+        return found ? (long) Math.ceil(ms) : -1;
+    }
+
+    private static double parseNumber(String value) {
+        try {
+            return value == null ? -1 : Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private final class Lane {
+        final Endpoint endpoint;
+        final PriorityQueue<Task<?>> queue = new PriorityQueue<>(Comparator
+            .comparing((Task<?> t) -> t.priority)
+            .thenComparingLong(t -> t.sequence));
+        final int[] queued = new int[Priority.values().length];
+
+        double limit = initialLimit;
+        int inFlight;
+
+        double requestCapacity;
+        double requestLevel;
+        double tokenCapacity;
+        double tokenLevel;
+        long refilledAt = System.nanoTime();
+        // nanoTime has an arbitrary origin, so "not paused" is a time already passed, not 0
+        long pausedUntil = refilledAt;
+
+        double longLatencyMs;
+        double shortLatencyMs;
+        boolean decreased;
+        long lastDecrease;
+
+        ScheduledFuture<?> wakeUp;
+        long wakeUpAt;
+
+        long completed;
+        long rateLimited;
+        long retried;
+        long shed;
+
+        Lane(Endpoint endpoint, double requestsPerMinute, double tokensPerMinute) {
+            this.endpoint = endpoint;
+            this.requestCapacity = requestLevel = requestsPerMinute;
+            this.tokenCapacity = tokenLevel = tokensPerMinute;
+        }
+
+        void refill(long now) {
+            double minutes = (now - refilledAt) / 60e9;
+            requestLevel = Math.min(requestCapacity, requestLevel + minutes * requestCapacity);
+            tokenLevel = Math.min(tokenCapacity, tokenLevel + minutes * tokenCapacity);
+            refilledAt = now;
+        }
+
+        long nanosUntilAvailable(double tokens) {
+            double requestMinutes = requestLevel >= 1 ? 0 : (1 - requestLevel) / requestCapacity;
+            double tokenMinutes = tokenLevel >= tokens ? 0 : (tokens - tokenLevel) / tokenCapacity;
+            return (long) Math.ceil(Math.max(requestMinutes, tokenMinutes) * 60e9);
+        }
+
+        void onSuccess(double latencyMs) {
+            completed++;
+            longLatencyMs = longLatencyMs == 0 ? latencyMs : longLatencyMs * 0.95 + latencyMs * 0.05;
+            shortLatencyMs = shortLatencyMs == 0 ? latencyMs : shortLatencyMs * 0.7 + latencyMs * 0.3;
+            long now = System.nanoTime();
+            if (shortLatencyMs > longLatencyMs * latencyTolerance) {
+                decrease(LATENCY_DECREASE, now);
+            } else if (inFlight + 1 >= (int) limit) {
+                // Only grow while the limit is what holds calls back
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+
+        void onOverload(long now) {
+            rateLimited++;
+            decrease(OVERLOAD_DECREASE, now);
+        }
+
+        // At most once per typical call duration, so a burst of failures from one
+        // overload counts as a single event
+        void decrease(double factor, long now) {
+            long cooldown = TimeUnit.MILLISECONDS.toNanos((long) Math.max(longLatencyMs, 100));
+            if (decreased && now - lastDecrease < cooldown) {
+                return;
+            }
+            decreased = true;
+            lastDecrease = now;
+            double previous = limit;
+            limit = Math.max(1, limit * factor);
+            if ((int) previous != (int) limit) {
+                logger.info("📉 {} concurrency limit {} -> {}", endpoint.name().toLowerCase(), (int) previous, (int) limit);
+            }
+        }
+
+        void observe(int status, Function<String, String> header) {
+            String kind = endpoint.name().toLowerCase();
+            double limitRequests = parseNumber(header.apply("x-ratelimit-limit-requests"));
+            double limitTokens = parseNumber(header.apply("x-ratelimit-limit-tokens"));
+            double remainingRequests = parseNumber(header.apply("x-ratelimit-remaining-requests"));
+            double remainingTokens = parseNumber(header.apply("x-ratelimit-remaining-tokens"));
+            long resetRequestsMs = parseDurationMs(header.apply("x-ratelimit-reset-requests"));
+            long resetTokensMs = parseDurationMs(header.apply("x-ratelimit-reset-tokens"));
+
+            long pauseMs = -1;
+            if (status == 429 || status == 503) {
+                double retryAfterMs = parseNumber(header.apply("retry-after-ms"));
+                double retryAfterSeconds = parseNumber(header.apply("retry-after"));
+                pauseMs = retryAfterMs >= 0 ? (long) retryAfterMs
+                    : retryAfterSeconds >= 0 ? (long) (retryAfterSeconds * 1000)
+                    : Math.max(Math.max(resetRequestsMs, resetTokensMs), DEFAULT_PAUSE_MS);
+            } else if (remainingRequests == 0 || remainingTokens == 0) {
+                pauseMs = remainingRequests == 0 ? resetRequestsMs : resetTokensMs;
+            }
+
+            synchronized (this) {
+                refill(System.nanoTime());
+                if (limitRequests > 0) {
+                    requestCapacity = limitRequests;
+                }
+                if (limitTokens > 0) {
+                    tokenCapacity = limitTokens;
+                }
+                // The server also counts other clients on the same key; never assume more
+                if (remainingRequests >= 0) {
+                    requestLevel = Math.min(requestLevel, remainingRequests);
+                }
+                if (remainingTokens >= 0) {
+                    tokenLevel = Math.min(tokenLevel, remainingTokens);
+                }
+                if (pauseMs > 0) {
+                    pausedUntil = Math.max(pausedUntil, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pauseMs));
+                }
+            }
+            if (status == 429) {
+                logger.warn("⚠️ OpenAI {} rate limit hit, pausing {} ms", kind, pauseMs);
+            }
+        }
+
+        // Called with the lane locked. A wake-up that is due has already started (or is
+        // this very drain), so it can't stand in for a later one.
+        void wakeAt(long at, long now) {
+            if (wakeUp != null && !wakeUp.isDone() && wakeUpAt > now && wakeUpAt <= at) {
+                return;
+            }
+            if (wakeUp != null) {
+                wakeUp.cancel(false);
+            }
+            wakeUpAt = at;
+            wakeUp = timer.schedule(() -> drain(this), Math.max(0, at - now), TimeUnit.NANOSECONDS);
+        }
+
+        synchronized UpstreamStats stats() {
+            refill(System.nanoTime());
+            return UpstreamStats.builder()
+                .concurrencyLimit((int) limit)
+                .inFlight(inFlight)
+                .queuedInteractive(queued[Priority.INTERACTIVE.ordinal()])
+                .queuedBatch(queued[Priority.BATCH.ordinal()])
+                .requestBudget((long) requestLevel)
+                .tokenBudget((long) tokenLevel)
+                .latencyMs(Math.round(longLatencyMs * 10.0) / 10.0)
+                .completed(completed)
+                .rateLimited(rateLimited)
+                .retried(retried)
+                .shed(shed)
+                .build();
+        }
+    }
+
+    private static final class Task<T> {
+        final Priority priority;
+        final long sequence;
+        final int tokens;
+        final long deadline;
+        final Supplier<CompletableFuture<T>> call;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        int attempts;
+        long queuedAt;
+
+        Task(Priority priority, long sequence, int tokens, long queuedAt, long deadline, Supplier<CompletableFuture<T>> call) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.tokens = tokens;
+            this.queuedAt = queuedAt;
+            this.deadline = deadline;
+            this.call = call;
+        }
+    }
+}
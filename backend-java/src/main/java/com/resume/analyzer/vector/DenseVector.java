@@ -0,0 +1,68 @@
+package com.resume.analyzer.vector;
+
+import java.util.List;
+
+/**
+ * Immutable embedding vector backed by a primitive {@code float[]}, scaled to unit length
+ * on construction so cosine similarity is a single dot product.
+ */
+public final class DenseVector {
+
+    private final float[] values;
+
+    private DenseVector(float[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Wraps values that are already unit length, e.g. read back from the embedding cache.
+     * The array is not copied and must not be modified afterwards.
+     */
+    public static DenseVector ofNormalized(float[] values) {
+        return new DenseVector(values);
+    }
+
+    /**
+     * Copies and normalizes {@code values}. A zero vector stays zero.
+     */
+    public static DenseVector of(float[] values) {
+        float[] copy = values.clone();
+        float norm = (float) Math.sqrt(VectorMath.dot(copy, copy));
+        if (norm > 0f) {
+            float scale = 1f / norm;
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] *= scale;
+            }
+        }
+        return new DenseVector(copy);
+    }
+
+    public static DenseVector of(List<Double> values) {
+        float[] array = new float[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i).floatValue();
+        }
+        return of(array);
+    }
+
+    public int dimensions() {
+        return values.length;
+    }
+
+    /**
+     * Cosine similarity with {@code other}; 0 when the dimensions differ.
+     */
+    public double cosine(DenseVector other) {
+        if (values.length != other.values.length) {
+            return 0.0;
+        }
+        return VectorMath.dot(values, other.values);
+    }
+
+    /**
+     * Backing array, exposed for serialization and index building. Do not modify.
+     */
+    public float[] values() {
+        return values;
+    }
+}
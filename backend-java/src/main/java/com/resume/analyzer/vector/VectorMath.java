@@ -0,0 +1,82 @@
+package com.resume.analyzer.vector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dot-product kernel used by all similarity scoring. Uses the incubating Java Vector API
+ * when the JVM was started with {@code --add-modules jdk.incubator.vector}, otherwise an
+ * unrolled scalar loop with independent accumulators.
+ */
+public final class VectorMath {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorMath.class);
+    private static final boolean SIMD = detectSimd();
+
+    private VectorMath() {
+    }
+
+    public static float dot(float[] a, float[] b) {
+        return SIMD ? SimdKernels.dot(a, b) : scalarDot(a, b);
+    }
+
+    /**
+     * Dot product of a float query with an int8-quantized vector, before applying the
+     * quantized vector's scale.
+     */
+    public static float dot(float[] a, byte[] b) {
+        return SIMD ? SimdKernels.dot(a, b) : scalarDot(a, b);
+    }
+
+    public static boolean isSimd() {
+        return SIMD;
+    }
+
+    static float scalarDot(float[] a, float[] b) {
+        int length = Math.min(a.length, b.length);
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    static float scalarDot(float[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static boolean detectSimd() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            logger.info("Vector API not enabled, using scalar similarity kernel");
+            return false;
+        }
+        try {
+            SimdKernels.dot(new float[] {1f}, new float[] {1f});
+            SimdKernels.dot(new float[] {1f}, new byte[] {1});
+            logger.info("✅ Using Vector API similarity kernel");
+            return true;
+        } catch (LinkageError e) {
+            logger.info("Vector API unavailable ({}), using scalar similarity kernel", e.toString());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.resume.analyzer.vector;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernels. Only loaded after {@code VectorMath} has confirmed the incubator
+ * module is present, so the rest of the code never links against it directly. Kept in
+ * its own source set, the only one compiled with the module added.
+ */
+final class SimdKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    // Byte species with one lane per float lane; null when that would be narrower than
+    // the smallest vector shape (64 bits), in which case byte kernels stay scalar.
+    private static final VectorSpecies<Byte> BYTE_SPECIES = SPECIES.length() >= 8
+        ? ByteVector.SPECIES_64.withShape(VectorShape.forBitSize(SPECIES.length() * 8))
+        : null;
+
+    private SimdKernels() {
+    }
+
+    static float dot(float[] a, float[] b) {
+        int length = Math.min(a.length, b.length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, i);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    static float dot(float[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        // Without a byte species to match, the whole vector goes through the scalar tail
+        int bound = BYTE_SPECIES != null ? SPECIES.loopBound(length) : 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, i);
+            FloatVector vb = (FloatVector) ByteVector.fromArray(BYTE_SPECIES, b, i).castShape(SPECIES, 0);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
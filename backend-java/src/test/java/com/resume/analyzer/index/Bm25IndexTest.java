@@ -0,0 +1,174 @@
+package com.resume.analyzer.index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link Bm25Index} against a brute-force BM25F over the same documents, with documents
+ * spread over merged segments, a flushed segment and the in-memory buffer.
+ */
+class Bm25IndexTest {
+
+    private static final int FIELDS = 4;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float[] FIELD_WEIGHTS = {2.0f, 1.5f, 1.2f, 1.0f};
+
+    @TempDir
+    Path directory;
+
+    private final List<Map<String, int[]>> documents = new ArrayList<>();
+    private final List<int[]> lengths = new ArrayList<>();
+    private Bm25Index index;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    @Test
+    void matchesBruteForceAcrossSegmentsAndBuffer() throws IOException {
+        Random random = new Random(2);
+        index = new Bm25Index(directory, FIELDS, K1, B);
+        for (int n = 0; n < 7000; n++) {
+            add(random, n);
+            if (random.nextInt(900) == 0) {
+                index.flush();
+                while (index.merge()) {
+                    // Merge down as the service does
+                }
+            }
+        }
+        assertTrue(index.segmentCount() > 1, "documents span several segments");
+        assertTrue(index.bufferedDocuments() > 0, "some documents are still buffered");
+
+        for (int q = 0; q < 50; q++) {
+            assertMatchesBruteForce(randomQuery(random), 20);
+        }
+    }
+
+    @Test
+    void matchesBruteForceAfterReopening() throws IOException {
+        Random random = new Random(9);
+        index = new Bm25Index(directory, FIELDS, K1, B);
+        for (int n = 0; n < 2000; n++) {
+            add(random, n);
+        }
+        index.close();
+
+        index = new Bm25Index(directory, FIELDS, K1, B);
+        assertEquals(documents.size(), index.size());
+        for (int q = 0; q < 20; q++) {
+            assertMatchesBruteForce(randomQuery(random), 10);
+        }
+    }
+
+    private void add(Random random, int n) {
+        Map<String, int[]> frequencies = new HashMap<>();
+        int[] fieldLengths = new int[FIELDS];
+        int words = 20 + random.nextInt(80);
+        for (int i = 0; i < words; i++) {
+            int word = (int) Math.min(1999, Math.abs(random.nextGaussian()) * 300);
+            int field = random.nextInt(FIELDS);
+            frequencies.computeIfAbsent("w" + word, w -> new int[FIELDS])[field]++;
+            fieldLengths[field]++;
+        }
+        documents.add(frequencies);
+        lengths.add(fieldLengths);
+        assertTrue(index.add(id(n), "resume-" + n + ".pdf", frequencies, fieldLengths));
+    }
+
+    private static Map<String, Float> randomQuery(Random random) {
+        Map<String, Float> query = new HashMap<>();
+        int terms = 1 + random.nextInt(8);
+        while (query.size() < terms) {
+            query.put("w" + random.nextInt(1200), 1f + random.nextInt(3));
+        }
+        return query;
+    }
+
+    private void assertMatchesBruteForce(Map<String, Float> query, int k) {
+        double[] expected = bruteForce(query);
+        int matched = 0;
+        for (double score : expected) {
+            if (score > 0) {
+                matched++;
+            }
+        }
+
+        Bm25Index.SearchResult result = index.search(query, FIELD_WEIGHTS, k, query.size());
+        assertEquals(documents.size(), result.getTotalDocuments());
+        assertEquals(matched, result.getDocumentsMatched(), "documents matched for " + query);
+
+        double[] ranked = expected.clone();
+        Arrays.sort(ranked);
+        List<Bm25Index.Match> matches = result.getMatches();
+        assertEquals(Math.min(k, matched), matches.size(), "matches for " + query);
+        for (int i = 0; i < matches.size(); i++) {
+            Bm25Index.Match match = matches.get(i);
+            int document = (int) Long.parseLong(match.getId(), 16);
+            assertEquals("resume-" + document + ".pdf", match.getName());
+            // Ties may come back in either order, so compare scores rather than ids
+            double best = ranked[ranked.length - 1 - i];
+            assertEquals(best, match.getScore(), 1e-4 * best, "score at rank " + i + " for " + query);
+            assertEquals(expected[document], match.getScore(), 1e-4 * best, "score of " + match.getId() + " for " + query);
+        }
+    }
+
+    private double[] bruteForce(Map<String, Float> query) {
+        int total = documents.size();
+        double[] average = new double[FIELDS];
+        for (int[] fieldLengths : lengths) {
+            for (int f = 0; f < FIELDS; f++) {
+                average[f] += fieldLengths[f];
+            }
+        }
+        for (int f = 0; f < FIELDS; f++) {
+            average[f] /= total;
+        }
+
+        double[] scores = new double[total];
+        for (Map.Entry<String, Float> term : query.entrySet()) {
+            int df = 0;
+            for (Map<String, int[]> document : documents) {
+                if (document.containsKey(term.getKey())) {
+                    df++;
+                }
+            }
+            double idf = Math.log(1 + (total - df + 0.5) / (df + 0.5));
+            for (int d = 0; d < total; d++) {
+                int[] counts = documents.get(d).get(term.getKey());
+                if (counts == null) {
+                    continue;
+                }
+                double tf = 0;
+                for (int f = 0; f < FIELDS; f++) {
+                    if (counts[f] > 0) {
+                        tf += FIELD_WEIGHTS[f] * counts[f] / (1 - B + B * lengths.get(d)[f] / average[f]);
+                    }
+                }
+                scores[d] += term.getValue() * idf * tf * (K1 + 1) / (K1 + tf);
+            }
+        }
+        return scores;
+    }
+
+    private static String id(int n) {
+        return String.format("%016x", n);
+    }
+}
@@ -0,0 +1,94 @@
+package com.resume.analyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link AtsScanner} against the regexes and {@code contains} checks ATSService used before
+ * it, on random text fed in random chunk sizes.
+ */
+class AtsScannerTest {
+
+    private static final int INPUTS = 50_000;
+
+    private static final Pattern EMAIL = Pattern.compile("[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}");
+    private static final Pattern PHONE = Pattern.compile("\\+?\\d{1,3}?[-.\\s]?\\(?\\d{1,4}\\)?[-.\\s]?\\d{1,4}[-.\\s]?\\d{1,9}");
+    private static final Pattern DATE = Pattern.compile("(Jan|Feb|Mar|Apr|May|Jun|Jul|Aug|Sep|Oct|Nov|Dec|January|February|March|April|May|June|July|August|September|October|November|December)\\s+\\d{4}");
+
+    private static final List<String> SECTIONS = List.of(
+        "contact", "email", "phone", "summary", "experience", "work experience", "skills", "technical skills"
+    );
+
+    // Fragments random text is built from, so that partial and complete matches are common
+    private static final List<String> FRAGMENTS = List.of(
+        "1", "23", "456", "7890", "+", "(", ")", "-", ".", " ", "  ", "\t", "\n", "\r\n", " ",
+        "a", "Z", "ab", "x_y", "%", "@", "@.", "com", "io", "é",
+        "Jan", "June", "Ju", "ne", "May", "Sept", "September", "jan", "Dec ", " 2020", "202",
+        "contact", "EMAIL", "phone", "Work ", "experience", "skill", "s", "Technical"
+    );
+
+    @Test
+    void matchesFormerRegexesOnRandomText() {
+        SkillMatcher sectionMatcher = new SkillMatcher(SECTIONS, false);
+        Random random = new Random(3);
+
+        for (int n = 0; n < INPUTS; n++) {
+            String text = randomText(random);
+            AtsScanner scanner = new AtsScanner(sectionMatcher);
+            int offset = 0;
+            while (offset < text.length()) {
+                int length = Math.min(text.length() - offset, 1 + random.nextInt(8));
+                scanner.write(text, offset, length);
+                offset += length;
+            }
+
+            String quoted = "\"" + text.replace("\n", "\\n") + "\"";
+            assertEquals(EMAIL.matcher(text).find(), scanner.hasEmail(), "email in " + quoted);
+            assertEquals(PHONE.matcher(text).find(), scanner.hasPhone(), "phone in " + quoted);
+            assertEquals(DATE.matcher(text).find(), scanner.hasDate(), "date in " + quoted);
+
+            String lower = text.toLowerCase();
+            BitSet expected = new BitSet();
+            for (int i = 0; i < SECTIONS.size(); i++) {
+                if (lower.contains(SECTIONS.get(i))) {
+                    expected.set(i);
+                }
+            }
+            assertEquals(expected, scanner.sections(), "sections in " + quoted);
+            assertEquals(text.length(), scanner.length());
+        }
+    }
+
+    @Test
+    void recognizesTypicalContactLines() throws Exception {
+        AtsScanner scanner = new AtsScanner(new SkillMatcher(SECTIONS, false));
+        scanner.write("Jane Doe | jane.doe+cv@mail.example.org | +1 (555) 010-2030\nExperience: March 2019 - now");
+        assertTrue(scanner.hasEmail());
+        assertTrue(scanner.hasPhone());
+        assertTrue(scanner.hasDate());
+        assertTrue(scanner.sections().get(SECTIONS.indexOf("experience")));
+
+        AtsScanner none = new AtsScanner(new SkillMatcher(SECTIONS, false));
+        none.write("jane@localhost, ext. 5, Mar. 19");
+        assertFalse(none.hasEmail());
+        assertFalse(none.hasPhone());
+        assertFalse(none.hasDate());
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int fragments = random.nextInt(16);
+        for (int i = 0; i < fragments; i++) {
+            text.append(FRAGMENTS.get(random.nextInt(FRAGMENTS.size())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.model.LLMAnalysis;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Section parsing of completions in the format {@code buildFewShotPrompt} asks for, whole
+ * and streamed in arbitrary chunks as {@code streamWithContext} receives them.
+ */
+class LLMAnalyzerServiceTest {
+
+    // Content on heading lines, and "WORD:" lines inside sections that are not headings
+    private static final String COMPLETION = String.join("\n",
+        "OVERALL: Strong backend match with solid Java experience.",
+        "MATCH_REASONING: Most required skills are present.",
+        "Kubernetes is the main gap.",
+        "STRENGTHS:",
+        "- Java and Spring Boot",
+        "AWS: EC2, S3 and Lambda in production",
+        "- PostgreSQL tuning",
+        "IMPROVEMENTS:",
+        "- Add Kubernetes",
+        "NOTE: the resume omits dates for one role",
+        "- Quantify impact",
+        "ATS_OPTIMIZATION:",
+        "format: Use a single column",
+        "keywords: Add Kafka",
+        "sections: Add a summary",
+        "SKILL_PRIORITY:",
+        "- Kubernetes",
+        "- Terraform",
+        "ACTIONS:",
+        "- Add metrics",
+        "- Link GitHub");
+
+    private static final List<String> SECTIONS = List.of(
+        "OVERALL=Strong backend match with solid Java experience.",
+        "MATCH_REASONING=Most required skills are present.\nKubernetes is the main gap.",
+        "STRENGTHS=- Java and Spring Boot\nAWS: EC2, S3 and Lambda in production\n- PostgreSQL tuning",
+        "IMPROVEMENTS=- Add Kubernetes\nNOTE: the resume omits dates for one role\n- Quantify impact",
+        "ATS_OPTIMIZATION=format: Use a single column\nkeywords: Add Kafka\nsections: Add a summary",
+        "SKILL_PRIORITY=- Kubernetes\n- Terraform",
+        "ACTIONS=- Add metrics\n- Link GitHub");
+
+    private final LLMAnalyzerService service = new LLMAnalyzerService();
+
+    @Test
+    void streamsKnownSectionsWhateverTheChunking() {
+        Random random = new Random(17);
+        for (int run = 0; run < 2000; run++) {
+            List<String> sections = new ArrayList<>();
+            LLMAnalyzerService.SectionParser parser = new LLMAnalyzerService.SectionParser(
+                (name, content) -> sections.add(name + "=" + content));
+            int i = 0;
+            while (i < COMPLETION.length()) {
+                int end = Math.min(COMPLETION.length(), i + 1 + random.nextInt(run % 2 == 0 ? 4 : 40));
+                parser.accept(COMPLETION.substring(i, end));
+                i = end;
+            }
+            parser.finish();
+            assertEquals(SECTIONS, sections);
+        }
+    }
+
+    @Test
+    void parsesContentOnHeadingLinesAndKeepsOtherColonLines() {
+        LLMAnalysis analysis = service.parseAnalysisResponse(COMPLETION, 72.0, List.of("java"), List.of("kubernetes"));
+
+        assertEquals("Strong backend match with solid Java experience.", analysis.getOverallAssessment());
+        assertEquals("Most required skills are present.\nKubernetes is the main gap.", analysis.getMatchScoreReasoning());
+        assertEquals(List.of("Java and Spring Boot", "PostgreSQL tuning"), analysis.getStrengths());
+        assertEquals(List.of("Add Kubernetes", "Quantify impact"), analysis.getCriticalImprovements());
+        assertEquals(List.of("Kubernetes", "Terraform"), analysis.getSkillDevelopmentPriority());
+        assertEquals(List.of("Add metrics", "Link GitHub"), analysis.getImmediateActions());
+        assertEquals(Map.of(
+            "format", "Use a single column",
+            "keywords", "Add Kafka",
+            "sections", "Add a summary"
+        ), analysis.getAtsOptimization());
+    }
+}
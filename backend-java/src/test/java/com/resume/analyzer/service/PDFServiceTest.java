@@ -0,0 +1,193 @@
+package com.resume.analyzer.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link PDFService#extractText(String, PDFService.SpooledFile, java.io.Writer)} streaming
+ * into an {@link AnalyzedDocument.Builder}: a resume served from the {@link ExtractionCache}
+ * must be analyzed exactly as it was when it was first extracted.
+ */
+class PDFServiceTest {
+
+    private static final List<String> RESUME = List.of(
+        "   ",
+        "Jane Doe",
+        "jane.doe@example.com | (555) 123-4567",
+        "SUMMARY",
+        "Backend engineer working with Java, Spring Boot and PostgreSQL.",
+        "EXPERIENCE",
+        "Acme Corp, Jan 2019 - Present",
+        "Built Kafka pipelines in Python and Docker on AWS.",
+        "EDUCATION",
+        "B.Sc. Computer Science, 2018",
+        "SKILLS",
+        "Java, Python, Kubernetes, React",
+        "  "
+    );
+
+    @TempDir
+    Path directory;
+
+    private ExecutorService executor;
+    private ExtractionCache extractionCache;
+    private DocumentAnalyzer documentAnalyzer;
+    private PDFService pdfService;
+
+    @BeforeEach
+    void setUp() {
+        AnalysisMetrics metrics = new AnalysisMetrics();
+        ReflectionTestUtils.setField(metrics, "registry", new SimpleMeterRegistry());
+
+        extractionCache = new ExtractionCache();
+        ReflectionTestUtils.setField(extractionCache, "maxEntries", 100);
+        ReflectionTestUtils.setField(extractionCache, "maxBytes", 1L << 20);
+        ReflectionTestUtils.setField(extractionCache, "diskPath", "");
+        ReflectionTestUtils.setField(extractionCache, "diskMaxBytes", 0L);
+        extractionCache.init();
+
+        SkillTaxonomyService taxonomyService = new SkillTaxonomyService();
+        ReflectionTestUtils.setField(taxonomyService, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(taxonomyService, "location", "classpath:skills-taxonomy.txt");
+        taxonomyService.init();
+        SkillsService skillsService = new SkillsService();
+        ReflectionTestUtils.setField(skillsService, "taxonomyService", taxonomyService);
+        documentAnalyzer = new DocumentAnalyzer();
+        ReflectionTestUtils.setField(documentAnalyzer, "skillsService", skillsService);
+        ReflectionTestUtils.setField(documentAnalyzer, "atsService", new ATSService());
+
+        executor = Executors.newFixedThreadPool(2);
+        pdfService = new PDFService();
+        ReflectionTestUtils.setField(pdfService, "maxMainMemoryBytes", 1L << 20);
+        ReflectionTestUtils.setField(pdfService, "maxChars", 2_000_000);
+        ReflectionTestUtils.setField(pdfService, "maxPages", 0);
+        ReflectionTestUtils.setField(pdfService, "earlyStopChars", 0);
+        ReflectionTestUtils.setField(pdfService, "parallelMinPages", 16);
+        ReflectionTestUtils.setField(pdfService, "pagesPerTask", 8);
+        ReflectionTestUtils.setField(pdfService, "parallelThreads", 0);
+        ReflectionTestUtils.setField(pdfService, "extractionCache", extractionCache);
+        ReflectionTestUtils.setField(pdfService, "metrics", metrics);
+        ReflectionTestUtils.setField(pdfService, "pdfExtractionExecutor", executor);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        executor.shutdownNow();
+        extractionCache.close();
+    }
+
+    @Test
+    void cacheHitAnalyzesLikeTheMiss() throws IOException {
+        assertHitMatchesMiss(pdf(RESUME, 1));
+    }
+
+    @Test
+    void cacheHitAnalyzesLikeTheMissWhenTruncated() throws IOException {
+        // Cuts the text off inside the EXPERIENCE section, right after a line break
+        String full = String.join("\n", RESUME);
+        int cut = full.indexOf("Built Kafka");
+        ReflectionTestUtils.setField(pdfService, "maxChars", cut);
+        assertHitMatchesMiss(pdf(RESUME, 1));
+    }
+
+    @Test
+    void cacheHitAnalyzesLikeTheMissInParallel() throws IOException {
+        ReflectionTestUtils.setField(pdfService, "parallelMinPages", 2);
+        ReflectionTestUtils.setField(pdfService, "pagesPerTask", 1);
+        ReflectionTestUtils.setField(pdfService, "maxChars", 1_000);
+        assertHitMatchesMiss(pdf(RESUME, 6));
+    }
+
+    private void assertHitMatchesMiss(Path pdf) throws IOException {
+        AnalyzedDocument.Builder missBuilder = documentAnalyzer.newBuilder();
+        String missText = extract(pdf, missBuilder);
+        AnalyzedDocument miss = missBuilder.finish();
+
+        AnalyzedDocument.Builder hitBuilder = documentAnalyzer.newBuilder();
+        String hitText = extract(pdf, hitBuilder);
+        AnalyzedDocument hit = hitBuilder.finish();
+
+        assertEquals(1L, extractionCache.stats().getHits());
+        assertEquals(missText, hitText);
+        // The sink got the returned text, no more
+        assertEquals(documentAnalyzer.analyze(missText).text(), miss.text());
+        assertTrue(miss.length() <= missText.length());
+
+        assertEquals(miss.text(), hit.text());
+        assertEquals(miss.skills(), hit.skills());
+        assertEquals(describeMentions(miss), describeMentions(hit));
+        assertEquals(describeSections(miss), describeSections(hit));
+        assertEquals(miss.ats().hasEmail(), hit.ats().hasEmail());
+        assertEquals(miss.ats().hasPhone(), hit.ats().hasPhone());
+        assertEquals(miss.ats().hasDate(), hit.ats().hasDate());
+        assertEquals(miss.ats().sections(), hit.ats().sections());
+    }
+
+    private String extract(Path pdf, AnalyzedDocument.Builder sink) throws IOException {
+        try (InputStream in = Files.newInputStream(pdf);
+             PDFService.SpooledFile spooled = pdfService.spool(in)) {
+            return pdfService.extractText("resume.pdf", spooled, sink);
+        }
+    }
+
+    private Path pdf(List<String> lines, int copies) throws IOException {
+        Path file = directory.resolve("resume-" + copies + ".pdf");
+        try (PDDocument document = new PDDocument()) {
+            for (int copy = 0; copy < copies; copy++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 11);
+                    content.setLeading(14);
+                    content.newLineAtOffset(50, 740);
+                    for (String line : lines) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(file.toFile());
+        }
+        return file;
+    }
+
+    private static List<String> describeMentions(AnalyzedDocument document) {
+        List<String> mentions = new ArrayList<>();
+        for (AnalyzedDocument.Mention mention : document.mentions()) {
+            mentions.add(mention.getSkill() + "@" + mention.getStart() + "-" + mention.getEnd());
+        }
+        return mentions;
+    }
+
+    private static List<String> describeSections(AnalyzedDocument document) {
+        List<String> sections = new ArrayList<>();
+        for (AnalyzedDocument.Section section : document.sections()) {
+            sections.add(section.getName() + "@" + section.getStart() + "-" + section.getEnd());
+        }
+        return sections;
+    }
+}
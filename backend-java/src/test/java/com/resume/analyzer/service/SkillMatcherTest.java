@@ -0,0 +1,115 @@
+package com.resume.analyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The streaming {@link SkillMatcher.Scanner} against the one-shot {@link SkillMatcher#findIds}
+ * on random text fed in random chunk sizes.
+ */
+class SkillMatcherTest {
+
+    private static final int INPUTS = 30_000;
+
+    // Overlapping prefixes and suffixes, and terms that start or end on a non-word character
+    private static final List<String> TERMS = List.of(
+        "c", "c++", "c#", "java", "javascript", "script", "node.js", "js", "ci/cd", "cd",
+        "go", "golang", ".net", "asp.net", "r", "sql", "nosql", "a", "aa", "aaa", "_x"
+    );
+
+    // Fragments random text is built from, so that terms and near misses are common
+    private static final List<String> FRAGMENTS = List.of(
+        "c", "++", "#", "java", "script", "node", ".", "js", "ci", "/", "cd", "go", "lang",
+        "net", "asp", "r", "sql", "no", "a", "_", "x", "1", " ", "  ", ",", "-", "\n", "é"
+    );
+
+    @Test
+    void scannerMatchesFindIdsOnRandomChunks() {
+        SkillMatcher wholeWords = new SkillMatcher(TERMS);
+        SkillMatcher substrings = new SkillMatcher(TERMS, false);
+        Random random = new Random(42);
+
+        for (int n = 0; n < INPUTS; n++) {
+            String text = randomText(random);
+            for (SkillMatcher matcher : List.of(wholeWords, substrings)) {
+                SkillMatcher.Scanner scanner = matcher.scanner();
+                int offset = 0;
+                while (offset < text.length()) {
+                    int end = Math.min(text.length(), offset + 1 + random.nextInt(8));
+                    for (int i = offset; i < end; i++) {
+                        scanner.accept(text.charAt(i));
+                    }
+                    offset = end;
+                }
+                BitSet expected = matcher.findIds(text);
+                assertEquals(expected, scanner.finish(), "ids for \"" + text + "\"");
+                assertEquals(text.length(), scanner.length());
+
+                BitSet seen = new BitSet();
+                for (int i = 0; i < scanner.occurrences(); i++) {
+                    int id = scanner.occurrenceId(i);
+                    String term = TERMS.get(id);
+                    assertTrue(text.startsWith(term, (int) scanner.occurrenceStart(i)),
+                        "\"" + term + "\" at " + scanner.occurrenceStart(i) + " in \"" + text + "\"");
+                    seen.set(id);
+                }
+                assertEquals(expected, seen, "occurrences for \"" + text + "\"");
+            }
+        }
+    }
+
+    @Test
+    void taxonomyWriterMatchesExtractSkills() throws Exception {
+        SkillTaxonomy taxonomy = SkillTaxonomy.parse(new BufferedReader(new StringReader(String.join("\n",
+            "# test taxonomy",
+            "javascript | language | js, node.js",
+            "c++ | language | cpp",
+            "c# | language | csharp, .net",
+            "ci/cd | practice | cd",
+            "go | language | golang",
+            "sql | database | nosql"
+        ))));
+        Random random = new Random(7);
+
+        for (int n = 0; n < INPUTS; n++) {
+            String text = randomText(random);
+            if (random.nextBoolean()) {
+                text = text.toUpperCase();
+            }
+            SkillTaxonomy.Scanner scanner = taxonomy.scanner();
+            char[] chars = text.toCharArray();
+            int offset = 0;
+            while (offset < chars.length) {
+                int length = Math.min(chars.length - offset, 1 + random.nextInt(8));
+                if (random.nextBoolean()) {
+                    scanner.write(chars, offset, length);
+                } else {
+                    scanner.write(text, offset, length);
+                }
+                offset += length;
+            }
+            Set<String> expected = taxonomy.extractSkills(text.toLowerCase());
+            assertEquals(expected, scanner.skills(), "skills for \"" + text + "\"");
+            assertEquals(expected.size(), scanner.mentions().stream().map(AnalyzedDocument.Mention::getSkill).distinct().count(),
+                "mentions for \"" + text + "\"");
+        }
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int fragments = random.nextInt(12);
+        for (int i = 0; i < fragments; i++) {
+            text.append(FRAGMENTS.get(random.nextInt(FRAGMENTS.size())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,308 @@
+package com.resume.analyzer.service;
+
+import com.resume.analyzer.exception.UpstreamOverloadedException;
+import com.resume.analyzer.model.UpstreamStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import retrofit2.HttpException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link UpstreamScheduler} in front of a {@link MockWebServer} standing in for the OpenAI
+ * embeddings endpoint. Calls go through an OkHttp client with the scheduler's rate-limit
+ * interceptor, as {@code OpenAIConfig} sets it up, and fail with retrofit's
+ * {@link HttpException} on error statuses, as the OpenAI client does.
+ */
+class UpstreamSchedulerTest {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private MockWebServer server;
+    private UpstreamScheduler scheduler;
+    private OkHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        server.shutdown();
+    }
+
+    @Test
+    void retriesRateLimitedCallAfterRetryAfter() throws Exception {
+        start(4, 4, 10_000, 3);
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("retry-after", "1"));
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        long started = System.nanoTime();
+        assertEquals("call", embed(UpstreamScheduler.Priority.INTERACTIVE, "call").get(5, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertEquals(2, server.getRequestCount());
+        assertTrue(elapsedMs >= 950, "retried after " + elapsedMs + " ms, before retry-after");
+        assertEquals(1L, stats().getRateLimited());
+        assertEquals(1L, stats().getRetried());
+        assertEquals(1L, stats().getCompleted());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() throws Exception {
+        start(4, 4, 10_000, 2);
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(429).setHeader("retry-after-ms", "50"));
+        }
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> embed(UpstreamScheduler.Priority.INTERACTIVE, "call").get(5, TimeUnit.SECONDS));
+        assertInstanceOf(HttpException.class, failure.getCause());
+        assertEquals(429, ((HttpException) failure.getCause()).code());
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1L, stats().getRetried());
+    }
+
+    @Test
+    void takesRequestBudgetFromRateLimitHeaders() throws Exception {
+        start(4, 4, 10_000, 3);
+        // The account allows one request per second and this one used it up; the reset
+        // header alone would let the next call go after 200 ms
+        server.enqueue(new MockResponse()
+            .setHeader("x-ratelimit-limit-requests", "60")
+            .setHeader("x-ratelimit-remaining-requests", "0")
+            .setHeader("x-ratelimit-reset-requests", "200ms")
+            .setHeader("x-ratelimit-limit-tokens", "1000000")
+            .setHeader("x-ratelimit-remaining-tokens", "999000")
+            .setHeader("x-ratelimit-reset-tokens", "60ms")
+            .setBody("{}"));
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        embed(UpstreamScheduler.Priority.INTERACTIVE, "first").get(5, TimeUnit.SECONDS);
+        long started = System.nanoTime();
+        embed(UpstreamScheduler.Priority.INTERACTIVE, "second").get(5, TimeUnit.SECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertTrue(elapsedMs >= 900, "sent after " + elapsedMs + " ms, before a request was budgeted");
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void runsInteractiveCallsBeforeQueuedBatchCalls() throws Exception {
+        // One call at a time, so queued calls reach the server in scheduling order
+        start(1, 1, 10_000, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                String name = request.getHeader("X-Call");
+                order.add(name);
+                if (name.equals("blocker")) {
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                return new MockResponse().setBody("{}");
+            }
+        });
+
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        calls.add(embed(UpstreamScheduler.Priority.BATCH, "blocker"));
+        awaitRequests(1);
+        calls.add(embed(UpstreamScheduler.Priority.BATCH, "batch-1"));
+        calls.add(embed(UpstreamScheduler.Priority.BATCH, "batch-2"));
+        calls.add(embed(UpstreamScheduler.Priority.INTERACTIVE, "interactive-1"));
+        calls.add(embed(UpstreamScheduler.Priority.INTERACTIVE, "interactive-2"));
+        assertEquals(2, stats().getQueuedBatch());
+        assertEquals(2, stats().getQueuedInteractive());
+
+        release.countDown();
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("blocker", "interactive-1", "interactive-2", "batch-1", "batch-2"), order);
+    }
+
+    @Test
+    void shedsCallsThatCannotStartWithinMaxWait() throws Exception {
+        start(1, 1, 200, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                release.await(5, TimeUnit.SECONDS);
+                return new MockResponse().setBody("{}");
+            }
+        });
+
+        CompletableFuture<String> blocker = embed(UpstreamScheduler.Priority.BATCH, "blocker");
+        awaitRequests(1);
+        long started = System.nanoTime();
+        CompletableFuture<String> waiting = embed(UpstreamScheduler.Priority.INTERACTIVE, "waiting");
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        assertInstanceOf(UpstreamOverloadedException.class, failure.getCause());
+        assertTrue(elapsedMs >= 190 && elapsedMs < 2000, "shed after " + elapsedMs + " ms");
+        assertEquals(1L, stats().getShed());
+
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void shedsCallsWhenQueueIsFull() throws Exception {
+        start(1, 1, 10_000, 3);
+        ReflectionTestUtils.setField(scheduler, "maxQueued", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                release.await(5, TimeUnit.SECONDS);
+                return new MockResponse().setBody("{}");
+            }
+        });
+
+        CompletableFuture<String> running = embed(UpstreamScheduler.Priority.INTERACTIVE, "running");
+        awaitRequests(1);
+        CompletableFuture<String> queued = embed(UpstreamScheduler.Priority.INTERACTIVE, "queued");
+        CompletableFuture<String> rejected = embed(UpstreamScheduler.Priority.INTERACTIVE, "rejected");
+
+        assertTrue(rejected.isCompletedExceptionally());
+        ExecutionException failure = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(UpstreamOverloadedException.class, failure.getCause());
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void halvesConcurrencyLimitOnceForBurstOfRateLimits() throws Exception {
+        start(8, 8, 10_000, 3);
+        CountDownLatch bothArrived = new CountDownLatch(2);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (request.getSequenceNumber() < 2) {
+                    // Both calls are rejected together, as one overload event
+                    bothArrived.countDown();
+                    bothArrived.await(5, TimeUnit.SECONDS);
+                    return new MockResponse().setResponseCode(429).setHeader("retry-after-ms", "100");
+                }
+                return new MockResponse().setBody("{}");
+            }
+        });
+
+        CompletableFuture<String> first = embed(UpstreamScheduler.Priority.INTERACTIVE, "first");
+        CompletableFuture<String> second = embed(UpstreamScheduler.Priority.INTERACTIVE, "second");
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        assertEquals(4, stats().getConcurrencyLimit());
+        assertEquals(2L, stats().getRateLimited());
+        assertEquals(2L, stats().getRetried());
+        assertEquals(4, server.getRequestCount());
+    }
+
+    // A scheduler with the application's budgets and the given limits; latency-based
+    // decreases are disabled so only overloads change the limit
+    private void start(int initialLimit, int maxLimit, long interactiveMaxWaitMs, int maxAttempts) {
+        AnalysisMetrics metrics = new AnalysisMetrics();
+        ReflectionTestUtils.setField(metrics, "registry", new SimpleMeterRegistry());
+
+        scheduler = new UpstreamScheduler();
+        ReflectionTestUtils.setField(scheduler, "metrics", metrics);
+        ReflectionTestUtils.setField(scheduler, "initialLimit", initialLimit);
+        ReflectionTestUtils.setField(scheduler, "maxLimit", maxLimit);
+        ReflectionTestUtils.setField(scheduler, "latencyTolerance", 1000.0);
+        ReflectionTestUtils.setField(scheduler, "maxQueued", 1000);
+        ReflectionTestUtils.setField(scheduler, "interactiveMaxWaitMs", interactiveMaxWaitMs);
+        ReflectionTestUtils.setField(scheduler, "batchMaxWaitMs", 60_000L);
+        ReflectionTestUtils.setField(scheduler, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(scheduler, "chatRequestsPerMinute", 500.0);
+        ReflectionTestUtils.setField(scheduler, "chatTokensPerMinute", 200_000.0);
+        ReflectionTestUtils.setField(scheduler, "embeddingRequestsPerMinute", 3000.0);
+        ReflectionTestUtils.setField(scheduler, "embeddingTokensPerMinute", 1_000_000.0);
+        scheduler.init();
+
+        client = new OkHttpClient.Builder()
+            .addInterceptor(scheduler.rateLimitInterceptor())
+            .build();
+    }
+
+    private CompletableFuture<String> embed(UpstreamScheduler.Priority priority, String name) {
+        return scheduler.submit(UpstreamScheduler.Endpoint.EMBEDDINGS, priority, 100, () -> post(name));
+    }
+
+    private CompletableFuture<String> post(String name) {
+        Request request = new Request.Builder()
+            .url(server.url("/v1/embeddings"))
+            .header("X-Call", name)
+            .post(RequestBody.create("{}", JSON))
+            .build();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    if (response.isSuccessful()) {
+                        result.complete(name);
+                    } else {
+                        result.completeExceptionally(new HttpException(
+                            retrofit2.Response.error(response.code(), ResponseBody.create("", JSON))));
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.getRequestCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, server.getRequestCount());
+    }
+
+    private UpstreamStats stats() {
+        return scheduler.stats().get("embeddings");
+    }
+}